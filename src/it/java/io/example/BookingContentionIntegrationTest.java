@@ -0,0 +1,61 @@
+package io.example;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import io.example.application.BookingWorkflow;
+import io.example.domain.Booking;
+import io.example.domain.Reservation;
+
+/**
+ * Books every student into the same hour at once, so many bookings compete for the instructor and
+ * aircraft time slots of that hour, and reports the confirmed bookings per second for each
+ * Booking.CandidateSelection, then for the matched lookup mode. Each run books its own range of
+ * hours.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class BookingContentionIntegrationTest extends LoadTestSupport {
+  private final int hoursPerSelection = Integer.getInteger("loadtest.contention.hours", 5);
+  private final int bookingsPerHour = Integer.getInteger("loadtest.contention.bookings-per-hour", 60);
+  private final int participantsPerHour = Integer.getInteger("loadtest.contention.participants-per-hour", 20);
+
+  @BeforeAll
+  void seed() throws Exception {
+    var runs = Booking.CandidateSelection.values().length + 1;
+    seedTimeSlots(runs * hoursPerSelection, bookingsPerHour, participantsPerHour, participantsPerHour);
+  }
+
+  @Test
+  void bookingContention() throws Exception {
+    for (var selection : Booking.CandidateSelection.values()) {
+      var firstHour = selection.ordinal() * hoursPerSelection;
+      var bookings = new ArrayList<BookingWorkflow.BookingRequest>();
+      for (int h = firstHour; h < firstHour + hoursPerSelection; h++) {
+        for (int i = 0; i < bookingsPerHour; i++) {
+          bookings.add(new BookingWorkflow.BookingRequest(
+              Reservation.generateReservationId(), studentId(i), hour(h), null, selection));
+        }
+      }
+
+      var start = System.nanoTime();
+      var results = run(bookings, this::book);
+      report("POST /flight/booking candidate-selection=" + selection, results, System.nanoTime() - start);
+    }
+
+    var firstHour = Booking.CandidateSelection.values().length * hoursPerSelection;
+    var bookings = new ArrayList<BookingWorkflow.BookingRequest>();
+    for (int h = firstHour; h < firstHour + hoursPerSelection; h++) {
+      for (int i = 0; i < bookingsPerHour; i++) {
+        bookings.add(new BookingWorkflow.BookingRequest(
+            Reservation.generateReservationId(), studentId(i), hour(h), Booking.LookupMode.matched));
+      }
+    }
+
+    var start = System.nanoTime();
+    var results = run(bookings, this::book);
+    report("POST /flight/booking lookup-mode=matched", results, System.nanoTime() - start);
+  }
+}
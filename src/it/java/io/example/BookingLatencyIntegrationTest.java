@@ -0,0 +1,109 @@
+package io.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.javasdk.testkit.TestKitSupport;
+import io.example.application.BookingWorkflow;
+import io.example.application.TimeSlotEntity;
+import io.example.application.TimeSlotView;
+import io.example.domain.Booking;
+import io.example.domain.Reservation;
+import io.example.domain.TimeSlot;
+
+/**
+ * Compares the time it takes a booking to leave the pending status when the availability lookups
+ * run as three sequential workflow steps versus one concurrent step.
+ */
+class BookingLatencyIntegrationTest extends TestKitSupport {
+  private static final Logger log = LoggerFactory.getLogger(BookingLatencyIntegrationTest.class);
+  private static final int bookingsPerMode = 20;
+
+  @Test
+  void compareSequentialAndConcurrentLookups() throws Exception {
+    var baseTime = Instant.now().plus(Duration.ofDays(30)).truncatedTo(ChronoUnit.HOURS);
+
+    var sequential = measure(Booking.LookupMode.sequential, baseTime);
+    var concurrent = measure(Booking.LookupMode.concurrent, baseTime.plus(Duration.ofHours(bookingsPerMode)));
+
+    log.info("Booking latency sequential: {}", summary(sequential));
+    log.info("Booking latency concurrent: {}", summary(concurrent));
+  }
+
+  private List<Duration> measure(Booking.LookupMode lookupMode, Instant firstHour) throws Exception {
+    var studentId = "student-latency-" + lookupMode;
+    var instructorId = "instructor-latency-" + lookupMode;
+    var aircraftId = "aircraft-latency-" + lookupMode;
+
+    for (int i = 0; i < bookingsPerMode; i++) {
+      var hour = firstHour.plus(Duration.ofHours(i));
+      makeAvailable(studentId, TimeSlot.ParticipantType.student, hour);
+      makeAvailable(instructorId, TimeSlot.ParticipantType.instructor, hour);
+      makeAvailable(aircraftId, TimeSlot.ParticipantType.aircraft, hour);
+    }
+    var lastHour = firstHour.plus(Duration.ofHours(bookingsPerMode));
+    awaitViewRows(new TimeSlotView.ByParticipantAndTimeRange(studentId, TimeSlot.ParticipantType.student.name(), firstHour, lastHour));
+    awaitViewRows(new TimeSlotView.ByParticipantAndTimeRange(instructorId, TimeSlot.ParticipantType.instructor.name(), firstHour, lastHour));
+    awaitViewRows(new TimeSlotView.ByParticipantAndTimeRange(aircraftId, TimeSlot.ParticipantType.aircraft.name(), firstHour, lastHour));
+
+    var latencies = new ArrayList<Duration>();
+    for (int i = 0; i < bookingsPerMode; i++) {
+      var bookingId = Reservation.generateReservationId();
+      var request = new BookingWorkflow.BookingRequest(bookingId, studentId, firstHour.plus(Duration.ofHours(i)), lookupMode);
+
+      var start = System.nanoTime();
+      await(componentClient.forWorkflow(bookingId)
+          .method(BookingWorkflow::startBooking)
+          .invokeAsync(request));
+
+      var status = Booking.Status.pending;
+      while (status == Booking.Status.pending) {
+        Thread.sleep(5);
+        status = await(componentClient.forWorkflow(bookingId)
+            .method(BookingWorkflow::get)
+            .invokeAsync()).status();
+      }
+      latencies.add(Duration.ofNanos(System.nanoTime() - start));
+      assertEquals(Booking.Status.reservationRequested, status);
+    }
+    return latencies;
+  }
+
+  private void makeAvailable(String participantId, TimeSlot.ParticipantType participantType, Instant startTime) {
+    var command = new TimeSlot.Command.MakeTimeSlotAvailable(participantId, participantType, startTime);
+    await(componentClient.forEventSourcedEntity(TimeSlot.State.entityId(participantId, participantType, startTime))
+        .method(TimeSlotEntity::createTimeSlot)
+        .invokeAsync(command));
+  }
+
+  private void awaitViewRows(TimeSlotView.ByParticipantAndTimeRange query) throws Exception {
+    var rows = 0;
+    while (rows < bookingsPerMode) {
+      Thread.sleep(100); // Add small delay between checks
+      rows = await(componentClient.forView()
+          .method(TimeSlotView::getTimeSlotsByParticipantAndTimeRange)
+          .invokeAsync(query)).timeSlots().size();
+    }
+  }
+
+  private static String summary(List<Duration> latencies) {
+    var sorted = new ArrayList<>(latencies);
+    Collections.sort(sorted);
+    var mean = sorted.stream().mapToLong(Duration::toMillis).average().orElse(0);
+    return "n=%d mean=%.1fms p50=%dms max=%dms".formatted(
+        sorted.size(),
+        mean,
+        sorted.get(sorted.size() / 2).toMillis(),
+        sorted.get(sorted.size() - 1).toMillis());
+  }
+}
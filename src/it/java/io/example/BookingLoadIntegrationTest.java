@@ -0,0 +1,73 @@
+package io.example;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CompletionStage;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import io.example.application.BookingWorkflow;
+import io.example.domain.Reservation;
+import io.example.domain.TimeSlot;
+
+/**
+ * Drives the booking saga through the HTTP endpoint with many concurrent requests and reports the
+ * latency from request to a final Reservation.Status. Bookings use the first half of the seeded
+ * hours and direct reservations the second half, so the two tests do not compete for time slots.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class BookingLoadIntegrationTest extends LoadTestSupport {
+  private final Random random = new Random(42);
+
+  @BeforeAll
+  void seed() throws Exception {
+    seedTimeSlots();
+  }
+
+  @Test
+  void bookingLoad() throws Exception {
+    var bookings = new ArrayList<BookingWorkflow.BookingRequest>();
+    for (int i = 0; i < requests; i++) {
+      var studentId = studentId(random.nextInt(students));
+      var startTime = hour(random.nextInt(hours / 2));
+      bookings.add(new BookingWorkflow.BookingRequest(Reservation.generateReservationId(), studentId, startTime));
+    }
+
+    var start = System.nanoTime();
+    var results = run(bookings, this::book);
+    report("POST /flight/booking", results, System.nanoTime() - start);
+  }
+
+  @Test
+  void reservationLoad() throws Exception {
+    var reservations = new ArrayList<Reservation.Command.CreateReservation>();
+    for (int i = 0; i < requests; i++) {
+      var startTime = hour(hours / 2 + random.nextInt(hours - hours / 2));
+      var studentId = studentId(random.nextInt(students));
+      var instructorId = instructorId(random.nextInt(instructors));
+      var aircraftId = aircraftId(random.nextInt(aircraft));
+      reservations.add(new Reservation.Command.CreateReservation(
+          Reservation.generateReservationId(),
+          studentId,
+          TimeSlot.State.entityId(studentId, TimeSlot.ParticipantType.student, startTime),
+          instructorId,
+          TimeSlot.State.entityId(instructorId, TimeSlot.ParticipantType.instructor, startTime),
+          aircraftId,
+          TimeSlot.State.entityId(aircraftId, TimeSlot.ParticipantType.aircraft, startTime),
+          startTime));
+    }
+
+    var start = System.nanoTime();
+    var results = run(reservations, this::reserve);
+    report("POST /flight/reservation", results, System.nanoTime() - start);
+  }
+
+  private CompletionStage<Result> reserve(Reservation.Command.CreateReservation command) {
+    return httpClient.POST("/flight/reservation")
+        .withRequestBody(command)
+        .invokeAsync()
+        .thenCompose(__ -> awaitFinalStatus(command.reservationId()));
+  }
+}
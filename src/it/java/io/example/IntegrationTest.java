@@ -1,15 +1,21 @@
 package io.example;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
 import java.time.Instant;
+import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 import akka.javasdk.testkit.TestKitSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.example.application.BookableHourEntity;
 import io.example.application.BookingWorkflow;
 import io.example.application.ReservationEntity;
 import io.example.application.TimeSlotEntity;
+import io.example.domain.BookableHour;
 import io.example.domain.Booking;
 import io.example.domain.Reservation;
 import io.example.domain.Reservation.Status;
@@ -227,4 +233,45 @@ class IntegrationTest extends TestKitSupport {
     }
     log.info("Booking cancelled because student is not available");
   }
+
+  @Test
+  void testBookableHourSkipsNonCanonicalTimeSlotIds() throws Exception {
+    var instructorId = "instructor-" + UUID.randomUUID();
+    var timeSlotId = "instructor-timeSlot-" + UUID.randomUUID();
+    var reservationId = Reservation.generateReservationId();
+    var startTime = Instant.parse("2031-01-01T00:00:00Z").plus(Duration.ofHours(Math.floorMod(instructorId.hashCode(), 24 * 365)));
+    var bookableHourId = BookableHour.State.entityId(startTime);
+
+    await(componentClient.forEventSourcedEntity(timeSlotId)
+        .method(TimeSlotEntity::createTimeSlot)
+        .invokeAsync(new TimeSlot.Command.MakeTimeSlotAvailable(instructorId, TimeSlot.ParticipantType.instructor, startTime)));
+    awaitInstructorInBookableHour(bookableHourId, instructorId, true);
+
+    // The accepted and cancelled events carry the non canonical id, the consumer must skip them
+    await(componentClient.forEventSourcedEntity(timeSlotId)
+        .method(TimeSlotEntity::instructorRequestsTimeSlot)
+        .invokeAsync(new TimeSlot.Command.InstructorRequestsTimeSlot(timeSlotId, reservationId)));
+    await(componentClient.forEventSourcedEntity(timeSlotId)
+        .method(TimeSlotEntity::cancelTimeSlot)
+        .invokeAsync(new TimeSlot.Command.CancelTimeSlot(timeSlotId, reservationId)));
+    await(componentClient.forEventSourcedEntity(timeSlotId)
+        .method(TimeSlotEntity::makeTimeSlotUnavailable)
+        .invokeAsync(new TimeSlot.Command.MakeTimeSlotUnavailable(instructorId, TimeSlot.ParticipantType.instructor, startTime)));
+
+    // Only reached when the consumer got past the non canonical events
+    awaitInstructorInBookableHour(bookableHourId, instructorId, false);
+  }
+
+  private void awaitInstructorInBookableHour(String bookableHourId, String instructorId, boolean expected) throws Exception {
+    var deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+    var found = !expected;
+    while (found != expected && System.nanoTime() < deadline) {
+      Thread.sleep(100); // Add small delay between checks
+      var state = await(componentClient.forKeyValueEntity(bookableHourId)
+          .method(BookableHourEntity::get)
+          .invokeAsync());
+      found = state.instructorIds().contains(instructorId);
+    }
+    assertTrue(found == expected, "Bookable hour " + bookableHourId + " never had instructor " + instructorId + (expected ? " added" : " removed"));
+  }
 }
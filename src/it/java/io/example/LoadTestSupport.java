@@ -0,0 +1,233 @@
+package io.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.http.javadsl.model.StatusCodes;
+import akka.javasdk.testkit.TestKitSupport;
+import io.example.application.BookingWorkflow;
+import io.example.application.ReservationEntity;
+import io.example.application.TimeSlotEntity;
+import io.example.application.TimeSlotView;
+import io.example.domain.Booking;
+import io.example.domain.Reservation;
+import io.example.domain.TimeSlot;
+
+/**
+ * Base class for in-process load tests. It seeds time slots, fires requests with bounded
+ * concurrency and tracks each request until it reaches a final status.
+ *
+ * <p>Load tests only run when the loadtest system property is set, for example
+ * {@code mvn verify -Dloadtest=true -Dloadtest.bookings=5000}.
+ */
+abstract class LoadTestSupport extends TestKitSupport {
+  private static final Logger log = LoggerFactory.getLogger(LoadTestSupport.class);
+
+  protected final int hours = Integer.getInteger("loadtest.hours", 200);
+  protected final int students = Integer.getInteger("loadtest.students", 10);
+  protected final int instructors = Integer.getInteger("loadtest.instructors", 5);
+  protected final int aircraft = Integer.getInteger("loadtest.aircraft", 5);
+  protected final int requests = Integer.getInteger("loadtest.bookings", 1000);
+  protected final int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+  protected final Duration pollInterval = Duration.ofMillis(Long.getLong("loadtest.poll-interval-ms", 10));
+  protected final Duration seedTimeout = Duration.ofSeconds(Long.getLong("loadtest.seed-timeout-seconds", 120));
+
+  protected final Instant firstHour = Instant.now().plus(Duration.ofDays(1)).truncatedTo(ChronoUnit.HOURS);
+
+  private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+
+  @AfterAll
+  void stopScheduler() {
+    scheduler.shutdownNow();
+  }
+
+  protected enum Outcome {
+    confirmed,
+    rejected,
+    failed
+  }
+
+  protected record Result(Outcome outcome, long latencyNanos) {}
+
+  protected String studentId(int i) {
+    return "load-student-" + i;
+  }
+
+  protected String instructorId(int i) {
+    return "load-instructor-" + i;
+  }
+
+  protected String aircraftId(int i) {
+    return "load-aircraft-" + i;
+  }
+
+  protected Instant hour(int i) {
+    return firstHour.plus(Duration.ofHours(i));
+  }
+
+  /** Makes every participant available for every hour and waits until the view has caught up. */
+  protected void seedTimeSlots() throws Exception {
+    seedTimeSlots(hours, students, instructors, aircraft);
+  }
+
+  protected void seedTimeSlots(int hours, int students, int instructors, int aircraft) throws Exception {
+    var start = System.nanoTime();
+    var commands = new ArrayList<TimeSlot.Command.MakeTimeSlotAvailable>();
+    for (int h = 0; h < hours; h++) {
+      for (int i = 0; i < students; i++) {
+        commands.add(new TimeSlot.Command.MakeTimeSlotAvailable(studentId(i), TimeSlot.ParticipantType.student, hour(h)));
+      }
+      for (int i = 0; i < instructors; i++) {
+        commands.add(new TimeSlot.Command.MakeTimeSlotAvailable(instructorId(i), TimeSlot.ParticipantType.instructor, hour(h)));
+      }
+      for (int i = 0; i < aircraft; i++) {
+        commands.add(new TimeSlot.Command.MakeTimeSlotAvailable(aircraftId(i), TimeSlot.ParticipantType.aircraft, hour(h)));
+      }
+    }
+
+    run(commands, command -> componentClient
+        .forEventSourcedEntity(TimeSlot.State.entityId(command.participantId(), command.participantType(), command.startTime()))
+        .method(TimeSlotEntity::createTimeSlot)
+        .invokeAsync(command)
+        .thenApply(__ -> new Result(Outcome.confirmed, 0)));
+
+    awaitViewRows(TimeSlot.ParticipantType.student, hours, students * hours);
+    awaitViewRows(TimeSlot.ParticipantType.instructor, hours, instructors * hours);
+    awaitViewRows(TimeSlot.ParticipantType.aircraft, hours, aircraft * hours);
+    log.info("Seeded {} time slots in {}ms", commands.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private void awaitViewRows(TimeSlot.ParticipantType participantType, int hours, int expected) throws Exception {
+    var query = new TimeSlotView.ByParticipantTypeAndTimeRange(participantType.name(), hour(0), hour(hours));
+    var deadline = System.nanoTime() + seedTimeout.toNanos();
+    var rows = 0;
+    while (rows < expected && System.nanoTime() < deadline) {
+      Thread.sleep(200);
+      rows = await(componentClient.forView()
+          .method(TimeSlotView::getTimeSlotsByParticipantTypeAndTimeRange)
+          .invokeAsync(query)).timeSlots().size();
+    }
+    assertEquals(expected, rows, participantType + " time slots in TimeSlotView after " + seedTimeout.toSeconds() + "s");
+  }
+
+  /** Runs one request per item with at most {@code concurrency} requests in flight. */
+  protected <T> List<Result> run(List<T> items, Function<T, CompletionStage<Result>> request) throws Exception {
+    var permits = new Semaphore(concurrency);
+    var results = new ConcurrentLinkedQueue<Result>();
+    var remaining = new AtomicInteger(items.size());
+    var done = new CompletableFuture<Void>();
+    if (items.isEmpty()) {
+      done.complete(null);
+    }
+
+    for (var item : items) {
+      permits.acquire();
+      var start = System.nanoTime();
+      request.apply(item).whenComplete((result, error) -> {
+        results.add(error == null
+            ? new Result(result.outcome(), System.nanoTime() - start)
+            : new Result(Outcome.failed, System.nanoTime() - start));
+        permits.release();
+        if (remaining.decrementAndGet() == 0) {
+          done.complete(null);
+        }
+      });
+    }
+    done.get();
+    return new ArrayList<>(results);
+  }
+
+  /** Books through the HTTP endpoint and waits for the booking, then its reservation, to reach a final status. */
+  protected CompletionStage<Result> book(BookingWorkflow.BookingRequest request) {
+    return httpClient.POST("/flight/booking")
+        .withRequestBody(request)
+        .invokeAsync()
+        .thenCompose(response -> response.status() == StatusCodes.CONFLICT
+            ? CompletableFuture.completedFuture(new Result(Outcome.rejected, 0)) // Rejected by the no capacity cache
+            : pollUntil(
+                () -> componentClient.forWorkflow(request.reservationId())
+                    .method(BookingWorkflow::get)
+                    .invokeAsync(),
+                state -> state.status() != Booking.Status.pending)
+                .thenCompose(state -> state.status() == Booking.Status.reservationRequested
+                    ? awaitFinalStatus(state.reservationId())
+                    : CompletableFuture.completedFuture(new Result(Outcome.rejected, 0))));
+  }
+
+  protected CompletionStage<Result> awaitFinalStatus(String reservationId) {
+    return pollUntil(
+        () -> componentClient.forEventSourcedEntity(reservationId)
+            .method(ReservationEntity::get)
+            .invokeAsync(),
+        state -> state.status() != Reservation.Status.pending)
+        .thenApply(state -> new Result(
+            state.status() == Reservation.Status.confirmed ? Outcome.confirmed : Outcome.rejected, 0));
+  }
+
+  /** Polls until the value satisfies the predicate, without blocking a thread between polls. */
+  protected <T> CompletionStage<T> pollUntil(Supplier<CompletionStage<T>> poll, Predicate<T> isFinal) {
+    var result = new CompletableFuture<T>();
+    poll(poll, isFinal, result);
+    return result;
+  }
+
+  private <T> void poll(Supplier<CompletionStage<T>> poll, Predicate<T> isFinal, CompletableFuture<T> result) {
+    poll.get().whenComplete((value, error) -> {
+      if (error != null) {
+        result.completeExceptionally(error);
+      } else if (isFinal.test(value)) {
+        result.complete(value);
+      } else {
+        scheduler.schedule(() -> poll(poll, isFinal, result), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+      }
+    });
+  }
+
+  protected void report(String name, List<Result> results, long elapsedNanos) {
+    var latencies = results.stream().mapToLong(Result::latencyNanos).sorted().toArray();
+    var confirmed = results.stream().filter(r -> r.outcome() == Outcome.confirmed).count();
+    var rejected = results.stream().filter(r -> r.outcome() == Outcome.rejected).count();
+    var failed = results.stream().filter(r -> r.outcome() == Outcome.failed).count();
+    var seconds = elapsedNanos / 1e9;
+
+    log.info("""
+        {}: {} requests in {}s
+          throughput   {} requests/s, {} confirmed/s
+          outcomes     confirmed={} rejected={} failed={} rejection rate={}%
+          latency (ms) p50={} p99={} p999={} max={}""",
+        name, results.size(), "%.1f".formatted(seconds),
+        "%.1f".formatted(results.size() / seconds), "%.1f".formatted(confirmed / seconds),
+        confirmed, rejected, failed, "%.1f".formatted(100.0 * rejected / Math.max(1, results.size())),
+        percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+        percentile(latencies, 1.0));
+  }
+
+  private static String percentile(long[] sortedNanos, double percentile) {
+    if (sortedNanos.length == 0) {
+      return "-";
+    }
+    var index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+    var nanos = sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))];
+    return "%.1f".formatted(nanos / 1e6);
+  }
+}
@@ -0,0 +1,103 @@
+package io.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import akka.javasdk.testkit.TestKit;
+import akka.javasdk.testkit.TestKitSupport;
+import io.example.application.Metrics;
+import io.example.application.ReservationSagaWorkflow;
+import io.example.application.TimeSlotEntity;
+import io.example.domain.Reservation;
+import io.example.domain.ReservationSaga;
+import io.example.domain.TimeSlot;
+
+/**
+ * Runs reservations through ReservationSagaWorkflow and checks that each time slot is requested
+ * once per reservation, by the workflow only, with ReservationToTimeSlotConsumer leaving the
+ * requests to it.
+ */
+class ReservationSagaIntegrationTest extends TestKitSupport {
+  private static final TimeSlot.ParticipantType[] participantTypes = TimeSlot.ParticipantType.values();
+
+  @Override
+  protected TestKit.Settings testKitSettings() {
+    return TestKit.Settings.DEFAULT.withAdditionalConfig("wing-plan.booking.reservation-saga = workflow");
+  }
+
+  @Test
+  void testEachTimeSlotIsRequestedOncePerReservation() throws Exception {
+    var reservations = 5;
+    var accepted = new long[participantTypes.length];
+    var repeated = new long[participantTypes.length];
+    for (var participantType : participantTypes) {
+      accepted[participantType.ordinal()] = Metrics.timeSlotRequests.value(participantType.name(), "accepted");
+      repeated[participantType.ordinal()] = Metrics.timeSlotRequests.value(participantType.name(), "repeated");
+    }
+
+    var firstHour = Instant.now().plus(Duration.ofDays(400)).truncatedTo(ChronoUnit.HOURS);
+    for (int i = 0; i < reservations; i++) {
+      var reservationTime = firstHour.plus(Duration.ofHours(i));
+      var suffix = UUID.randomUUID().toString();
+      var studentId = "saga-student-" + suffix;
+      var instructorId = "saga-instructor-" + suffix;
+      var aircraftId = "saga-aircraft-" + suffix;
+      makeAvailable(studentId, TimeSlot.ParticipantType.student, reservationTime);
+      makeAvailable(instructorId, TimeSlot.ParticipantType.instructor, reservationTime);
+      makeAvailable(aircraftId, TimeSlot.ParticipantType.aircraft, reservationTime);
+
+      var reservationId = Reservation.generateReservationId();
+      var request = new Reservation.Command.RequestReservation(
+          reservationId,
+          studentId,
+          TimeSlot.State.entityId(studentId, TimeSlot.ParticipantType.student, reservationTime),
+          instructorId,
+          TimeSlot.State.entityId(instructorId, TimeSlot.ParticipantType.instructor, reservationTime),
+          aircraftId,
+          TimeSlot.State.entityId(aircraftId, TimeSlot.ParticipantType.aircraft, reservationTime),
+          reservationTime);
+      await(componentClient.forWorkflow(reservationId)
+          .method(ReservationSagaWorkflow::start)
+          .invokeAsync(request));
+      awaitStatus(reservationId, Reservation.Status.confirmed);
+    }
+
+    // Give ReservationToTimeSlotConsumer time to see every ReservationRequested event
+    Thread.sleep(3000);
+
+    for (var participantType : participantTypes) {
+      assertEquals(reservations, Metrics.timeSlotRequests.value(participantType.name(), "accepted") - accepted[participantType.ordinal()],
+          participantType + " time slots accepted");
+      assertEquals(0, Metrics.timeSlotRequests.value(participantType.name(), "repeated") - repeated[participantType.ordinal()],
+          participantType + " time slots requested again");
+    }
+  }
+
+  private void makeAvailable(String participantId, TimeSlot.ParticipantType participantType, Instant startTime) {
+    var command = new TimeSlot.Command.MakeTimeSlotAvailable(participantId, participantType, startTime);
+    await(componentClient.forEventSourcedEntity(TimeSlot.State.entityId(participantId, participantType, startTime))
+        .method(TimeSlotEntity::createTimeSlot)
+        .invokeAsync(command));
+  }
+
+  private void awaitStatus(String reservationId, Reservation.Status expected) throws Exception {
+    var deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+    var saga = await(componentClient.forWorkflow(reservationId)
+        .method(ReservationSagaWorkflow::get)
+        .invokeAsync());
+    while (saga.status() != ReservationSaga.Status.completed && System.nanoTime() < deadline) {
+      Thread.sleep(100); // Add small delay between checks
+      saga = await(componentClient.forWorkflow(reservationId)
+          .method(ReservationSagaWorkflow::get)
+          .invokeAsync());
+    }
+    assertEquals(ReservationSaga.Status.completed, saga.status(), "Reservation saga " + reservationId);
+    assertEquals(expected, saga.reservationStatus(), "Reservation " + reservationId);
+  }
+}
@@ -0,0 +1,93 @@
+package io.example.application;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.example.domain.Reservation;
+import io.example.domain.TimeSlot;
+
+/** Replays journals through the applyEvent switch of TimeSlotEntity and ReservationEntity. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityReplayBenchmark {
+  @Param({ "10", "100", "1000" })
+  int events;
+
+  private List<TimeSlot.Event> timeSlotJournal;
+  private List<Reservation.Event> reservationJournal;
+
+  @Setup
+  public void setup() {
+    var participantId = "instructor-42";
+    var startTime = Instant.parse("2024-03-20T10:00:00Z");
+    var timeSlotId = TimeSlot.State.entityId(participantId, TimeSlot.ParticipantType.instructor, startTime);
+
+    // A time slot that is repeatedly booked, competed for and released again
+    timeSlotJournal = new ArrayList<>(events);
+    timeSlotJournal.add(new TimeSlot.Event.TimeSlotMadeAvailable(timeSlotId, participantId, TimeSlot.ParticipantType.instructor, startTime));
+    for (int i = 0; timeSlotJournal.size() < events; i++) {
+      var reservationId = "R" + i;
+      timeSlotJournal.add(new TimeSlot.Event.InstructorRequestAccepted(timeSlotId, reservationId));
+      timeSlotJournal.add(new TimeSlot.Event.InstructorRequestRejected(timeSlotId, "X" + i));
+      timeSlotJournal.add(new TimeSlot.Event.TimeSlotReservationCancelled(timeSlotId, reservationId));
+    }
+
+    // One reservation through its full lifecycle, padded with the no-op events the consumers produce
+    var reservationId = "ABC123";
+    var create = new Reservation.Command.CreateReservation(
+        reservationId,
+        "student-1",
+        "2024-03-20-10-student-student-1",
+        "instructor-1",
+        "2024-03-20-10-instructor-instructor-1",
+        "aircraft-1",
+        "2024-03-20-10-aircraft-aircraft-1",
+        startTime);
+    reservationJournal = new ArrayList<>(events);
+    reservationJournal.addAll(Reservation.State.empty().onCommand(create));
+    reservationJournal.add(new Reservation.Event.StudentAvailable(reservationId,
+        new Reservation.Participant("student-1", "student", create.studentTimeSlotId(), Reservation.ParticipantStatus.available)));
+    reservationJournal.add(new Reservation.Event.InstructorAvailable(reservationId, null));
+    reservationJournal.add(new Reservation.Event.AircraftAvailable(reservationId, null));
+    reservationJournal.add(new Reservation.Event.ReservationConfirmed(reservationId));
+    while (reservationJournal.size() < events) {
+      reservationJournal.add(new Reservation.Event.CancelledStudentReservation(create.studentTimeSlotId(), reservationId));
+    }
+  }
+
+  @Benchmark
+  public TimeSlot.State replayTimeSlot() {
+    var state = TimeSlot.State.empty();
+    for (var event : timeSlotJournal) {
+      state = TimeSlotEntity.applyEvent(state, event);
+    }
+    return state;
+  }
+
+  @Benchmark
+  public Reservation.State replayReservation() {
+    var state = Reservation.State.empty();
+    for (var event : reservationJournal) {
+      state = ReservationEntity.applyEvent(state, event);
+    }
+    return state;
+  }
+}
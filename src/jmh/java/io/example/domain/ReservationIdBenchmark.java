@@ -0,0 +1,48 @@
+package io.example.domain;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Reservation id generation, single threaded and with 8 threads sharing one generator. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationIdBenchmark {
+  private final ReservationIdGenerator random = ReservationIdGenerator.random();
+  private final ReservationIdGenerator timeOrdered = new TimeOrderedReservationIdGenerator(1);
+
+  @Benchmark
+  public String random() {
+    return random.next();
+  }
+
+  @Benchmark
+  public String timeOrdered() {
+    return timeOrdered.next();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public String randomContended() {
+    return random.next();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public String timeOrderedContended() {
+    return timeOrdered.next();
+  }
+}
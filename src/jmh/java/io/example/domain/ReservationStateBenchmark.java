@@ -0,0 +1,118 @@
+package io.example.domain;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Reservation.State command handlers and reservation id generation. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationStateBenchmark {
+  private final String reservationId = "ABC123";
+  private final Reservation.Command.CreateReservation create = new Reservation.Command.CreateReservation(
+      reservationId,
+      "student-1",
+      "2024-03-20-10-student-student-1",
+      "instructor-1",
+      "2024-03-20-10-instructor-instructor-1",
+      "aircraft-1",
+      "2024-03-20-10-aircraft-aircraft-1",
+      Instant.parse("2024-03-20T10:00:00Z"));
+
+  private final Reservation.Command.RequestReservation request = new Reservation.Command.RequestReservation(
+      create.reservationId(),
+      create.studentId(),
+      create.studentTimeSlotId(),
+      create.instructorId(),
+      create.instructorTimeSlotId(),
+      create.aircraftId(),
+      create.aircraftTimeSlotId(),
+      create.reservationTime());
+
+  private final Reservation.State empty = Reservation.State.empty();
+  private final Reservation.State pending = empty.onEvent((Reservation.Event.ReservationCreated) empty.onCommand(create).get(0));
+  private final Reservation.State awaitingStudent = pending
+      .onEvent(new Reservation.Event.InstructorAvailable(reservationId, null))
+      .onEvent(new Reservation.Event.AircraftAvailable(reservationId, null));
+  private final Reservation.State confirmed = awaitingStudent
+      .onEvent(new Reservation.Event.StudentAvailable(reservationId,
+          new Reservation.Participant("student-1", "student", create.studentTimeSlotId(), Reservation.ParticipantStatus.available)))
+      .onEvent(new Reservation.Event.ReservationConfirmed(reservationId));
+
+  private final Reservation.Command.StudentAvailable studentAvailable = new Reservation.Command.StudentAvailable(reservationId);
+  private final Reservation.Command.StudentUnavailable studentUnavailable = new Reservation.Command.StudentUnavailable(reservationId);
+  private final Reservation.Command.InstructorAvailable instructorAvailable = new Reservation.Command.InstructorAvailable(reservationId);
+  private final Reservation.Command.InstructorUnavailable instructorUnavailable = new Reservation.Command.InstructorUnavailable(reservationId);
+  private final Reservation.Command.AircraftAvailable aircraftAvailable = new Reservation.Command.AircraftAvailable(reservationId);
+  private final Reservation.Command.AircraftUnavailable aircraftUnavailable = new Reservation.Command.AircraftUnavailable(reservationId);
+  private final Reservation.Command.CancelReservation cancel = new Reservation.Command.CancelReservation(reservationId);
+
+  @Benchmark
+  public List<Reservation.Event> onCreateReservation() {
+    return empty.onCommand(create);
+  }
+
+  @Benchmark
+  public List<Reservation.Event> onRequestReservation() {
+    return empty.onCommand(request);
+  }
+
+  @Benchmark
+  public List<Reservation.Event> onStudentAvailable() {
+    return pending.onCommand(studentAvailable);
+  }
+
+  @Benchmark
+  public List<Reservation.Event> onStudentAvailableConfirms() {
+    return awaitingStudent.onCommand(studentAvailable);
+  }
+
+  @Benchmark
+  public List<Reservation.Event> onStudentUnavailable() {
+    return pending.onCommand(studentUnavailable);
+  }
+
+  @Benchmark
+  public List<Reservation.Event> onInstructorAvailable() {
+    return pending.onCommand(instructorAvailable);
+  }
+
+  @Benchmark
+  public List<Reservation.Event> onInstructorUnavailable() {
+    return pending.onCommand(instructorUnavailable);
+  }
+
+  @Benchmark
+  public List<Reservation.Event> onAircraftAvailable() {
+    return pending.onCommand(aircraftAvailable);
+  }
+
+  @Benchmark
+  public List<Reservation.Event> onAircraftUnavailable() {
+    return pending.onCommand(aircraftUnavailable);
+  }
+
+  @Benchmark
+  public List<Reservation.Event> onCancelReservation() {
+    return confirmed.onCommand(cancel);
+  }
+
+  @Benchmark
+  public String generateReservationId() {
+    return Reservation.generateReservationId();
+  }
+}
@@ -0,0 +1,138 @@
+package io.example.domain;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import akka.javasdk.JsonSupport;
+
+/**
+ * Compares the storage footprint of one TimeSlot entity per participant hour with one Calendar
+ * entity per participant, for a participant available on weekdays 08:00-17:00 UTC for a year with
+ * every third available hour scheduled.
+ *
+ * <p>Journal and snapshot sizes are the JSON payload sizes. Heap sizes are measured by holding the
+ * states of many participants and comparing used heap, so they are estimates.
+ *
+ * <pre>mvn -Pjmh test-compile exec:exec@footprint</pre>
+ */
+public class StorageFootprint {
+  private static final int participants = 500;
+  private static final Instant yearStart = Instant.parse("2025-01-01T00:00:00Z");
+
+  public static void main(String[] args) throws Exception {
+    var mapper = JsonSupport.getObjectMapper();
+    var hours = workingHours();
+
+    var timeSlot = timeSlotModel("instructor-0", hours);
+    var calendar = calendarModel("instructor-0", hours);
+
+    System.out.printf("One participant, %d available hours, %d scheduled%n%n", hours.size(), hours.size() / 3);
+    System.out.printf("%-10s %10s %10s %14s %15s %14s%n",
+        "model", "entities", "events", "journal bytes", "snapshot bytes", "heap bytes");
+    print(mapper, "timeSlot", hours.size(), timeSlot.events(), timeSlot.states(),
+        heapBytes(() -> timeSlotModel("instructor-" + System.nanoTime(), hours).states()));
+    print(mapper, "calendar", 1, calendar.events(), calendar.states(),
+        heapBytes(() -> calendarModel("instructor-" + System.nanoTime(), hours).states()));
+  }
+
+  record Model(List<Object> events, List<Object> states) {}
+
+  static List<Instant> workingHours() {
+    var hours = new ArrayList<Instant>();
+    for (var hour = yearStart; hour.isBefore(yearStart.plus(Duration.ofDays(365))); hour = hour.plus(Duration.ofHours(1))) {
+      var dateTime = hour.atZone(ZoneOffset.UTC);
+      var weekday = dateTime.getDayOfWeek() != DayOfWeek.SATURDAY && dateTime.getDayOfWeek() != DayOfWeek.SUNDAY;
+      if (weekday && dateTime.getHour() >= 8 && dateTime.getHour() < 17) {
+        hours.add(hour);
+      }
+    }
+    return hours;
+  }
+
+  static Model timeSlotModel(String participantId, List<Instant> hours) {
+    var events = new ArrayList<Object>();
+    var states = new ArrayList<Object>();
+    for (int i = 0; i < hours.size(); i++) {
+      var state = TimeSlot.State.empty();
+      var available = state.onCommand(new TimeSlot.Command.MakeTimeSlotAvailable(participantId, TimeSlot.ParticipantType.instructor, hours.get(i)));
+      var made = (TimeSlot.Event.TimeSlotMadeAvailable) available.orElseThrow();
+      events.add(made);
+      state = state.onEvent(made);
+      if (i % 3 == 0) {
+        var accepted = (TimeSlot.Event.InstructorRequestAccepted) state
+            .onCommand(new TimeSlot.Command.InstructorRequestsTimeSlot(state.timeSlotId(), Reservation.generateReservationId()))
+            .orElseThrow();
+        events.add(accepted);
+        state = state.onEvent(accepted);
+      }
+      states.add(state);
+    }
+    return new Model(events, states);
+  }
+
+  static Model calendarModel(String participantId, List<Instant> hours) {
+    var events = new ArrayList<Object>();
+    var state = Calendar.State.empty();
+    for (var hour : hours) {
+      var made = (Calendar.Event.CalendarHourMadeAvailable) state
+          .onCommand(new TimeSlot.Command.MakeTimeSlotAvailable(participantId, TimeSlot.ParticipantType.instructor, hour))
+          .orElseThrow();
+      events.add(made);
+      state = state.onEvent(made);
+    }
+    for (int i = 0; i < hours.size(); i += 3) {
+      var timeSlotId = TimeSlot.State.entityId(participantId, TimeSlot.ParticipantType.instructor, hours.get(i));
+      var accepted = (Calendar.Event.CalendarHourRequestAccepted) state
+          .onCommand(new Calendar.Command.RequestHour(timeSlotId, Reservation.generateReservationId(), hours.get(i), null))
+          .orElseThrow();
+      events.add(accepted);
+      state = state.onEvent(accepted);
+    }
+    return new Model(events, List.of(state));
+  }
+
+  interface StateFactory {
+    List<Object> create();
+  }
+
+  /** Average retained heap of the states of one participant. */
+  static long heapBytes(StateFactory factory) {
+    var held = new ArrayList<List<Object>>();
+    var before = usedHeap();
+    for (int i = 0; i < participants; i++) {
+      held.add(factory.create());
+    }
+    var after = usedHeap();
+    if (held.size() != participants) {
+      throw new IllegalStateException();
+    }
+    return (after - before) / participants;
+  }
+
+  private static long usedHeap() {
+    var runtime = Runtime.getRuntime();
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static void print(ObjectMapper mapper, String model, int entities, List<Object> events, List<Object> states, long heapBytes)
+      throws Exception {
+    var journalBytes = 0L;
+    for (var event : events) {
+      journalBytes += mapper.writeValueAsBytes(event).length;
+    }
+    var snapshotBytes = 0L;
+    for (var state : states) {
+      snapshotBytes += mapper.writeValueAsBytes(state).length;
+    }
+    System.out.printf("%-10s %10d %10d %14d %15d %14d%n", model, entities, events.size(), journalBytes, snapshotBytes, heapBytes);
+  }
+}
@@ -0,0 +1,68 @@
+package io.example.domain;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.example.domain.TimeSlot.ParticipantType;
+
+/** Compares the slot key codec with the String.formatted entity id it replaced. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeSlotKeyBenchmark {
+  private final String participantId = "instructor-42";
+  private final ParticipantType participantType = ParticipantType.instructor;
+  private final Instant startTime = Instant.parse("2024-03-20T10:05:00Z");
+  private final String timeSlotId = TimeSlot.State.entityId(participantId, participantType, startTime);
+  private final TimeSlotKey key = TimeSlotKey.of(participantId, participantType, startTime);
+
+  @Benchmark
+  public String entityIdFormatted() {
+    return formattedEntityId(participantId, participantType, startTime);
+  }
+
+  @Benchmark
+  public String entityId() {
+    return TimeSlot.State.entityId(participantId, participantType, startTime);
+  }
+
+  @Benchmark
+  public String formatKey() {
+    return key.format();
+  }
+
+  @Benchmark
+  public long packKey() {
+    return TimeSlotKey.pack(TimeSlotKey.epochHour(startTime), participantType);
+  }
+
+  @Benchmark
+  public TimeSlotKey parseKey() {
+    return TimeSlotKey.parse(timeSlotId);
+  }
+
+  // The implementation of TimeSlot.State.entityId before the slot key codec
+  private static String formattedEntityId(String participantId, ParticipantType participantType, Instant startTime) {
+    var roundedTime = startTime.plus(30, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.HOURS);
+    var year = roundedTime.atZone(ZoneOffset.UTC).getYear();
+    var month = roundedTime.atZone(ZoneOffset.UTC).getMonthValue();
+    var day = roundedTime.atZone(ZoneOffset.UTC).getDayOfMonth();
+    var hour = roundedTime.atZone(ZoneOffset.UTC).getHour();
+    return "%d-%02d-%02d-%02d-%s-%s".formatted(year, month, day, hour, participantType.name(), participantId);
+  }
+}
@@ -0,0 +1,118 @@
+package io.example.domain;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.example.domain.TimeSlot.ParticipantType;
+
+/** TimeSlot.State command and event handlers, one benchmark per handler. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeSlotStateBenchmark {
+  private final String participantId = "instructor-42";
+  private final Instant startTime = Instant.parse("2024-03-20T10:00:00Z");
+  private final String timeSlotId = TimeSlot.State.entityId(participantId, ParticipantType.instructor, startTime);
+  private final String reservationId = "ABC123";
+
+  private final TimeSlot.State empty = TimeSlot.State.empty();
+  private final TimeSlot.State available = empty.onEvent(
+      new TimeSlot.Event.TimeSlotMadeAvailable(timeSlotId, participantId, ParticipantType.instructor, startTime));
+  private final TimeSlot.State scheduled = available.onEvent(
+      new TimeSlot.Event.InstructorRequestAccepted(timeSlotId, reservationId));
+
+  private final TimeSlot.Command.MakeTimeSlotAvailable makeAvailable =
+      new TimeSlot.Command.MakeTimeSlotAvailable(participantId, ParticipantType.instructor, startTime);
+  private final TimeSlot.Command.MakeTimeSlotUnavailable makeUnavailable =
+      new TimeSlot.Command.MakeTimeSlotUnavailable(participantId, ParticipantType.instructor, startTime);
+  private final TimeSlot.Command.CancelTimeSlot cancel = new TimeSlot.Command.CancelTimeSlot(timeSlotId, reservationId);
+  private final TimeSlot.Command.StudentRequestsTimeSlot studentRequest =
+      new TimeSlot.Command.StudentRequestsTimeSlot(timeSlotId, reservationId);
+  private final TimeSlot.Command.InstructorRequestsTimeSlot instructorRequest =
+      new TimeSlot.Command.InstructorRequestsTimeSlot(timeSlotId, reservationId);
+  private final TimeSlot.Command.AircraftRequestsTimeSlot aircraftRequest =
+      new TimeSlot.Command.AircraftRequestsTimeSlot(timeSlotId, reservationId);
+  private final TimeSlot.Command.InstructorRequestsTimeSlot competingRequest =
+      new TimeSlot.Command.InstructorRequestsTimeSlot(timeSlotId, "XYZ789");
+
+  private final TimeSlot.Event.TimeSlotMadeAvailable madeAvailable =
+      new TimeSlot.Event.TimeSlotMadeAvailable(timeSlotId, participantId, ParticipantType.instructor, startTime);
+  private final TimeSlot.Event.TimeSlotMadeUnavailable madeUnavailable = new TimeSlot.Event.TimeSlotMadeUnavailable(timeSlotId);
+  private final TimeSlot.Event.InstructorRequestAccepted accepted = new TimeSlot.Event.InstructorRequestAccepted(timeSlotId, reservationId);
+  private final TimeSlot.Event.InstructorRequestRejected rejected = new TimeSlot.Event.InstructorRequestRejected(timeSlotId, "XYZ789");
+  private final TimeSlot.Event.TimeSlotReservationCancelled cancelled = new TimeSlot.Event.TimeSlotReservationCancelled(timeSlotId, reservationId);
+
+  @Benchmark
+  public Optional<TimeSlot.Event> onMakeTimeSlotAvailable() {
+    return empty.onCommand(makeAvailable);
+  }
+
+  @Benchmark
+  public Optional<TimeSlot.Event> onMakeTimeSlotUnavailable() {
+    return available.onCommand(makeUnavailable);
+  }
+
+  @Benchmark
+  public Optional<TimeSlot.Event> onCancelTimeSlot() {
+    return scheduled.onCommand(cancel);
+  }
+
+  @Benchmark
+  public Optional<TimeSlot.Event> onStudentRequestsTimeSlot() {
+    return available.onCommand(studentRequest);
+  }
+
+  @Benchmark
+  public Optional<TimeSlot.Event> onInstructorRequestsTimeSlot() {
+    return available.onCommand(instructorRequest);
+  }
+
+  @Benchmark
+  public Optional<TimeSlot.Event> onAircraftRequestsTimeSlot() {
+    return available.onCommand(aircraftRequest);
+  }
+
+  @Benchmark
+  public Optional<TimeSlot.Event> onCompetingRequestRejected() {
+    return scheduled.onCommand(competingRequest);
+  }
+
+  @Benchmark
+  public TimeSlot.State onTimeSlotMadeAvailable() {
+    return empty.onEvent(madeAvailable);
+  }
+
+  @Benchmark
+  public TimeSlot.State onTimeSlotMadeUnavailable() {
+    return available.onEvent(madeUnavailable);
+  }
+
+  @Benchmark
+  public TimeSlot.State onRequestAccepted() {
+    return available.onEvent(accepted);
+  }
+
+  @Benchmark
+  public TimeSlot.State onRequestRejected() {
+    return scheduled.onEvent(rejected);
+  }
+
+  @Benchmark
+  public TimeSlot.State onReservationCancelled() {
+    return scheduled.onEvent(cancelled);
+  }
+}
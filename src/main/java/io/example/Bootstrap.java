@@ -0,0 +1,91 @@
+package io.example;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.typesafe.config.Config;
+
+import akka.javasdk.DependencyProvider;
+import akka.javasdk.ServiceSetup;
+import akka.javasdk.annotations.Setup;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timer.TimerScheduler;
+import io.example.application.BookingCoordinator;
+import io.example.application.TimeSlotRetentionAction;
+import io.example.domain.CandidateSelector;
+import io.example.domain.NoCapacityCache;
+import io.example.domain.ReservationIdGenerator;
+import io.example.domain.TimeOrderedReservationIdGenerator;
+
+@Setup
+public class Bootstrap implements ServiceSetup {
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final ReservationIdGenerator reservationIdGenerator;
+  private final NoCapacityCache noCapacityCache;
+  private final CandidateSelector candidateSelector = new CandidateSelector();
+  private final BookingCoordinator bookingCoordinator;
+  private final ComponentClient componentClient;
+  private final TimerScheduler timerScheduler;
+  private final Duration firstSweepDelay;
+
+  public Bootstrap(Config config, ComponentClient componentClient, TimerScheduler timerScheduler) {
+    this.reservationIdGenerator = reservationIdGenerator(config.getConfig("wing-plan.reservation"));
+    this.noCapacityCache = new NoCapacityCache(config.getDuration("wing-plan.booking.no-capacity-ttl"));
+    this.componentClient = componentClient;
+    this.bookingCoordinator = new BookingCoordinator(componentClient, candidateSelector,
+        config.getDuration("wing-plan.booking.match-window"), config.getInt("wing-plan.booking.candidate-limit"));
+    this.timerScheduler = timerScheduler;
+    this.firstSweepDelay = config.getDuration("wing-plan.time-slot-view.first-sweep-delay");
+  }
+
+  @Override
+  public void onStartup() {
+    // Every node schedules the same timer name, so only one sweep is pending at a time
+    TimeSlotRetentionAction.schedule(timerScheduler, componentClient, firstSweepDelay);
+  }
+
+  @Override
+  public DependencyProvider createDependencyProvider() {
+    return new DependencyProvider() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public <T> T getDependency(Class<T> clazz) {
+        if (clazz == ReservationIdGenerator.class) {
+          return (T) reservationIdGenerator;
+        }
+        if (clazz == NoCapacityCache.class) {
+          return (T) noCapacityCache;
+        }
+        if (clazz == CandidateSelector.class) {
+          return (T) candidateSelector;
+        }
+        if (clazz == BookingCoordinator.class) {
+          return (T) bookingCoordinator;
+        }
+        throw new IllegalArgumentException("Unknown dependency type: " + clazz);
+      }
+    };
+  }
+
+  private ReservationIdGenerator reservationIdGenerator(Config config) {
+    var kind = config.getEnum(ReservationIdGenerator.Kind.class, "id-generator");
+    if (kind == ReservationIdGenerator.Kind.random) {
+      return ReservationIdGenerator.random();
+    }
+
+    // timeOrdered is opt in, and its ids are only unique across nodes when every node has its own
+    // node-id, so choosing it without one fails rather than falling back
+    var nodeId = config.getInt("node-id");
+    if (nodeId < 0) {
+      throw new IllegalStateException("wing-plan.reservation.id-generator is timeOrdered, so "
+          + "wing-plan.reservation.node-id (RESERVATION_NODE_ID) must be set to a value "
+          + "from 0 to " + TimeOrderedReservationIdGenerator.maxNodeId + " that is unique per node, "
+          + "or id-generator set back to random");
+    }
+    var maxClockLead = config.getDuration("max-clock-lead");
+    log.info("Reservation ids are time ordered with node id {} and max clock lead {}", nodeId, maxClockLead);
+    return new TimeOrderedReservationIdGenerator(nodeId, maxClockLead);
+  }
+}
@@ -0,0 +1,33 @@
+package io.example.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import akka.http.javadsl.model.HttpCharsets;
+import akka.http.javadsl.model.HttpEntities;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.MediaTypes;
+import akka.javasdk.JsonSupport;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+
+/** Writes a stream of values as a chunked application/x-ndjson response, one JSON value per line. */
+final class JsonLines {
+  private static final ByteString newline = ByteString.fromString("\n");
+
+  private JsonLines() {}
+
+  static HttpResponse response(Source<?, ?> values) {
+    var entity = HttpEntities.createChunked(
+        MediaTypes.applicationWithFixedCharset("x-ndjson", HttpCharsets.UTF_8).toContentType(),
+        values.map(JsonLines::line));
+    return HttpResponse.create().withEntity(entity);
+  }
+
+  static ByteString line(Object value) {
+    try {
+      return ByteString.fromArray(JsonSupport.getObjectMapper().writeValueAsBytes(value)).concat(newline);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Cannot serialize " + value.getClass().getSimpleName(), e);
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package io.example.api;
+
+import akka.http.javadsl.model.ContentTypes;
+import akka.http.javadsl.model.HttpResponse;
+import akka.javasdk.annotations.Acl;
+import akka.javasdk.annotations.http.Get;
+import akka.javasdk.annotations.http.HttpEndpoint;
+import io.example.application.Metrics;
+
+/**
+ * The metrics of the node that serves the request, in the Prometheus text format. Only other
+ * services in the project may call it, the metrics are not meant for the internet.
+ */
+@Acl(allow = @Acl.Matcher(principal = Acl.Principal.INTERNAL))
+@HttpEndpoint("/metrics")
+public class MetricsEndpoint {
+
+  @Get
+  public HttpResponse metrics() {
+    return HttpResponse.create().withEntity(ContentTypes.TEXT_PLAIN_UTF8, Metrics.scrape());
+  }
+}
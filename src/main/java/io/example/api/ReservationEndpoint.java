@@ -1,21 +1,43 @@
 package io.example.api;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import akka.Done;
+import akka.NotUsed;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.StatusCodes;
 import akka.javasdk.annotations.Acl;
 import akka.javasdk.annotations.http.Get;
 import akka.javasdk.annotations.http.HttpEndpoint;
 import akka.javasdk.annotations.http.Post;
 import akka.javasdk.annotations.http.Put;
 import akka.javasdk.client.ComponentClient;
+import akka.javasdk.http.HttpException;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import io.example.application.AvailabilityRuleWorkflow;
+import io.example.application.BookableHourSearch;
+import io.example.application.BookableHoursView;
+import io.example.application.BookingView;
 import io.example.application.BookingWorkflow;
+import io.example.application.Metrics;
 import io.example.application.ReservationEntity;
+import io.example.application.ReservationView;
 import io.example.application.TimeSlotEntity;
 import io.example.application.TimeSlotView;
+import io.example.domain.AvailabilityRule;
+import io.example.domain.NoCapacityCache;
 import io.example.domain.Reservation;
 import io.example.domain.TimeSlot;
 
@@ -24,26 +46,55 @@ import io.example.domain.TimeSlot;
 public class ReservationEndpoint {
   private final Logger log = LoggerFactory.getLogger(ReservationEndpoint.class);
 
+  private static final Duration streamTimeout = Duration.ofMinutes(5);
+  private static final int defaultPageSize = 100;
+  private static final int maxPageSize = 1000;
+  private static final int maxCountDays = 92;
+  private static final int maxConcurrentCounts = 8;
+
   private final ComponentClient componentClient;
+  private final NoCapacityCache noCapacityCache;
 
-  public ReservationEndpoint(ComponentClient componentClient) {
+  public ReservationEndpoint(ComponentClient componentClient, NoCapacityCache noCapacityCache) {
     this.componentClient = componentClient;
+    this.noCapacityCache = noCapacityCache;
   }
 
   @Post("/booking")
   public CompletionStage<Done> startBooking(BookingWorkflow.BookingRequest request) {
     log.info("{}", request);
+    rejectIfNoCapacity(request);
     return componentClient.forWorkflow(request.reservationId())
         .method(BookingWorkflow::startBooking)
         .invokeAsync(request);
   }
 
+  // Starts the booking and streams its outcome, followed by the reservation's updates until it leaves pending
+  @Post("/booking-stream")
+  public CompletionStage<HttpResponse> startBookingStream(BookingWorkflow.BookingRequest request) {
+    log.info("{}", request);
+    rejectIfNoCapacity(request);
+    return componentClient.forWorkflow(request.reservationId())
+        .method(BookingWorkflow::startBooking)
+        .invokeAsync(request)
+        .thenApply(__ -> ServerSentEvents.response(bookingUpdates(request.reservationId())));
+  }
+
   @Post("/reservation")
   public CompletionStage<Done> create(Reservation.Command.CreateReservation command) {
     log.info("{}", command);
+    var request = new Reservation.Command.RequestReservation(
+        command.reservationId(),
+        command.studentId(),
+        command.studentTimeSlotId(),
+        command.instructorId(),
+        command.instructorTimeSlotId(),
+        command.aircraftId(),
+        command.aircraftTimeSlotId(),
+        command.reservationTime());
     return componentClient.forEventSourcedEntity(command.reservationId())
-        .method(ReservationEntity::createReservation)
-        .invokeAsync(command);
+        .method(ReservationEntity::requestReservation)
+        .invokeAsync(request);
   }
 
   @Put("/reservation-cancel")
@@ -61,6 +112,74 @@ public class ReservationEndpoint {
         .invokeAsync();
   }
 
+  @Post("/reservation-view-by-participant-and-time-range")
+  public CompletionStage<ReservationView.Reservations> getReservationsByParticipantAndTimeRange(ReservationsByParticipantAndTimeRange request) {
+    var query = new ReservationView.ByParticipantAndTimeRange(
+        request.participantId(), request.timeBegin(), request.timeEnd(), limit(request.limit()));
+    var view = componentClient.forView();
+    return switch (participantType(request.participantType())) {
+      case student -> view.method(ReservationView::getReservationsByStudentAndTimeRange).invokeAsync(query);
+      case instructor -> view.method(ReservationView::getReservationsByInstructorAndTimeRange).invokeAsync(query);
+      case aircraft -> view.method(ReservationView::getReservationsByAircraftAndTimeRange).invokeAsync(query);
+    };
+  }
+
+  @Post("/reservation-view-by-status-and-time-range")
+  public CompletionStage<ReservationView.Reservations> getReservationsByStatusAndTimeRange(ReservationView.ByStatusAndTimeRange request) {
+    return componentClient.forView()
+        .method(ReservationView::getReservationsByStatusAndTimeRange)
+        .invokeAsync(new ReservationView.ByStatusAndTimeRange(
+            request.status(), request.timeBegin(), request.timeEnd(), limit(request.limit())));
+  }
+
+  // Reservations in a status that were created more than the given minutes ago, oldest first
+  @Post("/reservation-view-by-status-and-age")
+  public CompletionStage<ReservationView.Reservations> getReservationsByStatusAndAge(ReservationsByStatusAndAge request) {
+    var createdBefore = Instant.now().minus(Duration.ofMinutes(request.olderThanMinutes()));
+    return componentClient.forView()
+        .method(ReservationView::getReservationsByStatusCreatedBefore)
+        .invokeAsync(new ReservationView.ByStatusCreatedBefore(request.status(), createdBefore, limit(request.limit())));
+  }
+
+  // Counts the reservations in a status per UTC day, from fromDate up to and including toDate
+  @Post("/reservation-view-count-by-day")
+  public CompletionStage<DailyCounts> countReservationsByDay(CountReservationsByDay request) {
+    var days = ChronoUnit.DAYS.between(request.fromDate(), request.toDate()) + 1;
+    if (days < 1 || days > maxCountDays) {
+      throw HttpException.badRequest("The date range must cover 1 to " + maxCountDays + " days");
+    }
+    // At most maxConcurrentCounts days are counted at a time, so a long range does not flood the view
+    var dates = request.fromDate().datesUntil(request.toDate().plusDays(1)).toList();
+    CompletionStage<List<DailyCount>> counts = CompletableFuture.completedFuture(List.of());
+    for (int i = 0; i < dates.size(); i += maxConcurrentCounts) {
+      var batch = dates.subList(i, Math.min(i + maxConcurrentCounts, dates.size()));
+      counts = counts.thenCompose(counted -> countReservationsByDay(request.status(), batch)
+          .thenApply(batchCounts -> Stream.concat(counted.stream(), batchCounts.stream()).toList()));
+    }
+    return counts.thenApply(DailyCounts::new);
+  }
+
+  private CompletionStage<List<DailyCount>> countReservationsByDay(String status, List<LocalDate> dates) {
+    var counts = dates.stream()
+        .map(date -> componentClient.forView()
+            .method(ReservationView::countReservationsByStatusAndTimeRange)
+            .invokeAsync(new ReservationView.CountByStatusAndTimeRange(
+                status,
+                date.atStartOfDay(ZoneOffset.UTC).toInstant(),
+                date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant()))
+            .thenApply(count -> new DailyCount(date, count.count()))
+            .toCompletableFuture())
+        .toList();
+    return CompletableFuture.allOf(counts.toArray(CompletableFuture[]::new))
+        .thenApply(__ -> counts.stream().map(CompletableFuture::join).toList());
+  }
+
+  // Streams the reservation's state transitions, the stream completes once it is confirmed or cancelled
+  @Get("/reservation-stream/{reservationId}")
+  public HttpResponse reservationStream(String reservationId) {
+    return ServerSentEvents.response(reservationUpdates(reservationId));
+  }
+
   @Post("/make-time-slot-available")
   public CompletionStage<Done> createTimeSlot(TimeSlot.Command.MakeTimeSlotAvailable command) {
     log.info("{}", command);
@@ -79,6 +198,28 @@ public class ReservationEndpoint {
         .invokeAsync(command);
   }
 
+  // The next hours at or after timeBegin in which the student, an instructor and an aircraft are all available
+  @Post("/bookable-hours")
+  public CompletionStage<BookableHoursView.BookableHours> getBookableHours(BookableHoursView.ByStudent request) {
+    var timeBegin = request.timeBegin() == null ? Instant.now() : request.timeBegin();
+    return BookableHourSearch.find(componentClient, new BookableHoursView.ByStudent(request.studentId(), timeBegin, limit(request.limit())));
+  }
+
+  @Post("/availability-rule")
+  public CompletionStage<Done> createAvailabilityRule(AvailabilityRule.Rule rule) {
+    log.info("{}", rule);
+    return componentClient.forWorkflow(rule.ruleId())
+        .method(AvailabilityRuleWorkflow::start)
+        .invokeAsync(rule);
+  }
+
+  @Get("/availability-rule/{ruleId}")
+  public CompletionStage<AvailabilityRule.State> getAvailabilityRule(String ruleId) {
+    return componentClient.forWorkflow(ruleId)
+        .method(AvailabilityRuleWorkflow::get)
+        .invokeAsync();
+  }
+
   @Get("/time-slot/{entityId}")
   public CompletionStage<TimeSlot.State> getTimeSlot(String entityId) {
     return componentClient.forEventSourcedEntity(entityId)
@@ -86,11 +227,27 @@ public class ReservationEndpoint {
         .invokeAsync();
   }
 
+  // The first page of all time slots, use the next page token with /time-slot-view-page for the rest
   @Get("/time-slot-view-all")
-  public CompletionStage<TimeSlotView.TimeSlots> getAllTimeSlots() {
+  public CompletionStage<TimeSlotView.TimeSlotsPage> getAllTimeSlots() {
+    return getTimeSlotsPage(new TimeSlotView.PageRequest("", maxPageSize));
+  }
+
+  @Post("/time-slot-view-page")
+  public CompletionStage<TimeSlotView.TimeSlotsPage> getTimeSlotsPage(TimeSlotView.PageRequest request) {
+    var pageToken = request.pageToken() == null ? "" : request.pageToken();
     return componentClient.forView()
-        .method(TimeSlotView::getAllTimeSlots)
-        .invokeAsync();
+        .method(TimeSlotView::getTimeSlotsPage)
+        .invokeAsync(new TimeSlotView.PageRequest(pageToken, limit(request.pageSize())));
+  }
+
+  // Streams every time slot as one JSON object per line, in the same order as the pages
+  @Get("/time-slot-view-export")
+  public HttpResponse exportTimeSlots() {
+    var timeSlots = componentClient.forView()
+        .stream(TimeSlotView::streamAllTimeSlots)
+        .source();
+    return JsonLines.response(timeSlots);
   }
 
   @Post("/time-slot-view-by-type-and-time-range")
@@ -100,10 +257,85 @@ public class ReservationEndpoint {
         .invokeAsync(command);
   }
 
+  // Streams the time slots in the range followed by each change to them, the stream stays open until the client disconnects
+  @Post("/time-slot-stream-by-type-and-time-range")
+  public HttpResponse streamTimeSlotsByTypeAndTimeRange(TimeSlotView.ByParticipantTypeAndTimeRange command) {
+    var timeSlots = componentClient.forView()
+        .stream(TimeSlotView::getTimeSlotUpdatesByParticipantTypeAndTimeRange)
+        .source(command)
+        .map(row -> ServerSentEvents.event("timeSlot", row));
+    return ServerSentEvents.response(timeSlots);
+  }
+
   @Post("/time-slot-view-by-participant-and-time-range")
   public CompletionStage<TimeSlotView.TimeSlots> getTimeSlotByParticipantAndTimeRange(TimeSlotView.ByParticipantAndTimeRange command) {
     return componentClient.forView()
         .method(TimeSlotView::getTimeSlotsByParticipantAndTimeRange)
         .invokeAsync(command);
   }
+
+  // A booking for an hour that recently had no instructor or aircraft would end the same way, so it is not started
+  private void rejectIfNoCapacity(BookingWorkflow.BookingRequest request) {
+    noCapacityCache.find(request.reservationTime()).ifPresent(participantType -> {
+      Metrics.bookingNoCapacityRejections.increment(participantType.name());
+      throw HttpException.error(StatusCodes.CONFLICT, "No " + participantType + " available at " + request.reservationTime());
+    });
+  }
+
+  private static int limit(int limit) {
+    return limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+  }
+
+  private static TimeSlot.ParticipantType participantType(String participantType) {
+    try {
+      return TimeSlot.ParticipantType.valueOf(participantType);
+    } catch (IllegalArgumentException | NullPointerException e) {
+      throw HttpException.badRequest("Unknown participant type: " + participantType);
+    }
+  }
+
+  private Source<ByteString, NotUsed> reservationUpdates(String reservationId) {
+    return componentClient.forView()
+        .stream(ReservationView::getReservationUpdates)
+        .source(reservationId)
+        .takeWhile(row -> !row.isFinal(), true)
+        .takeWithin(streamTimeout)
+        .map(row -> ServerSentEvents.event("reservation", row));
+  }
+
+  private Source<ByteString, NotUsed> bookingUpdates(String bookingId) {
+    return componentClient.forView()
+        .stream(BookingView::getBookingUpdates)
+        .source(bookingId)
+        .filter(BookingView.BookingRow::isFinal)
+        .take(1)
+        .flatMapConcat(row -> {
+          var booking = Source.single(ServerSentEvents.event("booking", row));
+          return row.isReservationRequested()
+              ? booking.concat(reservationUpdates(row.reservationId()))
+              : booking;
+        })
+        .takeWithin(streamTimeout);
+  }
+
+  public record ReservationsByParticipantAndTimeRange(
+      String participantId,
+      String participantType,
+      Instant timeBegin,
+      Instant timeEnd,
+      int limit) {}
+
+  public record ReservationsByStatusAndAge(
+      String status,
+      int olderThanMinutes,
+      int limit) {}
+
+  public record CountReservationsByDay(
+      String status,
+      LocalDate fromDate,
+      LocalDate toDate) {}
+
+  public record DailyCounts(List<DailyCount> days) {}
+
+  public record DailyCount(LocalDate date, long count) {}
 }
@@ -0,0 +1,36 @@
+package io.example.api;
+
+import java.time.Duration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import akka.http.javadsl.model.HttpEntities;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.MediaTypes;
+import akka.javasdk.JsonSupport;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+
+/** Writes a stream of JSON values as a text/event-stream response. */
+final class ServerSentEvents {
+  private static final Duration keepAliveInterval = Duration.ofSeconds(15);
+  private static final ByteString keepAlive = ByteString.fromString(":\n\n");
+
+  private ServerSentEvents() {}
+
+  static HttpResponse response(Source<ByteString, ?> events) {
+    var entity = HttpEntities.createChunked(
+        MediaTypes.TEXT_EVENT_STREAM.toContentType(),
+        events.keepAlive(keepAliveInterval, () -> keepAlive));
+    return HttpResponse.create().withEntity(entity);
+  }
+
+  static ByteString event(String eventType, Object data) {
+    try {
+      var json = JsonSupport.getObjectMapper().writeValueAsString(data);
+      return ByteString.fromString("event: " + eventType + "\ndata: " + json + "\n\n");
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Cannot serialize server-sent event " + eventType, e);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package io.example.application;
+
+import static akka.Done.done;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import com.typesafe.config.Config;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.workflow.Workflow;
+import io.example.domain.AvailabilityRule;
+import io.example.domain.TimeSlot;
+
+/**
+ * Expands an availability rule into MakeTimeSlotAvailable commands. Each step sends one batch of
+ * at most wing-plan.availability-rule.concurrency commands concurrently and only moves on to the
+ * next batch when all of them have completed, so the number of in-flight commands stays bounded.
+ */
+@ComponentId("availability-rule")
+public class AvailabilityRuleWorkflow extends Workflow<AvailabilityRule.State> {
+  private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(AvailabilityRuleWorkflow.class);
+  private final ComponentClient componentClient;
+  private final int concurrency;
+  private final Duration maxSpan;
+
+  public AvailabilityRuleWorkflow(ComponentClient componentClient, Config config) {
+    this.componentClient = componentClient;
+    this.concurrency = config.getInt("wing-plan.availability-rule.concurrency");
+    this.maxSpan = config.getDuration("wing-plan.availability-rule.max-span");
+  }
+
+  public Effect<Done> start(AvailabilityRule.Rule rule) {
+    log.info("{}", rule);
+
+    if (currentState() != null) {
+      return effects().error("Availability rule already started");
+    }
+    var invalid = rule.validate(maxSpan);
+    if (invalid.isPresent()) {
+      return effects().error(invalid.get());
+    }
+
+    return effects()
+        .updateState(AvailabilityRule.State.initialState(rule))
+        .transitionTo("make-hours-available")
+        .thenReply(done());
+  }
+
+  public ReadOnlyEffect<AvailabilityRule.State> get() {
+    if (currentState() == null) {
+      return effects().error("Availability rule not found");
+    }
+    return effects().reply(currentState());
+  }
+
+  @Override
+  public WorkflowDef<AvailabilityRule.State> definition() {
+    var makeHoursAvailable = step("make-hours-available")
+        .asyncCall(() -> {
+          var rule = currentState().rule();
+          var results = currentState().nextBatch(concurrency).stream()
+              .map(hour -> {
+                var command = new TimeSlot.Command.MakeTimeSlotAvailable(rule.participantId(), rule.participantType(), hour);
+                return componentClient.forEventSourcedEntity(TimeSlot.State.entityId(rule.participantId(), rule.participantType(), hour))
+                    .method(TimeSlotEntity::createTimeSlot)
+                    .invokeAsync(command)
+                    .handle((__, error) -> {
+                      if (error != null) {
+                        log.warn("Failed to make {} available: {}", command, error.getMessage());
+                      }
+                      return new AvailabilityRule.HourResult(hour, error == null);
+                    })
+                    .toCompletableFuture();
+              })
+              .toList();
+          return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+              .thenApply(__ -> new AvailabilityRule.BatchResult(results.stream().map(CompletableFuture::join).toList()));
+        })
+        .andThen(AvailabilityRule.BatchResult.class, result -> {
+          var newState = currentState().withBatchResult(result);
+          if (newState.status() == AvailabilityRule.Status.completed) {
+            log.info("Rule {} completed, {} of {} hours made available, {} failed",
+                newState.rule().ruleId(), newState.succeededHours(), newState.totalHours(), newState.failedHours().size());
+            return effects().updateState(newState).end();
+          }
+          return effects()
+              .updateState(newState)
+              .transitionTo("make-hours-available");
+        });
+
+    return workflow()
+        .defaultStepTimeout(Duration.ofSeconds(30))
+        .addStep(makeHoursAvailable);
+  }
+}
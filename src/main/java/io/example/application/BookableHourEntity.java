@@ -0,0 +1,47 @@
+package io.example.application;
+
+import static akka.Done.done;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.keyvalueentity.KeyValueEntity;
+import akka.javasdk.keyvalueentity.KeyValueEntityContext;
+import io.example.domain.BookableHour;
+
+/**
+ * One entity per hour, keyed by the epoch hour. The state is derived from TimeSlot events, so it is
+ * kept as a key value entity rather than journaled.
+ */
+@ComponentId("bookable-hour")
+public class BookableHourEntity extends KeyValueEntity<BookableHour.State> {
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final String entityId;
+
+  public BookableHourEntity(KeyValueEntityContext context) {
+    this.entityId = context.entityId();
+  }
+
+  @Override
+  public BookableHour.State emptyState() {
+    return BookableHour.State.empty();
+  }
+
+  public Effect<Done> updateAvailability(BookableHour.Command.UpdateAvailability command) {
+    log.info("EntityId: {}\n_Command: {}", entityId, command);
+
+    var newState = currentState().onCommand(command);
+    if (newState.equals(currentState())) {
+      return effects().reply(done());
+    }
+    return effects()
+        .updateState(newState)
+        .thenReply(done());
+  }
+
+  public ReadOnlyEffect<BookableHour.State> get() {
+    return effects().reply(currentState());
+  }
+}
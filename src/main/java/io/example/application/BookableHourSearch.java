@@ -0,0 +1,49 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import akka.javasdk.client.ComponentClient;
+import io.example.domain.TimeSlot;
+
+/**
+ * Finds the next hours in which a student, an instructor and an aircraft are all available. The
+ * student's available hours come from TimeSlotView and the hours with an instructor and an aircraft
+ * from BookableHoursView, both for the same search window, and the two are intersected here.
+ */
+public final class BookableHourSearch {
+  // Bounds both queries to one row per hour of the window
+  static final Duration searchWindow = Duration.ofDays(31);
+
+  private BookableHourSearch() {}
+
+  public static CompletionStage<BookableHoursView.BookableHours> find(ComponentClient componentClient, BookableHoursView.ByStudent byStudent) {
+    var timeEnd = byStudent.timeBegin().plus(searchWindow);
+    var studentHours = componentClient.forView()
+        .method(TimeSlotView::getAvailableTimeSlotsByParticipantAndTimeRange)
+        .invokeAsync(new TimeSlotView.ByParticipantAndTimeRange(
+            byStudent.studentId(),
+            TimeSlot.ParticipantType.student.name(),
+            byStudent.timeBegin(),
+            timeEnd))
+        .thenApply(result -> result.timeSlots().stream().map(row -> row.startTime().truncatedTo(ChronoUnit.HOURS)).toList());
+    var hoursWithCapacity = componentClient.forView()
+        .method(BookableHoursView::getBookableHoursByTimeRange)
+        .invokeAsync(new BookableHoursView.ByTimeRange(byStudent.timeBegin(), timeEnd));
+    return studentHours.thenCombine(hoursWithCapacity,
+        (student, capacity) -> new BookableHoursView.BookableHours(intersect(student, capacity.bookableHours(), byStudent.limit())));
+  }
+
+  // The hours with capacity, in start time order, that the student is also available in
+  static List<BookableHoursView.BookableHourRow> intersect(List<Instant> studentHours, List<BookableHoursView.BookableHourRow> hoursWithCapacity, int limit) {
+    var student = new HashSet<>(studentHours);
+    return hoursWithCapacity.stream()
+        .filter(row -> student.contains(row.startTime()))
+        .limit(Math.max(0, limit))
+        .toList();
+  }
+}
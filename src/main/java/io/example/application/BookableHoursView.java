@@ -0,0 +1,65 @@
+package io.example.application;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.domain.BookableHour;
+
+@ComponentId("bookable_hours_view")
+public class BookableHoursView extends View {
+  private static final Logger log = LoggerFactory.getLogger(BookableHoursView.class);
+
+  @Query("""
+      SELECT * as bookableHours
+        FROM bookable_hours_view
+        WHERE instructorCount > 0
+          AND aircraftCount > 0
+          AND startTime >= :timeBegin
+          AND startTime < :timeEnd
+        ORDER BY startTime
+          """)
+  public QueryEffect<BookableHours> getBookableHoursByTimeRange(ByTimeRange byTimeRange) {
+    log.info("{}", byTimeRange);
+    return queryResult();
+  }
+
+  @Consume.FromKeyValueEntity(BookableHourEntity.class)
+  public static class BookableHoursByStartTime extends TableUpdater<BookableHourRow> {
+
+    public Effect<BookableHourRow> onUpdate(BookableHour.State state) {
+      return effects().updateRow(BookableHourRow.of(state));
+    }
+  }
+
+  public record BookableHours(List<BookableHourRow> bookableHours) {}
+
+  public record BookableHourRow(
+      Instant startTime,
+      int instructorCount,
+      int aircraftCount) {
+
+    public static BookableHourRow of(BookableHour.State state) {
+      return new BookableHourRow(
+          state.startTime(),
+          state.instructorIds().size(),
+          state.aircraftIds().size());
+    }
+  }
+
+  public record ByTimeRange(
+      Instant timeBegin,
+      Instant timeEnd) {}
+
+  public record ByStudent(
+      String studentId,
+      Instant timeBegin,
+      int limit) {}
+}
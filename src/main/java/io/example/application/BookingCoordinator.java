@@ -0,0 +1,176 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import akka.javasdk.client.ComponentClient;
+import io.example.domain.Booking;
+import io.example.domain.BookingMatcher;
+import io.example.domain.CandidateSelector;
+import io.example.domain.TimeSlot;
+
+/**
+ * Collects the bookings for the same reservation time that arrive on this node within a short
+ * window, and assigns them instructor and aircraft time slots in one pass. A batch runs one
+ * TimeSlotView query per participant type instead of one per booking, and BookingMatcher gives
+ * every booking of the batch time slots no other booking of the batch requests. Each booking
+ * prefers the candidate its candidate selection picks, and is moved to another one only when that
+ * lets more bookings of the batch go ahead.
+ *
+ * <p>Bookings on other nodes, and bookings in the next window, can still request the same time
+ * slots, so a matched booking may still be rejected by the time slot.
+ */
+public class BookingCoordinator {
+  private final AvailableTimeSlots availableTimeSlots;
+  private final CandidateSelector candidateSelector;
+  private final Duration window;
+  private final int candidateLimit;
+  private final Map<Instant, List<Request>> batches = new ConcurrentHashMap<>();
+
+  public BookingCoordinator(ComponentClient componentClient, CandidateSelector candidateSelector, Duration window, int candidateLimit) {
+    this((participantType, startTime, limit) -> available(componentClient, participantType, startTime, limit),
+        candidateSelector, window, candidateLimit);
+  }
+
+  BookingCoordinator(AvailableTimeSlots availableTimeSlots, CandidateSelector candidateSelector, Duration window, int candidateLimit) {
+    this.availableTimeSlots = availableTimeSlots;
+    this.candidateSelector = candidateSelector;
+    this.window = window;
+    this.candidateLimit = candidateLimit;
+  }
+
+  /** Finds the available time slots of one type that start in the hour, the TimeSlotView query outside tests. */
+  interface AvailableTimeSlots {
+    CompletionStage<List<Booking.Candidate>> find(TimeSlot.ParticipantType participantType, Instant startTime, int limit);
+  }
+
+  /**
+   * The time slots assigned to one booking, each list starts with the assigned one and is followed
+   * by the time slots no booking of the batch was assigned. A list is empty when the booking was
+   * left without a time slot of that type. The available flags tell whether the batch query found
+   * any time slot of that type, so an empty list with the flag set means the batch outnumbered them.
+   */
+  public record Assignment(
+      List<Booking.Candidate> instructors,
+      List<Booking.Candidate> aircraft,
+      boolean instructorsAvailable,
+      boolean aircraftAvailable) {}
+
+  private record Request(String studentId, Booking.CandidateSelection selection, CompletableFuture<Assignment> assignment) {}
+
+  public CompletionStage<Assignment> assign(Instant reservationTime, String studentId, Booking.CandidateSelection selection) {
+    var request = new Request(studentId, selection, new CompletableFuture<>());
+    batches.compute(reservationTime, (time, batch) -> {
+      if (batch == null) {
+        batch = new ArrayList<>();
+        CompletableFuture.delayedExecutor(window.toNanos(), TimeUnit.NANOSECONDS).execute(() -> match(time));
+      }
+      batch.add(request);
+      return batch;
+    });
+    return request.assignment();
+  }
+
+  // Requests for the same time that arrive after the batch was removed start the next batch
+  private void match(Instant reservationTime) {
+    var batch = batches.remove(reservationTime);
+    var limit = Math.max(candidateLimit, batch.size());
+    CompletionStage<List<Assignment>> assignments;
+    try {
+      var instructors = availableTimeSlots.find(TimeSlot.ParticipantType.instructor, reservationTime, limit);
+      var aircraft = availableTimeSlots.find(TimeSlot.ParticipantType.aircraft, reservationTime, limit);
+      assignments = instructors.thenCombine(aircraft, (i, a) -> assign(batch, i, a));
+    } catch (RuntimeException e) {
+      // Thrown before a future exists, every booking of the batch is waiting and must still be answered
+      assignments = CompletableFuture.failedFuture(e);
+    }
+    assignments.whenComplete((result, error) -> {
+      for (int i = 0; i < batch.size(); i++) {
+        if (error == null) {
+          batch.get(i).assignment().complete(result.get(i));
+        } else {
+          batch.get(i).assignment().completeExceptionally(error);
+        }
+      }
+    });
+  }
+
+  // Only bookings that were assigned an instructor compete for the aircraft, so both go to the same bookings
+  private List<Assignment> assign(List<Request> batch, List<Booking.Candidate> instructors, List<Booking.Candidate> aircraft) {
+    var instructorOf = BookingMatcher.match(batch.stream()
+        .map(request -> preferred(request, instructors))
+        .toList());
+    var aircraftOf = BookingMatcher.match(IntStream.range(0, batch.size())
+        .mapToObj(i -> instructorOf.get(i) == null ? List.<Booking.Candidate>of() : preferred(batch.get(i), aircraft))
+        .toList());
+    for (int i = 0; i < batch.size(); i++) {
+      record(TimeSlot.ParticipantType.instructor, instructorOf.get(i));
+      if (instructorOf.get(i) != null) {
+        record(TimeSlot.ParticipantType.aircraft, aircraftOf.get(i));
+      }
+    }
+
+    var spareInstructors = spare(instructors, instructorOf);
+    var spareAircraft = spare(aircraft, aircraftOf);
+    return IntStream.range(0, batch.size())
+        .mapToObj(i -> new Assignment(
+            withSpares(instructorOf.get(i), spareInstructors),
+            withSpares(aircraftOf.get(i), spareAircraft),
+            !instructors.isEmpty(),
+            !aircraft.isEmpty()))
+        .toList();
+  }
+
+  private List<Booking.Candidate> preferred(Request request, List<Booking.Candidate> candidates) {
+    if (candidates.isEmpty()) {
+      return candidates;
+    }
+    var selected = candidateSelector.select(request.selection(), candidates, Booking.Candidate::participantId, request.studentId());
+    return Stream.concat(Stream.of(selected), candidates.stream().filter(candidate -> !candidate.equals(selected))).toList();
+  }
+
+  private static CompletionStage<List<Booking.Candidate>> available(
+      ComponentClient componentClient, TimeSlot.ParticipantType participantType, Instant startTime, int limit) {
+    return componentClient.forView()
+        .method(TimeSlotView::getAvailableTimeSlotsByParticipantTypeAndTimeRange)
+        .invokeAsync(new TimeSlotView.AvailableByParticipantTypeAndTimeRange(
+            participantType.name(), startTime, startTime.plus(Duration.ofHours(1)), limit))
+        .thenApply(BookingCoordinator::candidates);
+  }
+
+  // The time slots that start at the same time as the first one, as BookingWorkflow picks its candidates
+  private static List<Booking.Candidate> candidates(TimeSlotView.TimeSlots queryResponse) {
+    var timeSlots = queryResponse.timeSlots();
+    if (timeSlots.isEmpty()) {
+      return List.of();
+    }
+    var startTime = timeSlots.get(0).startTime();
+    return timeSlots.stream()
+        .filter(timeSlot -> timeSlot.startTime().equals(startTime))
+        .map(timeSlot -> new Booking.Candidate(timeSlot.participantId(), timeSlot.timeSlotId()))
+        .toList();
+  }
+
+  private static List<Booking.Candidate> spare(List<Booking.Candidate> candidates, List<Booking.Candidate> assigned) {
+    var taken = new HashSet<>(assigned);
+    return candidates.stream().filter(candidate -> !taken.contains(candidate)).toList();
+  }
+
+  private static List<Booking.Candidate> withSpares(Booking.Candidate assigned, List<Booking.Candidate> spares) {
+    return assigned == null ? List.of() : Stream.concat(Stream.of(assigned), spares.stream()).toList();
+  }
+
+  private static void record(TimeSlot.ParticipantType participantType, Booking.Candidate assigned) {
+    Metrics.bookingMatches.increment(participantType.name(), assigned == null ? "unassigned" : "assigned");
+  }
+}
@@ -0,0 +1,28 @@
+package io.example.application;
+
+import com.typesafe.config.Config;
+
+import io.example.domain.Booking;
+import io.example.domain.ReservationSaga;
+
+public record BookingSettings(
+    Booking.LookupMode lookupMode,
+    Booking.StudentLookup studentLookup,
+    int candidateLimit,
+    int alternativeHours,
+    Booking.CandidateSelection candidateSelection,
+    int claimCandidates,
+    ReservationSaga.Mode reservationSaga) {
+
+  public static BookingSettings fromConfig(Config config) {
+    var booking = config.getConfig("wing-plan.booking");
+    return new BookingSettings(
+        booking.getEnum(Booking.LookupMode.class, "lookup-mode"),
+        booking.getEnum(Booking.StudentLookup.class, "student-lookup"),
+        booking.getInt("candidate-limit"),
+        booking.getInt("alternative-hours"),
+        booking.getEnum(Booking.CandidateSelection.class, "candidate-selection"),
+        booking.getInt("claim-candidates"),
+        booking.getEnum(ReservationSaga.Mode.class, "reservation-saga"));
+  }
+}
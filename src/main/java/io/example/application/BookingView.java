@@ -0,0 +1,74 @@
+package io.example.application;
+
+import java.time.Instant;
+import java.util.List;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.domain.Booking;
+
+/**
+ * The outcome of each BookingWorkflow, so /flight/booking-stream can wait for it on a streamed
+ * query instead of polling the workflow.
+ */
+@ComponentId("booking_view")
+public class BookingView extends View {
+
+  // Emits the current row, if any, and then every change to it
+  @Query(value = """
+      SELECT *
+        FROM booking_view
+        WHERE bookingId = :bookingId
+          """, streamUpdates = true)
+  public QueryStreamEffect<BookingRow> getBookingUpdates(String bookingId) {
+    return queryStreamResult();
+  }
+
+  @Consume.FromWorkflow(BookingWorkflow.class)
+  public static class BookingsById extends TableUpdater<BookingRow> {
+
+    public Effect<BookingRow> onUpdate(Booking.State state) {
+      return effects().updateRow(BookingRow.of(updateContext().eventSubject().orElse(""), state));
+    }
+  }
+
+  public record BookingRow(
+      String bookingId,
+      String studentId,
+      String studentTimeSlotId,
+      String instructorId,
+      String instructorTimeSlotId,
+      String aircraftId,
+      String aircraftTimeSlotId,
+      Instant reservationTime,
+      String reservationId,
+      String status,
+      List<Instant> alternativeHours) {
+
+    public static BookingRow of(String bookingId, Booking.State state) {
+      return new BookingRow(
+          bookingId,
+          state.studentId(),
+          state.studentTimeSlotId(),
+          state.instructorId(),
+          state.instructorTimeSlotId(),
+          state.aircraftId(),
+          state.aircraftTimeSlotId(),
+          state.reservationTime(),
+          state.reservationId(),
+          state.status().name(),
+          state.alternativeHours());
+    }
+
+    public boolean isFinal() {
+      return !Booking.Status.pending.name().equals(status);
+    }
+
+    public boolean isReservationRequested() {
+      return Booking.Status.reservationRequested.name().equals(status);
+    }
+  }
+}
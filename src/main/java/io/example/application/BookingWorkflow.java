@@ -5,37 +5,115 @@ import static akka.Done.done;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.typesafe.config.Config;
 
 import akka.Done;
 import akka.javasdk.annotations.ComponentId;
 import akka.javasdk.client.ComponentClient;
 import akka.javasdk.workflow.Workflow;
 import io.example.domain.Booking;
+import io.example.domain.CandidateSelector;
+import io.example.domain.NoCapacityCache;
 import io.example.domain.Reservation;
+import io.example.domain.ReservationIdGenerator;
+import io.example.domain.ReservationSaga;
 import io.example.domain.TimeSlot;
 
 @ComponentId("booking")
 public class BookingWorkflow extends Workflow<Booking.State> {
   private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(BookingWorkflow.class);
   private final ComponentClient componentClient;
+  private final BookingSettings settings;
+  private final ReservationIdGenerator reservationIdGenerator;
+  private final NoCapacityCache noCapacityCache;
+  private final CandidateSelector candidateSelector;
+  private final BookingCoordinator bookingCoordinator;
+  private final TimeSlotClaims timeSlotClaims;
 
-  public BookingWorkflow(ComponentClient componentClient) {
+  public BookingWorkflow(ComponentClient componentClient, Config config, ReservationIdGenerator reservationIdGenerator,
+      NoCapacityCache noCapacityCache, CandidateSelector candidateSelector, BookingCoordinator bookingCoordinator) {
     this.componentClient = componentClient;
+    this.settings = BookingSettings.fromConfig(config);
+    this.reservationIdGenerator = reservationIdGenerator;
+    this.noCapacityCache = noCapacityCache;
+    this.candidateSelector = candidateSelector;
+    this.bookingCoordinator = bookingCoordinator;
+    this.timeSlotClaims = new TimeSlotClaims(componentClient, config.getDuration("wing-plan.time-slot.hold-ttl"));
   }
 
-  public record BookingRequest(String reservationId, String studentId, Instant reservationTime) {}
+  public record BookingRequest(
+      String reservationId,
+      String studentId,
+      Instant reservationTime,
+      Booking.LookupMode lookupMode,
+      Booking.CandidateSelection candidateSelection) {
+    public BookingRequest(String reservationId, String studentId, Instant reservationTime) {
+      this(reservationId, studentId, reservationTime, null, null);
+    }
+
+    public BookingRequest(String reservationId, String studentId, Instant reservationTime, Booking.LookupMode lookupMode) {
+      this(reservationId, studentId, reservationTime, lookupMode, null);
+    }
+  }
+
+  public record AvailabilityQuery(String studentId, Instant reservationTime) {}
+
+  public record Availability(
+      TimeSlotView.TimeSlots students,
+      TimeSlotView.TimeSlots instructors,
+      TimeSlotView.TimeSlots aircraft) {}
+
+  // The assignment is null when the student is not available, the student's booking does not join a batch
+  public record MatchedAvailability(TimeSlotView.TimeSlots students, BookingCoordinator.Assignment assignment) {}
+
+  public record AlternativeHoursQuery(Booking.Status status, BookableHoursView.ByStudent byStudent) {}
+
+  public record AlternativeHours(Booking.Status status, List<Instant> hours) {}
+
+  public record ClaimRequest(String reservationId, List<Booking.Candidate> instructors, List<Booking.Candidate> aircraft) {}
+
+  // The first accepted instructor and aircraft, null when none of that type was accepted
+  public record Claims(String reservationId, Booking.Candidate instructor, Booking.Candidate aircraft) {}
 
   public Effect<Done> startBooking(BookingRequest request) {
     log.info("{}", request);
 
     var reservationTime = request.reservationTime().truncatedTo(ChronoUnit.HOURS);
+    var lookupMode = Optional.ofNullable(request.lookupMode()).orElse(settings.lookupMode());
+    var candidateSelection = Optional.ofNullable(request.candidateSelection()).orElse(settings.candidateSelection());
+    var initialState = Booking.State.initialState(request.studentId(), request.reservationTime(), candidateSelection);
+
+    if (lookupMode == Booking.LookupMode.concurrent) {
+      var command = new AvailabilityQuery(request.studentId(), request.reservationTime());
+      return effects()
+          .updateState(initialState)
+          .transitionTo("find-available-participants", command)
+          .thenReply(done());
+    }
+
+    if (lookupMode == Booking.LookupMode.matched) {
+      var command = new AvailabilityQuery(request.studentId(), request.reservationTime());
+      return effects()
+          .updateState(initialState)
+          .transitionTo("find-matched-participants", command)
+          .thenReply(done());
+    }
+
     var command = new TimeSlotView.ByParticipantAndTimeRange(
         request.studentId(),
         "student",
         reservationTime,
         reservationTime.plus(Duration.ofHours(1)));
     return effects()
-        .updateState(Booking.State.initialState(request.studentId(), request.reservationTime()))
+        .updateState(initialState)
         .transitionTo("check-if-student-is-available", command)
         .thenReply(done());
   }
@@ -48,87 +126,382 @@ public class BookingWorkflow extends Workflow<Booking.State> {
   public WorkflowDef<Booking.State> definition() {
     var checkIfStudentIsAvailable = step("check-if-student-is-available")
         .asyncCall(TimeSlotView.ByParticipantAndTimeRange.class,
-            command -> componentClient.forView()
-                .method(TimeSlotView::getTimeSlotsByParticipantAndTimeRange)
-                .invokeAsync(command))
+            query -> timed("check-if-student-is-available", () -> findStudentTimeSlots(query)))
         .andThen(TimeSlotView.TimeSlots.class, queryResponse -> {
-          if (queryResponse.timeSlots().isEmpty() || !queryResponse.timeSlots().get(0).status().equals(TimeSlot.Status.available.name())) {
-            return effects()
-                .updateState(currentState().withStatus(Booking.Status.cancelledStudentNotAvailable))
-                .end();
+          if (!isAvailable(queryResponse)) {
+            return bookingFailed(currentState(), Booking.Status.cancelledStudentNotAvailable);
           }
           var studentTimeSlotId = queryResponse.timeSlots().get(0).timeSlotId();
           var startTime = currentState().reservationTime();
           var endTime = startTime.plus(Duration.ofHours(1));
-          var nextCommand = new TimeSlotView.ByParticipantTypeAndTimeRange(TimeSlot.ParticipantType.instructor.name(), startTime, endTime);
+          var nextCommand = new TimeSlotView.AvailableByParticipantTypeAndTimeRange(TimeSlot.ParticipantType.instructor.name(), startTime, endTime, settings.candidateLimit());
           return effects()
               .updateState(currentState().withStudentTimeSlot(studentTimeSlotId))
               .transitionTo("find-available-instructor", nextCommand);
         });
 
     var findAvailableInstructor = step("find-available-instructor")
-        .asyncCall(TimeSlotView.ByParticipantTypeAndTimeRange.class,
-            command -> componentClient.forView()
-                .method(TimeSlotView::getTimeSlotsByParticipantTypeAndTimeRange)
-                .invokeAsync(command))
+        .asyncCall(TimeSlotView.AvailableByParticipantTypeAndTimeRange.class,
+            command -> timed("find-available-instructor", () -> componentClient.forView()
+                .method(TimeSlotView::getAvailableTimeSlotsByParticipantTypeAndTimeRange)
+                .invokeAsync(command)))
         .andThen(TimeSlotView.TimeSlots.class, queryResponse -> {
-          if (queryResponse.timeSlots().isEmpty() || !queryResponse.timeSlots().get(0).status().equals(TimeSlot.Status.available.name())) {
-            return effects()
-                .updateState(currentState().withStatus(Booking.Status.cancelledInstructorNotAvailable))
-                .end();
+          if (!isAvailable(queryResponse)) {
+            return bookingFailed(currentState(), Booking.Status.cancelledInstructorNotAvailable);
           }
-          var instructorTimeSlotId = queryResponse.timeSlots().get(0).timeSlotId();
-          var instructorId = queryResponse.timeSlots().get(0).participantId();
+          var instructors = candidates(currentState(), queryResponse);
+          var instructor = instructors.get(0);
           var startTime = currentState().reservationTime();
           var endTime = startTime.plus(Duration.ofHours(1));
-          var nextCommand = new TimeSlotView.ByParticipantTypeAndTimeRange(TimeSlot.ParticipantType.aircraft.name(), startTime, endTime);
+          var nextCommand = new TimeSlotView.AvailableByParticipantTypeAndTimeRange(TimeSlot.ParticipantType.aircraft.name(), startTime, endTime, settings.candidateLimit());
           return effects()
-              .updateState(currentState().withInstructor(instructorId, instructorTimeSlotId))
+              .updateState(currentState()
+                  .withInstructor(instructor.participantId(), instructor.timeSlotId())
+                  .withInstructorCandidates(instructors))
               .transitionTo("find-available-aircraft", nextCommand);
         });
 
     var findAvailableAircraft = step("find-available-aircraft")
-        .asyncCall(TimeSlotView.ByParticipantTypeAndTimeRange.class,
-            command -> componentClient.forView()
-                .method(TimeSlotView::getTimeSlotsByParticipantTypeAndTimeRange)
-                .invokeAsync(command))
+        .asyncCall(TimeSlotView.AvailableByParticipantTypeAndTimeRange.class,
+            command -> timed("find-available-aircraft", () -> componentClient.forView()
+                .method(TimeSlotView::getAvailableTimeSlotsByParticipantTypeAndTimeRange)
+                .invokeAsync(command)))
         .andThen(TimeSlotView.TimeSlots.class, queryResponse -> {
-          if (queryResponse.timeSlots().isEmpty() || !queryResponse.timeSlots().get(0).status().equals(TimeSlot.Status.available.name())) {
-            return effects()
-                .updateState(currentState().withStatus(Booking.Status.cancelledAircraftNotAvailable))
-                .end();
+          if (!isAvailable(queryResponse)) {
+            return bookingFailed(currentState(), Booking.Status.cancelledAircraftNotAvailable);
           }
-          var aircraftTimeSlotId = queryResponse.timeSlots().get(0).timeSlotId();
-          var aircraftId = queryResponse.timeSlots().get(0).participantId();
-          var reservationId = Reservation.generateReservationId();
-          var nextCommand = new Reservation.Command.CreateReservation(
-              reservationId,
-              currentState().studentId(),
-              currentState().studentTimeSlotId(),
-              currentState().instructorId(),
-              currentState().instructorTimeSlotId(),
-              aircraftId,
-              aircraftTimeSlotId,
-              currentState().reservationTime());
-          return effects()
-              .updateState(currentState().withAircraftAndReservationId(aircraftId, aircraftTimeSlotId, reservationId))
-              .transitionTo("create-reservation", nextCommand);
+          return requestReservation(currentState(), candidates(currentState(), queryResponse));
+        });
+
+    // Fast path: the three view queries run concurrently and are evaluated in one step,
+    // in the same order and with the same outcomes as the sequential steps above.
+    var findAvailableParticipants = step("find-available-participants")
+        .asyncCall(AvailabilityQuery.class,
+            query -> timed("find-available-participants", () -> {
+              var studentTime = query.reservationTime().truncatedTo(ChronoUnit.HOURS);
+              var startTime = query.reservationTime();
+              var endTime = startTime.plus(Duration.ofHours(1));
+              var students = findStudentTimeSlots(new TimeSlotView.ByParticipantAndTimeRange(
+                  query.studentId(), TimeSlot.ParticipantType.student.name(), studentTime, studentTime.plus(Duration.ofHours(1))));
+              var instructors = componentClient.forView()
+                  .method(TimeSlotView::getAvailableTimeSlotsByParticipantTypeAndTimeRange)
+                  .invokeAsync(new TimeSlotView.AvailableByParticipantTypeAndTimeRange(
+                      TimeSlot.ParticipantType.instructor.name(), startTime, endTime, settings.candidateLimit()));
+              var aircraft = componentClient.forView()
+                  .method(TimeSlotView::getAvailableTimeSlotsByParticipantTypeAndTimeRange)
+                  .invokeAsync(new TimeSlotView.AvailableByParticipantTypeAndTimeRange(
+                      TimeSlot.ParticipantType.aircraft.name(), startTime, endTime, settings.candidateLimit()));
+              return students.thenCombine(instructors, (s, i) -> new Availability(s, i, null))
+                  .thenCombine(aircraft, (a, c) -> new Availability(a.students(), a.instructors(), c));
+            }))
+        .andThen(Availability.class, availability -> {
+          if (!isAvailable(availability.students())) {
+            return bookingFailed(currentState(), Booking.Status.cancelledStudentNotAvailable);
+          }
+          var state = currentState().withStudentTimeSlot(availability.students().timeSlots().get(0).timeSlotId());
+
+          if (!isAvailable(availability.instructors())) {
+            return bookingFailed(state, Booking.Status.cancelledInstructorNotAvailable);
+          }
+          var instructors = candidates(state, availability.instructors());
+          var instructor = instructors.get(0);
+          state = state
+              .withInstructor(instructor.participantId(), instructor.timeSlotId())
+              .withInstructorCandidates(instructors);
+
+          if (!isAvailable(availability.aircraft())) {
+            return bookingFailed(state, Booking.Status.cancelledAircraftNotAvailable);
+          }
+          return requestReservation(state, candidates(state, availability.aircraft()));
+        });
+
+    // Matched path: bookings for the same time on this node are assigned distinct instructors and aircraft
+    // by the BookingCoordinator. Only bookings whose student is available join the batch.
+    var findMatchedParticipants = step("find-matched-participants")
+        .asyncCall(AvailabilityQuery.class,
+            query -> timed("find-matched-participants", () -> {
+              var studentTime = query.reservationTime().truncatedTo(ChronoUnit.HOURS);
+              var selection = Optional.ofNullable(currentState().candidateSelection()).orElse(settings.candidateSelection());
+              return findStudentTimeSlots(new TimeSlotView.ByParticipantAndTimeRange(
+                  query.studentId(), TimeSlot.ParticipantType.student.name(), studentTime, studentTime.plus(Duration.ofHours(1))))
+                  .thenCompose(students -> isAvailable(students)
+                      ? bookingCoordinator.assign(query.reservationTime(), query.studentId(), selection)
+                          .thenApply(assignment -> new MatchedAvailability(students, assignment))
+                      : CompletableFuture.completedFuture(new MatchedAvailability(students, null)));
+            }))
+        .andThen(MatchedAvailability.class, availability -> {
+          if (!isAvailable(availability.students())) {
+            return bookingFailed(currentState(), Booking.Status.cancelledStudentNotAvailable);
+          }
+          var state = currentState().withStudentTimeSlot(availability.students().timeSlots().get(0).timeSlotId());
+
+          // A booking that lost the in-batch assignment fails without caching the hour as full
+          var assignment = availability.assignment();
+          if (assignment.instructors().isEmpty()) {
+            return assignment.instructorsAvailable()
+                ? endFailedBooking(state, Booking.Status.cancelledInstructorNotAvailable)
+                : bookingFailed(state, Booking.Status.cancelledInstructorNotAvailable);
+          }
+          var instructors = claimCandidates(assignment.instructors());
+          var instructor = instructors.get(0);
+          state = state
+              .withInstructor(instructor.participantId(), instructor.timeSlotId())
+              .withInstructorCandidates(instructors);
+
+          if (assignment.aircraft().isEmpty()) {
+            return assignment.aircraftAvailable()
+                ? endFailedBooking(state, Booking.Status.cancelledAircraftNotAvailable)
+                : bookingFailed(state, Booking.Status.cancelledAircraftNotAvailable);
+          }
+          return requestReservation(state, claimCandidates(assignment.aircraft()));
         });
 
     var createReservation = step("create-reservation")
-        .asyncCall(Reservation.Command.CreateReservation.class,
-            command -> componentClient.forEventSourcedEntity(command.reservationId())
-                .method(ReservationEntity::createReservation)
-                .invokeAsync(command))
-        .andThen(Done.class, __ -> {
-          effects().updateState(currentState().withStatus(Booking.Status.reservationRequested));
-          return effects().end();
+        .asyncCall(Reservation.Command.RequestReservation.class,
+            command -> timed("create-reservation", () -> createReservation(command)))
+        .andThen(Done.class, __ -> effects()
+            .updateState(currentState().withStatus(Booking.Status.reservationRequested))
+            .end());
+
+    // Claims the instructor and aircraft candidates at once, then releases every accepted claim but the first of each type
+    var claimTimeSlots = step("claim-time-slots")
+        .asyncCall(ClaimRequest.class,
+            request -> timed("claim-time-slots", () -> claim(request)))
+        .andThen(Claims.class, claims -> {
+          if (claims.instructor() == null) {
+            return endFailedBooking(currentState(), Booking.Status.cancelledInstructorNotAvailable);
+          }
+          if (claims.aircraft() == null) {
+            return endFailedBooking(currentState(), Booking.Status.cancelledAircraftNotAvailable);
+          }
+          var state = currentState()
+              .withInstructor(claims.instructor().participantId(), claims.instructor().timeSlotId())
+              .withAircraftAndReservationId(claims.aircraft().participantId(), claims.aircraft().timeSlotId(), claims.reservationId());
+          return effects()
+              .updateState(state)
+              .transitionTo("create-claimed-reservation", reservationRequest(state));
         });
 
+    // The kept time slots are already scheduled for this reservation, so the reservation's own
+    // requests do not get an answer. The workflow confirms the instructor and aircraft instead.
+    var createClaimedReservation = step("create-claimed-reservation")
+        .asyncCall(Reservation.Command.RequestReservation.class,
+            command -> timed("create-claimed-reservation", () -> componentClient.forEventSourcedEntity(command.reservationId())
+                .method(ReservationEntity::requestReservation)
+                .invokeAsync(command)
+                .thenCompose(__ -> acknowledgeClaims(command))))
+        .andThen(Done.class, __ -> effects()
+            .updateState(currentState().withStatus(Booking.Status.reservationRequested))
+            .end());
+
+    // Looks up the next hours the student could book instead, then ends the booking with the failed status
+    var findAlternativeHours = step("find-alternative-hours")
+        .asyncCall(AlternativeHoursQuery.class,
+            query -> timed("find-alternative-hours", () -> BookableHourSearch.find(componentClient, query.byStudent())
+                .thenApply(result -> new AlternativeHours(
+                    query.status(),
+                    result.bookableHours().stream().map(BookableHoursView.BookableHourRow::startTime).toList()))
+                .exceptionally(e -> {
+                  log.warn("Alternative hours lookup failed for {}: {}", query.byStudent(), e.getMessage());
+                  return new AlternativeHours(query.status(), List.of());
+                })))
+        .andThen(AlternativeHours.class, alternatives -> effects()
+            .updateState(currentState().withStatus(alternatives.status(), alternatives.hours()))
+            .end());
+
     return workflow()
         .addStep(checkIfStudentIsAvailable)
         .addStep(findAvailableInstructor)
         .addStep(findAvailableAircraft)
-        .addStep(createReservation);
+        .addStep(findAvailableParticipants)
+        .addStep(findMatchedParticipants)
+        .addStep(createReservation)
+        .addStep(claimTimeSlots)
+        .addStep(createClaimedReservation)
+        .addStep(findAlternativeHours);
+  }
+
+  private Effect.TransitionalEffect<Void> requestReservation(Booking.State state, List<Booking.Candidate> aircraftCandidates) {
+    var reservationId = reservationIdGenerator.next();
+    if (settings.claimCandidates() > 1) {
+      // The reservation id is only stored once the claims succeed, a failed booking has no reservation
+      return effects()
+          .updateState(state)
+          .transitionTo("claim-time-slots", new ClaimRequest(reservationId, state.instructorCandidates(), aircraftCandidates));
+    }
+    var aircraft = aircraftCandidates.get(0);
+    var newState = state.withAircraftAndReservationId(aircraft.participantId(), aircraft.timeSlotId(), reservationId);
+    return effects()
+        .updateState(newState)
+        .transitionTo("create-reservation", reservationRequest(newState));
+  }
+
+  private static Reservation.Command.RequestReservation reservationRequest(Booking.State state) {
+    return new Reservation.Command.RequestReservation(
+        state.reservationId(),
+        state.studentId(),
+        state.studentTimeSlotId(),
+        state.instructorId(),
+        state.instructorTimeSlotId(),
+        state.aircraftId(),
+        state.aircraftTimeSlotId(),
+        state.reservationTime());
+  }
+
+  private Effect.TransitionalEffect<Void> bookingFailed(Booking.State state, Booking.Status status) {
+    switch (status) {
+      case cancelledInstructorNotAvailable -> noCapacityCache.put(state.reservationTime(), TimeSlot.ParticipantType.instructor);
+      case cancelledAircraftNotAvailable -> noCapacityCache.put(state.reservationTime(), TimeSlot.ParticipantType.aircraft);
+      default -> {}
+    }
+    return endFailedBooking(state, status);
+  }
+
+  // Unlike bookingFailed, does not remember the hour as having no capacity, used when claims lose a race
+  private Effect.TransitionalEffect<Void> endFailedBooking(Booking.State state, Booking.Status status) {
+    if (settings.alternativeHours() <= 0) {
+      return effects()
+          .updateState(state.withStatus(status))
+          .end();
+    }
+    var requestedHour = state.reservationTime().truncatedTo(ChronoUnit.HOURS);
+    var query = new BookableHoursView.ByStudent(state.studentId(), requestedHour.plus(Duration.ofHours(1)), settings.alternativeHours());
+    return effects()
+        .updateState(state)
+        .transitionTo("find-alternative-hours", new AlternativeHoursQuery(status, query));
+  }
+
+  /**
+   * The time slots that start at the same time as the first one, as the query orders them by start
+   * time. The selected candidate comes first, followed by the others up to claim-candidates.
+   */
+  private List<Booking.Candidate> candidates(Booking.State state, TimeSlotView.TimeSlots queryResponse) {
+    var timeSlots = queryResponse.timeSlots();
+    var startTime = timeSlots.get(0).startTime();
+    var candidates = timeSlots.stream()
+        .filter(timeSlot -> timeSlot.startTime().equals(startTime))
+        .map(timeSlot -> new Booking.Candidate(timeSlot.participantId(), timeSlot.timeSlotId()))
+        .toList();
+    var selection = Optional.ofNullable(state.candidateSelection()).orElse(settings.candidateSelection());
+    var selected = candidateSelector.select(selection, candidates, Booking.Candidate::participantId, state.studentId());
+    return claimCandidates(Stream.concat(Stream.of(selected), candidates.stream().filter(candidate -> !candidate.equals(selected))).toList());
+  }
+
+  private List<Booking.Candidate> claimCandidates(List<Booking.Candidate> candidates) {
+    return candidates.stream()
+        .limit(Math.max(1, settings.claimCandidates()))
+        .toList();
+  }
+
+  // A claim fails the step when a request fails, so the retried step finds out whether it was accepted.
+  // Claims are held like the reservation's own requests, so a claim that is never released lapses.
+  private CompletionStage<Claims> claim(ClaimRequest request) {
+    var instructors = request.instructors().stream()
+        .map(candidate -> timeSlotClaims.claim(TimeSlot.ParticipantType.instructor, candidate.timeSlotId(), request.reservationId()).toCompletableFuture())
+        .toList();
+    var aircraft = request.aircraft().stream()
+        .map(candidate -> timeSlotClaims.claim(TimeSlot.ParticipantType.aircraft, candidate.timeSlotId(), request.reservationId()).toCompletableFuture())
+        .toList();
+    return CompletableFuture.allOf(Stream.concat(instructors.stream(), aircraft.stream()).toArray(CompletableFuture[]::new))
+        .thenCompose(__ -> {
+          var acceptedInstructors = accepted(request.instructors(), instructors, TimeSlot.ParticipantType.instructor);
+          var acceptedAircraft = accepted(request.aircraft(), aircraft, TimeSlot.ParticipantType.aircraft);
+          var claims = new Claims(
+              request.reservationId(),
+              acceptedInstructors.isEmpty() ? null : acceptedInstructors.get(0),
+              acceptedAircraft.isEmpty() ? null : acceptedAircraft.get(0));
+          var keep = claims.instructor() != null && claims.aircraft() != null;
+          var releases = Stream.concat(
+              release(acceptedInstructors, keep, TimeSlot.ParticipantType.instructor, request.reservationId()),
+              release(acceptedAircraft, keep, TimeSlot.ParticipantType.aircraft, request.reservationId()))
+              .toArray(CompletableFuture[]::new);
+          return CompletableFuture.allOf(releases).thenApply(___ -> claims);
+        });
+  }
+
+  private static List<Booking.Candidate> accepted(List<Booking.Candidate> candidates, List<CompletableFuture<Boolean>> results,
+      TimeSlot.ParticipantType participantType) {
+    var accepted = new ArrayList<Booking.Candidate>();
+    for (int i = 0; i < candidates.size(); i++) {
+      if (results.get(i).join()) {
+        accepted.add(candidates.get(i));
+      } else {
+        Metrics.speculativeClaims.increment(participantType.name(), "rejected");
+      }
+    }
+    return accepted;
+  }
+
+  // Releases every accepted claim but the first, or all of them when the other participant type has none
+  private Stream<CompletableFuture<Done>> release(List<Booking.Candidate> accepted, boolean keepFirst,
+      TimeSlot.ParticipantType participantType, String reservationId) {
+    if (keepFirst) {
+      Metrics.speculativeClaims.increment(participantType.name(), "kept");
+    }
+    return accepted.stream()
+        .skip(keepFirst ? 1 : 0)
+        .map(candidate -> timeSlotClaims.release(candidate.timeSlotId(), reservationId)
+            .whenComplete((done, error) -> {
+              if (error == null) {
+                Metrics.speculativeClaims.increment(participantType.name(), "released");
+              } else {
+                log.warn("Release of speculative claim {} for {} failed: {}", candidate.timeSlotId(), reservationId, error.getMessage());
+                Metrics.speculativeClaims.increment(participantType.name(), "leaked");
+              }
+            })
+            .toCompletableFuture());
+  }
+
+  private CompletionStage<Done> createReservation(Reservation.Command.RequestReservation command) {
+    if (settings.reservationSaga() == ReservationSaga.Mode.workflow) {
+      return componentClient.forWorkflow(command.reservationId())
+          .method(ReservationSagaWorkflow::start)
+          .invokeAsync(command);
+    }
+    return componentClient.forEventSourcedEntity(command.reservationId())
+        .method(ReservationEntity::requestReservation)
+        .invokeAsync(command);
+  }
+
+  private CompletionStage<Done> acknowledgeClaims(Reservation.Command.RequestReservation command) {
+    var instructor = componentClient.forEventSourcedEntity(command.reservationId())
+        .method(ReservationEntity::instructorAvailable)
+        .invokeAsync(new Reservation.Command.InstructorAvailable(command.reservationId(), command.instructorTimeSlotId()));
+    var aircraft = componentClient.forEventSourcedEntity(command.reservationId())
+        .method(ReservationEntity::aircraftAvailable)
+        .invokeAsync(new Reservation.Command.AircraftAvailable(command.reservationId(), command.aircraftTimeSlotId()));
+    return instructor.thenCombine(aircraft, (i, a) -> done());
+  }
+
+  private static <T> CompletionStage<T> timed(String step, Supplier<CompletionStage<T>> call) {
+    return Metrics.bookingStepSeconds.time(call, step);
+  }
+
+  private CompletionStage<TimeSlotView.TimeSlots> findStudentTimeSlots(TimeSlotView.ByParticipantAndTimeRange query) {
+    if (settings.studentLookup() == Booking.StudentLookup.view) {
+      return componentClient.forView()
+          .method(TimeSlotView::getAvailableTimeSlotsByParticipantAndTimeRange)
+          .invokeAsync(query);
+    }
+
+    // The student's time slot id is derived from the hour, so it can be read directly from the entity.
+    var timeSlotId = TimeSlot.State.entityId(query.participantId(), TimeSlot.ParticipantType.student, query.timeBegin());
+    return componentClient.forEventSourcedEntity(timeSlotId)
+        .method(TimeSlotEntity::getOrEmpty)
+        .invokeAsync()
+        .thenApply(state -> state.isClaimable()
+            ? new TimeSlotView.TimeSlots(List.of(new TimeSlotView.TimeSlotRow(
+                state.timeSlotId(),
+                state.startTime(),
+                state.status().name(),
+                state.participantId(),
+                state.participantType().name(),
+                state.reservationId())))
+            : new TimeSlotView.TimeSlots(List.of())); // Empty when the student never made this time slot available
+  }
+
+  private static boolean isAvailable(TimeSlotView.TimeSlots queryResponse) {
+    return !queryResponse.timeSlots().isEmpty()
+        && queryResponse.timeSlots().get(0).status().equals(TimeSlot.Status.available.name());
   }
 }
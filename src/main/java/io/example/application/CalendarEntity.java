@@ -0,0 +1,105 @@
+package io.example.application;
+
+import static akka.Done.done;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.eventsourcedentity.EventSourcedEntity;
+import akka.javasdk.eventsourcedentity.EventSourcedEntityContext;
+import io.example.domain.Calendar;
+import io.example.domain.TimeSlot;
+
+/**
+ * Holds every hour of one participant's availability, using the TimeSlotEntity commands with the
+ * hour added and the same accept and reject rules as TimeSlotEntity. The entity id is {@link Calendar.State#entityId}.
+ */
+@ComponentId("calendar")
+public class CalendarEntity extends EventSourcedEntity<Calendar.State, Calendar.Event> {
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final String entityId;
+
+  public CalendarEntity(EventSourcedEntityContext context) {
+    this.entityId = context.entityId();
+  }
+
+  @Override
+  public Calendar.State emptyState() {
+    return Calendar.State.empty();
+  }
+
+  public Effect<Done> createTimeSlot(TimeSlot.Command.MakeTimeSlotAvailable command) {
+    log.info("EntityId: {}\n_Command: {}", entityId, command);
+
+    return effects()
+        .persistAll(currentState().onCommand(command).stream().toList())
+        .thenReply(newState -> done());
+  }
+
+  public Effect<Done> makeTimeSlotUnavailable(TimeSlot.Command.MakeTimeSlotUnavailable command) {
+    log.info("EntityId: {}\n_Command: {}", entityId, command);
+
+    return effects()
+        .persistAll(currentState().onCommand(command).stream().toList())
+        .thenReply(newState -> done());
+  }
+
+  public Effect<Done> requestTimeSlot(Calendar.Command.RequestHour command) {
+    log.info("EntityId: {}\n_Command: {}", entityId, command);
+
+    return effects()
+        .persistAll(currentState().onCommand(command).stream().toList())
+        .thenReply(newState -> done());
+  }
+
+  public Effect<Done> cancelTimeSlot(Calendar.Command.CancelHour command) {
+    log.info("EntityId: {}\n_Command: {}", entityId, command);
+
+    return effects()
+        .persistAll(currentState().onCommand(command).stream().toList())
+        .thenReply(newState -> done());
+  }
+
+  public Effect<Done> confirmTimeSlot(Calendar.Command.ConfirmHour command) {
+    log.info("EntityId: {}\n_Command: {}", entityId, command);
+
+    return effects()
+        .persistAll(currentState().onCommand(command).stream().toList())
+        .thenReply(newState -> done());
+  }
+
+  public Effect<Done> lapseHold(Calendar.Command.LapseHold command) {
+    log.info("EntityId: {}\n_Command: {}", entityId, command);
+
+    return effects()
+        .persistAll(currentState().onCommand(command).stream().toList())
+        .thenReply(newState -> done());
+  }
+
+  public ReadOnlyEffect<Calendar.State> get() {
+    log.info("EntityId: {}", entityId);
+    if (currentState().isEmpty()) {
+      return effects().error("Calendar not found");
+    }
+    return effects().reply(currentState());
+  }
+
+  @Override
+  public Calendar.State applyEvent(Calendar.Event event) {
+    return applyEvent(currentState(), event);
+  }
+
+  static Calendar.State applyEvent(Calendar.State state, Calendar.Event event) {
+    return switch (event) {
+      case Calendar.Event.CalendarHourMadeAvailable e -> state.onEvent(e);
+      case Calendar.Event.CalendarHourMadeUnavailable e -> state.onEvent(e);
+      case Calendar.Event.CalendarHourRequestAccepted e -> state.onEvent(e);
+      case Calendar.Event.CalendarHourRequestRejected e -> state.onEvent(e);
+      case Calendar.Event.CalendarHourReservationCancelled e -> state.onEvent(e);
+      case Calendar.Event.CalendarHourConfirmed e -> state.onEvent(e);
+      case Calendar.Event.CalendarHourHoldLapsed e -> state.onEvent(e);
+    };
+  }
+}
@@ -0,0 +1,286 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import akka.javasdk.Metadata;
+
+/**
+ * Process wide counters, gauges and latency histograms, written in the Prometheus text format by
+ * MetricsEndpoint. Every node keeps its own values, so each node is scraped separately. Updates are
+ * lock free, a new label combination costs one map insert the first time it is seen.
+ */
+public final class Metrics {
+  private static final List<Metric> registry = new CopyOnWriteArrayList<>();
+
+  // Seconds, from 1ms to 30s
+  private static final double[] latencyBuckets = {
+      0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30 };
+
+  public static final Counter timeSlotEvents = register(new Counter(
+      "wing_plan_time_slot_events_total", "TimeSlot events persisted, by event type", "type"));
+
+  public static final Counter reservationEvents = register(new Counter(
+      "wing_plan_reservation_events_total", "Reservation events persisted, by event type", "type"));
+
+  public static final Counter timeSlotRequests = register(new Counter(
+      "wing_plan_time_slot_requests_total", "Time slot requests by participant type and outcome, accepted, rejected, "
+          + "or repeated when the reservation already has the time slot",
+      "participant_type", "outcome"));
+
+  public static final Counter bookingNoCapacityRejections = register(new Counter(
+      "wing_plan_booking_no_capacity_rejections_total", "Bookings rejected by the no capacity cache without starting a workflow",
+      "participant_type"));
+
+  public static final Counter speculativeClaims = register(new Counter(
+      "wing_plan_speculative_claims_total", "Time slots claimed speculatively by bookings, by participant type and outcome: "
+          + "kept, released, rejected, or leaked when the release failed",
+      "participant_type", "outcome"));
+
+  public static final Counter bookingMatches = register(new Counter(
+      "wing_plan_booking_matches_total", "Bookings of a BookingCoordinator batch assigned a time slot, or left unassigned "
+          + "because the batch had more bookings than available time slots",
+      "participant_type", "outcome"));
+
+  public static final Counter timeSlotHoldConfirmations = register(new Counter(
+      "wing_plan_time_slot_hold_confirmations_total", "Held time slots confirmed, or lost because the hold lapsed and "
+          + "another reservation claimed the time slot first",
+      "participant_type", "outcome"));
+
+  public static final Histogram timeSlotHoldConfirmSeconds = register(new Histogram(
+      "wing_plan_time_slot_hold_confirm_seconds", "Time from a time slot being held to its reservation confirming it",
+      latencyBuckets, "participant_type"));
+
+  public static final Histogram bookingStepSeconds = register(new Histogram(
+      "wing_plan_booking_step_seconds", "BookingWorkflow step call latency", latencyBuckets, "step"));
+
+  public static final Histogram reservationSagaStepSeconds = register(new Histogram(
+      "wing_plan_reservation_saga_step_seconds", "ReservationSagaWorkflow step call latency", latencyBuckets, "step"));
+
+  public static final Histogram consumerCallSeconds = register(new Histogram(
+      "wing_plan_consumer_call_seconds", "Latency of the entity calls a consumer makes for one event",
+      latencyBuckets, "consumer", "event"));
+
+  public static final Histogram reservationCompletionSeconds = register(new Histogram(
+      "wing_plan_reservation_completion_seconds", "Time from reservation created to confirmed or cancelled",
+      latencyBuckets, "status"));
+
+  // Seconds, from 10ms to 10 minutes
+  private static final double[] lagBuckets = {
+      0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120, 300, 600 };
+
+  public static final Histogram projectionLagSeconds = register(new Histogram(
+      "wing_plan_projection_lag_seconds", "Time from an event being persisted to a view or consumer processing it",
+      lagBuckets, "component"));
+
+  public static final Gauge projectionLastLagSeconds = register(new Gauge(
+      "wing_plan_projection_last_lag_seconds", "Lag of the last event a view or consumer processed", "component"));
+
+  private Metrics() {}
+
+  /** Records the lag from the event time in the cloud event metadata to now. */
+  public static void recordLag(String component, Metadata metadata) {
+    metadata.asCloudEvent().time().ifPresent(eventTime -> {
+      var lag = Math.max(0, Duration.between(eventTime.toInstant(), Instant.now()).toNanos()); // Clocks can drift
+      projectionLagSeconds.observe(lag, component);
+      projectionLastLagSeconds.set(lag / 1e9, component);
+    });
+  }
+
+  public static <T extends Metric> T register(T metric) {
+    registry.add(metric);
+    return metric;
+  }
+
+  public static String scrape() {
+    var text = new StringBuilder();
+    registry.forEach(metric -> metric.write(text));
+    return text.toString();
+  }
+
+  public interface Metric {
+    void write(StringBuilder text);
+  }
+
+  public static final class Counter implements Metric {
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+    private final Map<List<String>, LongAdder> series = new ConcurrentHashMap<>();
+
+    public Counter(String name, String help, String... labelNames) {
+      this.name = name;
+      this.help = help;
+      this.labelNames = labelNames;
+    }
+
+    public void increment(String... labelValues) {
+      series.computeIfAbsent(key(labelNames, labelValues), __ -> new LongAdder()).increment();
+    }
+
+    public long value(String... labelValues) {
+      var count = series.get(key(labelNames, labelValues));
+      return count == null ? 0 : count.sum();
+    }
+
+    @Override
+    public void write(StringBuilder text) {
+      header(text, name, help, "counter");
+      series.forEach((labelValues, count) -> {
+        text.append(name);
+        labels(text, labelNames, labelValues, null);
+        text.append(' ').append(count.sum()).append('\n');
+      });
+    }
+  }
+
+  public static final class Gauge implements Metric {
+    private final String name;
+    private final String help;
+    private final String[] labelNames;
+    private final Map<List<String>, AtomicLong> series = new ConcurrentHashMap<>();
+
+    public Gauge(String name, String help, String... labelNames) {
+      this.name = name;
+      this.help = help;
+      this.labelNames = labelNames;
+    }
+
+    public void set(double value, String... labelValues) {
+      series.computeIfAbsent(key(labelNames, labelValues), __ -> new AtomicLong()).set(Double.doubleToLongBits(value));
+    }
+
+    public double value(String... labelValues) {
+      var value = series.get(key(labelNames, labelValues));
+      return value == null ? 0 : Double.longBitsToDouble(value.get());
+    }
+
+    @Override
+    public void write(StringBuilder text) {
+      header(text, name, help, "gauge");
+      series.forEach((labelValues, value) -> {
+        text.append(name);
+        labels(text, labelNames, labelValues, null);
+        text.append(' ').append(Double.longBitsToDouble(value.get())).append('\n');
+      });
+    }
+  }
+
+  public static final class Histogram implements Metric {
+    private final String name;
+    private final String help;
+    private final double[] buckets;
+    private final String[] labelNames;
+    private final Map<List<String>, Series> series = new ConcurrentHashMap<>();
+
+    public Histogram(String name, String help, double[] buckets, String... labelNames) {
+      this.name = name;
+      this.help = help;
+      this.buckets = buckets;
+      this.labelNames = labelNames;
+    }
+
+    public void observe(long nanos, String... labelValues) {
+      var seconds = nanos / 1e9;
+      var bucket = Arrays.binarySearch(buckets, seconds);
+      bucket = bucket >= 0 ? bucket : -bucket - 1; // The first bucket whose upper bound is >= seconds
+      var values = series.computeIfAbsent(key(labelNames, labelValues), __ -> new Series(buckets.length + 1));
+      values.counts[bucket].increment();
+      values.sum.add(seconds);
+    }
+
+    /** Calls the supplier and records the time until the returned stage completes, successfully or not. */
+    public <T> CompletionStage<T> time(Supplier<? extends CompletionStage<T>> call, String... labelValues) {
+      var start = System.nanoTime();
+      return call.get().whenComplete((result, error) -> observe(System.nanoTime() - start, labelValues));
+    }
+
+    public long count(String... labelValues) {
+      var values = series.get(key(labelNames, labelValues));
+      return values == null ? 0 : Arrays.stream(values.counts).mapToLong(LongAdder::sum).sum();
+    }
+
+    @Override
+    public void write(StringBuilder text) {
+      header(text, name, help, "histogram");
+      series.forEach((labelValues, values) -> {
+        var cumulative = 0L;
+        for (int i = 0; i <= buckets.length; i++) {
+          cumulative += values.counts[i].sum();
+          text.append(name).append("_bucket");
+          labels(text, labelNames, labelValues, i < buckets.length ? Double.toString(buckets[i]) : "+Inf");
+          text.append(' ').append(cumulative).append('\n');
+        }
+        text.append(name).append("_sum");
+        labels(text, labelNames, labelValues, null);
+        text.append(' ').append(values.sum.sum()).append('\n');
+        text.append(name).append("_count");
+        labels(text, labelNames, labelValues, null);
+        text.append(' ').append(cumulative).append('\n');
+      });
+    }
+
+    private static final class Series {
+      private final LongAdder[] counts;
+      private final DoubleAdder sum = new DoubleAdder();
+
+      private Series(int buckets) {
+        counts = new LongAdder[buckets];
+        Arrays.setAll(counts, __ -> new LongAdder());
+      }
+    }
+  }
+
+  private static List<String> key(String[] labelNames, String[] labelValues) {
+    if (labelValues.length != labelNames.length) {
+      throw new IllegalArgumentException("Expected labels " + Arrays.toString(labelNames) + ": " + Arrays.toString(labelValues));
+    }
+    return List.of(labelValues);
+  }
+
+  private static void header(StringBuilder text, String name, String help, String type) {
+    text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void labels(StringBuilder text, String[] labelNames, List<String> labelValues, String le) {
+    if (labelNames.length == 0 && le == null) {
+      return;
+    }
+    text.append('{');
+    for (int i = 0; i < labelNames.length; i++) {
+      if (i > 0) {
+        text.append(',');
+      }
+      text.append(labelNames[i]).append("=\"");
+      escape(text, labelValues.get(i));
+      text.append('"');
+    }
+    if (le != null) {
+      text.append(labelNames.length > 0 ? "," : "").append("le=\"").append(le).append('"');
+    }
+    text.append('}');
+  }
+
+  private static void escape(StringBuilder text, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      var c = value.charAt(i);
+      switch (c) {
+        case '\\' -> text.append("\\\\");
+        case '"' -> text.append("\\\"");
+        case '\n' -> text.append("\\n");
+        default -> text.append(c);
+      }
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.domain.Reservation;
+
+/**
+ * Records how long each reservation took from its first event to confirmed or cancelled. The start
+ * is the createdAt of the reservation's ReservationView row. A consumer only sees each event again
+ * when it is redelivered, unlike a view, which replays every event when it is rebuilt.
+ */
+@ComponentId("reservation-completion-consumer")
+@Consume.FromEventSourcedEntity(ReservationEntity.class)
+public class ReservationCompletionConsumer extends Consumer {
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final ComponentClient componentClient;
+
+  public ReservationCompletionConsumer(ComponentClient componentClient) {
+    this.componentClient = componentClient;
+  }
+
+  public Effect onEvent(Reservation.Event event) {
+    return switch (event) {
+      case Reservation.Event.ReservationConfirmed e -> observe(e.reservationId(), Reservation.Status.confirmed);
+      case Reservation.Event.ReservationCancelled e -> observe(e.reservationId(), Reservation.Status.cancelled);
+      // Ignore other events
+      default -> effects().ignore();
+    };
+  }
+
+  private Effect observe(String reservationId, Reservation.Status status) {
+    var completedAt = messageContext().metadata().asCloudEvent().time()
+        .map(ZonedDateTime::toInstant)
+        .orElseGet(Instant::now);
+    var observed = componentClient.forView()
+        .method(ReservationView::getReservation)
+        .invokeAsync(reservationId)
+        .handle((row, error) -> {
+          // A missing row only loses one observation, retrying the event would not bring it sooner
+          if (error != null || row == null || row.createdAt() == null) {
+            log.debug("No created time for reservation {}, completion not recorded", reservationId);
+          } else {
+            var completion = Duration.between(row.createdAt(), completedAt);
+            Metrics.reservationCompletionSeconds.observe(Math.max(0, completion.toNanos()), status.name());
+          }
+          return Done.done();
+        });
+    return effects().asyncDone(observed);
+  }
+}
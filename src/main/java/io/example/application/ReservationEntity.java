@@ -2,6 +2,8 @@ package io.example.application;
 
 import static akka.Done.done;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,65 +30,73 @@ public class ReservationEntity extends EventSourcedEntity<Reservation.State, Res
   public Effect<Done> createReservation(Reservation.Command.CreateReservation command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command))
-        .thenReply(newState -> done());
+    return persist(currentState().onCommand(command));
+  }
+
+  public Effect<Done> requestReservation(Reservation.Command.RequestReservation command) {
+    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
+
+    return persist(currentState().onCommand(command));
   }
 
   public Effect<Done> studentAvailable(Reservation.Command.StudentAvailable command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command))
-        .thenReply(newState -> done());
+    return persist(currentState().onCommand(command));
   }
 
   public Effect<Done> studentUnavailable(Reservation.Command.StudentUnavailable command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command))
-        .thenReply(newState -> done());
+    return persist(currentState().onCommand(command));
   }
 
   public Effect<Done> instructorAvailable(Reservation.Command.InstructorAvailable command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command))
-        .thenReply(newState -> done());
+    return persist(currentState().onCommand(command));
   }
 
   public Effect<Done> instructorUnavailable(Reservation.Command.InstructorUnavailable command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command))
-        .thenReply(newState -> done());
+    return persist(currentState().onCommand(command));
   }
 
   public Effect<Done> aircraftAvailable(Reservation.Command.AircraftAvailable command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command))
-        .thenReply(newState -> done());
+    return persist(currentState().onCommand(command));
   }
 
   public Effect<Done> aircraftUnavailable(Reservation.Command.AircraftUnavailable command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command))
-        .thenReply(newState -> done());
+    return persist(currentState().onCommand(command));
+  }
+
+  public Effect<Done> recordOutcome(Reservation.Command.RecordOutcome command) {
+    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
+
+    return persist(currentState().onCommand(command));
   }
 
   public Effect<Done> cancelReservation(Reservation.Command.CancelReservation command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command))
-        .thenReply(newState -> done());
+    return persist(currentState().onCommand(command));
+  }
+
+  public Effect<Done> expireReservation(Reservation.Command.ExpireReservation command) {
+    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
+
+    return persist(currentState().onCommand(command));
+  }
+
+  // Replies with the empty state instead of an error when the reservation does not exist, the time slot
+  // hold timer reads it for claims whose booking never created a reservation
+  public ReadOnlyEffect<Reservation.State> getOrEmpty() {
+    return effects().reply(currentState());
   }
 
   public ReadOnlyEffect<Reservation.State> get() {
@@ -96,24 +106,38 @@ public class ReservationEntity extends EventSourcedEntity<Reservation.State, Res
     return effects().reply(currentState());
   }
 
+  private Effect<Done> persist(List<Reservation.Event> events) {
+    return effects()
+        .persistAll(events)
+        .thenReply(newState -> {
+          events.forEach(event -> Metrics.reservationEvents.increment(event.getClass().getSimpleName()));
+          return done();
+        });
+  }
+
   @Override
   public Reservation.State applyEvent(Reservation.Event event) {
+    return applyEvent(currentState(), event);
+  }
+
+  static Reservation.State applyEvent(Reservation.State state, Reservation.Event event) {
     return switch (event) {
-      case Reservation.Event.ReservationCreated e -> currentState().onEvent(e);
-      case Reservation.Event.StudentWantsTimeSlot e -> currentState().onEvent(e);
-      case Reservation.Event.StudentAvailable e -> currentState().onEvent(e);
-      case Reservation.Event.StudentUnavailable e -> currentState().onEvent(e);
-      case Reservation.Event.InstructorWantsTimeSlot e -> currentState().onEvent(e);
-      case Reservation.Event.InstructorAvailable e -> currentState().onEvent(e);
-      case Reservation.Event.InstructorUnavailable e -> currentState().onEvent(e);
-      case Reservation.Event.AircraftWantsTimeSlot e -> currentState().onEvent(e);
-      case Reservation.Event.AircraftAvailable e -> currentState().onEvent(e);
-      case Reservation.Event.AircraftUnavailable e -> currentState().onEvent(e);
-      case Reservation.Event.ReservationConfirmed e -> currentState().onEvent(e);
-      case Reservation.Event.ReservationCancelled e -> currentState().onEvent(e);
-      case Reservation.Event.CancelledStudentReservation e -> currentState().onEvent(e);
-      case Reservation.Event.CancelledInstructorReservation e -> currentState().onEvent(e);
-      case Reservation.Event.CancelledAircraftReservation e -> currentState().onEvent(e);
+      case Reservation.Event.ReservationCreated e -> state.onEvent(e);
+      case Reservation.Event.ReservationRequested e -> state.onEvent(e);
+      case Reservation.Event.StudentWantsTimeSlot e -> state.onEvent(e);
+      case Reservation.Event.StudentAvailable e -> state.onEvent(e);
+      case Reservation.Event.StudentUnavailable e -> state.onEvent(e);
+      case Reservation.Event.InstructorWantsTimeSlot e -> state.onEvent(e);
+      case Reservation.Event.InstructorAvailable e -> state.onEvent(e);
+      case Reservation.Event.InstructorUnavailable e -> state.onEvent(e);
+      case Reservation.Event.AircraftWantsTimeSlot e -> state.onEvent(e);
+      case Reservation.Event.AircraftAvailable e -> state.onEvent(e);
+      case Reservation.Event.AircraftUnavailable e -> state.onEvent(e);
+      case Reservation.Event.ReservationConfirmed e -> state.onEvent(e);
+      case Reservation.Event.ReservationCancelled e -> state.onEvent(e);
+      case Reservation.Event.CancelledStudentReservation e -> state.onEvent(e);
+      case Reservation.Event.CancelledInstructorReservation e -> state.onEvent(e);
+      case Reservation.Event.CancelledAircraftReservation e -> state.onEvent(e);
     };
   }
 }
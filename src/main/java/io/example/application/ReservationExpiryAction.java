@@ -0,0 +1,29 @@
+package io.example.application;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import io.example.domain.Reservation;
+
+/** Called by the pending reservation timer that ReservationExpiryConsumer schedules. */
+@ComponentId("reservation-expiry-action")
+public class ReservationExpiryAction extends TimedAction {
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final ComponentClient componentClient;
+
+  public ReservationExpiryAction(ComponentClient componentClient) {
+    this.componentClient = componentClient;
+  }
+
+  public Effect expire(String reservationId) {
+    log.info("Expire reservation: {}", reservationId);
+    var command = new Reservation.Command.ExpireReservation(reservationId);
+    var reservation = componentClient.forEventSourcedEntity(reservationId)
+        .method(ReservationEntity::expireReservation)
+        .invokeAsync(command);
+    return effects().asyncDone(reservation);
+  }
+}
@@ -0,0 +1,63 @@
+package io.example.application;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.typesafe.config.Config;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.domain.Reservation;
+
+/**
+ * Starts a timer for every new reservation that expires it when it is still pending after
+ * wing-plan.reservation.pending-timeout, and deletes the timer once the reservation is confirmed
+ * or cancelled. Expiring a reservation that already left pending is a no-op, so a timer that
+ * fires before it is deleted does no harm.
+ */
+@ComponentId("reservation-expiry-consumer")
+@Consume.FromEventSourcedEntity(ReservationEntity.class)
+public class ReservationExpiryConsumer extends Consumer {
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final ComponentClient componentClient;
+  private final Duration pendingTimeout;
+
+  public ReservationExpiryConsumer(ComponentClient componentClient, Config config) {
+    this.componentClient = componentClient;
+    this.pendingTimeout = config.getDuration("wing-plan.reservation.pending-timeout");
+  }
+
+  public Effect onEvent(Reservation.Event event) {
+    return switch (event) {
+      case Reservation.Event.ReservationCreated e -> startTimer(e.reservationId());
+      case Reservation.Event.ReservationRequested e -> startTimer(e.reservationId());
+      case Reservation.Event.ReservationConfirmed e -> deleteTimer(e.reservationId());
+      case Reservation.Event.ReservationCancelled e -> deleteTimer(e.reservationId());
+      // Ignore other events
+      default -> effects().ignore();
+    };
+  }
+
+  private Effect startTimer(String reservationId) {
+    log.info("Expire reservation {} if still pending in {}", reservationId, pendingTimeout);
+    var timer = timers().createSingleTimer(
+        timerName(reservationId),
+        pendingTimeout,
+        componentClient.forTimedAction()
+            .method(ReservationExpiryAction::expire)
+            .deferred(reservationId));
+    return effects().asyncDone(timer);
+  }
+
+  private Effect deleteTimer(String reservationId) {
+    return effects().asyncDone(timers().delete(timerName(reservationId)));
+  }
+
+  private static String timerName(String reservationId) {
+    return "reservation-expiry-" + reservationId;
+  }
+}
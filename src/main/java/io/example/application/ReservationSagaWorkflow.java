@@ -0,0 +1,132 @@
+package io.example.application;
+
+import static akka.Done.done;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import com.typesafe.config.Config;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.workflow.Workflow;
+import io.example.domain.Reservation;
+import io.example.domain.ReservationSaga;
+import io.example.domain.TimeSlot;
+
+/**
+ * Creates a reservation, requests its three time slots directly and concurrently, and records all
+ * three answers on the reservation in one command. The reservation is confirmed or cancelled after
+ * a few entity round trips instead of two consumer hops per time slot.
+ *
+ * <p>The reservation is created with requestedBySaga set, so ReservationToTimeSlotConsumer does not
+ * request the same time slots again and each time slot receives one request per reservation. The
+ * time slot answers still reach the reservation through TimeSlotToReservationConsumer as well, and
+ * recording them is idempotent. A reservation the workflow fails to complete is expired by
+ * ReservationExpiryConsumer.
+ */
+@ComponentId("reservation-saga")
+public class ReservationSagaWorkflow extends Workflow<ReservationSaga.State> {
+  private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ReservationSagaWorkflow.class);
+  private final ComponentClient componentClient;
+  private final TimeSlotClaims timeSlotClaims;
+
+  public ReservationSagaWorkflow(ComponentClient componentClient, Config config) {
+    this.componentClient = componentClient;
+    this.timeSlotClaims = new TimeSlotClaims(componentClient, config.getDuration("wing-plan.time-slot.hold-ttl"));
+  }
+
+  public Effect<Done> start(Reservation.Command.RequestReservation request) {
+    log.info("{}", request);
+
+    if (currentState() != null) {
+      return effects().reply(done()); // Started again by a retried booking step
+    }
+    return effects()
+        .updateState(ReservationSaga.State.initialState(request))
+        .transitionTo("create-reservation")
+        .thenReply(done());
+  }
+
+  public ReadOnlyEffect<ReservationSaga.State> get() {
+    if (currentState() == null) {
+      return effects().error("Reservation saga not found");
+    }
+    return effects().reply(currentState());
+  }
+
+  @Override
+  public WorkflowDef<ReservationSaga.State> definition() {
+    var createReservation = step("create-reservation")
+        .asyncCall(() -> timed("create-reservation", () -> componentClient.forEventSourcedEntity(currentState().request().reservationId())
+            .method(ReservationEntity::requestReservation)
+            .invokeAsync(currentState().request().bySaga())))
+        .andThen(Done.class, __ -> effects()
+            .updateState(currentState().withStatus(ReservationSaga.Status.claimingTimeSlots))
+            .transitionTo("claim-time-slots"));
+
+    var claimTimeSlots = step("claim-time-slots")
+        .asyncCall(() -> timed("claim-time-slots", () -> claimTimeSlots(currentState().request())))
+        .andThen(Reservation.Command.RecordOutcome.class, outcome -> effects()
+            .updateState(currentState().withStatus(ReservationSaga.Status.recordingOutcome))
+            .transitionTo("record-outcome", outcome));
+
+    var recordOutcome = step("record-outcome")
+        .asyncCall(Reservation.Command.RecordOutcome.class,
+            outcome -> timed("record-outcome", () -> componentClient.forEventSourcedEntity(outcome.reservationId())
+                .method(ReservationEntity::recordOutcome)
+                .invokeAsync(outcome)
+                .thenCompose(__ -> componentClient.forEventSourcedEntity(outcome.reservationId())
+                    .method(ReservationEntity::get)
+                    .invokeAsync())))
+        .andThen(Reservation.State.class, reservation -> {
+          if (reservation.status() == Reservation.Status.confirmed && timeSlotClaims.holdsTimeSlots()) {
+            return effects()
+                .updateState(currentState().withReservationStatus(ReservationSaga.Status.confirmingTimeSlots, reservation.status()))
+                .transitionTo("confirm-time-slots");
+          }
+          return effects()
+              .updateState(currentState().withReservationStatus(ReservationSaga.Status.completed, reservation.status()))
+              .end();
+        });
+
+    // Moves the held time slots to scheduled, ReservationToTimeSlotConsumer does the same when it sees the confirmation
+    var confirmTimeSlots = step("confirm-time-slots")
+        .asyncCall(() -> timed("confirm-time-slots", () -> {
+          var request = currentState().request();
+          var student = timeSlotClaims.confirm(request.studentTimeSlotId(), request.reservationId()).toCompletableFuture();
+          var instructor = timeSlotClaims.confirm(request.instructorTimeSlotId(), request.reservationId()).toCompletableFuture();
+          var aircraft = timeSlotClaims.confirm(request.aircraftTimeSlotId(), request.reservationId()).toCompletableFuture();
+          return CompletableFuture.allOf(student, instructor, aircraft).thenApply(__ -> done());
+        }))
+        .andThen(Done.class, __ -> effects()
+            .updateState(currentState().withStatus(ReservationSaga.Status.completed))
+            .end());
+
+    return workflow()
+        .addStep(createReservation)
+        .addStep(claimTimeSlots)
+        .addStep(recordOutcome)
+        .addStep(confirmTimeSlots);
+  }
+
+  private CompletionStage<Reservation.Command.RecordOutcome> claimTimeSlots(Reservation.Command.RequestReservation request) {
+    var student = timeSlotClaims.claim(TimeSlot.ParticipantType.student, request.studentTimeSlotId(), request.reservationId());
+    var instructor = timeSlotClaims.claim(TimeSlot.ParticipantType.instructor, request.instructorTimeSlotId(), request.reservationId());
+    var aircraft = timeSlotClaims.claim(TimeSlot.ParticipantType.aircraft, request.aircraftTimeSlotId(), request.reservationId());
+    return student
+        .thenCombine(instructor, (s, i) -> new Reservation.Command.RecordOutcome(request.reservationId(), answer(s), answer(i), null))
+        .thenCombine(aircraft, (outcome, a) -> new Reservation.Command.RecordOutcome(
+            outcome.reservationId(), outcome.student(), outcome.instructor(), answer(a)));
+  }
+
+  private static Reservation.ParticipantStatus answer(boolean claimed) {
+    return claimed ? Reservation.ParticipantStatus.available : Reservation.ParticipantStatus.unavailable;
+  }
+
+  private static <T> CompletionStage<T> timed(String step, Supplier<CompletionStage<T>> call) {
+    return Metrics.reservationSagaStepSeconds.time(call, step);
+  }
+}
@@ -1,8 +1,19 @@
 package io.example.application;
 
+import static akka.Done.done;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.typesafe.config.Config;
+
+import akka.Done;
 import akka.javasdk.annotations.ComponentId;
 import akka.javasdk.annotations.Consume;
 import akka.javasdk.client.ComponentClient;
@@ -15,55 +26,56 @@ import io.example.domain.TimeSlot;
 public class ReservationToTimeSlotConsumer extends Consumer {
   private final Logger log = LoggerFactory.getLogger(getClass());
   private final ComponentClient componentClient;
+  private final Duration holdTtl;
 
-  public ReservationToTimeSlotConsumer(ComponentClient componentClient) {
+  public ReservationToTimeSlotConsumer(ComponentClient componentClient, Config config) {
     this.componentClient = componentClient;
+    this.holdTtl = config.getDuration("wing-plan.time-slot.hold-ttl");
   }
 
   public Effect onEvent(Reservation.Event event) {
+    Metrics.recordLag("reservation-timeSlots-consumer", messageContext().metadata());
     return switch (event) {
+      case Reservation.Event.ReservationRequested e -> onEvent(e);
       case Reservation.Event.StudentWantsTimeSlot e -> onEvent(e);
       case Reservation.Event.InstructorWantsTimeSlot e -> onEvent(e);
       case Reservation.Event.AircraftWantsTimeSlot e -> onEvent(e);
       case Reservation.Event.CancelledStudentReservation e -> onEvent(e);
       case Reservation.Event.CancelledInstructorReservation e -> onEvent(e);
       case Reservation.Event.CancelledAircraftReservation e -> onEvent(e);
+      case Reservation.Event.ReservationConfirmed e -> onEvent(e);
       // Ignore other events
       default -> effects().ignore();
     };
   }
 
+  // All three time slots are requested at once, the event is acknowledged when every request has completed
+  private Effect onEvent(Reservation.Event.ReservationRequested event) {
+    if (event.requestedBySaga()) {
+      return effects().ignore(); // ReservationSagaWorkflow requests the time slots itself
+    }
+    log.info("Event: {}", event);
+    return timed(event, () -> {
+      var student = studentRequestsTimeSlot(event.studentTimeSlotId(), event.reservationId()).toCompletableFuture();
+      var instructor = instructorRequestsTimeSlot(event.instructorTimeSlotId(), event.reservationId()).toCompletableFuture();
+      var aircraft = aircraftRequestsTimeSlot(event.aircraftTimeSlotId(), event.reservationId()).toCompletableFuture();
+      return CompletableFuture.allOf(student, instructor, aircraft).thenApply(__ -> done());
+    });
+  }
+
   private Effect onEvent(Reservation.Event.StudentWantsTimeSlot event) {
     log.info("Event: {}", event);
-    var command = new TimeSlot.Command.StudentRequestsTimeSlot(
-        event.timeSlotId(),
-        event.reservationId());
-    var timeSlot = componentClient.forEventSourcedEntity(event.timeSlotId())
-        .method(TimeSlotEntity::studentRequestsTimeSlot)
-        .invokeAsync(command);
-    return effects().asyncDone(timeSlot);
+    return timed(event, () -> studentRequestsTimeSlot(event.timeSlotId(), event.reservationId()));
   }
 
   private Effect onEvent(Reservation.Event.InstructorWantsTimeSlot event) {
     log.info("Event: {}", event);
-    var command = new TimeSlot.Command.InstructorRequestsTimeSlot(
-        event.timeSlotId(),
-        event.reservationId());
-    var timeSlot = componentClient.forEventSourcedEntity(event.timeSlotId())
-        .method(TimeSlotEntity::instructorRequestsTimeSlot)
-        .invokeAsync(command);
-    return effects().asyncDone(timeSlot);
+    return timed(event, () -> instructorRequestsTimeSlot(event.timeSlotId(), event.reservationId()));
   }
 
   private Effect onEvent(Reservation.Event.AircraftWantsTimeSlot event) {
     log.info("Event: {}", event);
-    var command = new TimeSlot.Command.AircraftRequestsTimeSlot(
-        event.timeSlotId(),
-        event.reservationId());
-    var timeSlot = componentClient.forEventSourcedEntity(event.timeSlotId())
-        .method(TimeSlotEntity::aircraftRequestsTimeSlot)
-        .invokeAsync(command);
-    return effects().asyncDone(timeSlot);
+    return timed(event, () -> aircraftRequestsTimeSlot(event.timeSlotId(), event.reservationId()));
   }
 
   private Effect onEvent(Reservation.Event.CancelledStudentReservation event) {
@@ -71,10 +83,9 @@ public class ReservationToTimeSlotConsumer extends Consumer {
     var command = new TimeSlot.Command.CancelTimeSlot(
         event.studentTimeSlotId(),
         event.reservationId());
-    var timeSlot = componentClient.forEventSourcedEntity(event.studentTimeSlotId())
+    return timed(event, () -> componentClient.forEventSourcedEntity(event.studentTimeSlotId())
         .method(TimeSlotEntity::cancelTimeSlot)
-        .invokeAsync(command);
-    return effects().asyncDone(timeSlot);
+        .invokeAsync(command));
   }
 
   private Effect onEvent(Reservation.Event.CancelledInstructorReservation event) {
@@ -82,10 +93,9 @@ public class ReservationToTimeSlotConsumer extends Consumer {
     var command = new TimeSlot.Command.CancelTimeSlot(
         event.instructorTimeSlotId(),
         event.reservationId());
-    var timeSlot = componentClient.forEventSourcedEntity(event.instructorTimeSlotId())
+    return timed(event, () -> componentClient.forEventSourcedEntity(event.instructorTimeSlotId())
         .method(TimeSlotEntity::cancelTimeSlot)
-        .invokeAsync(command);
-    return effects().asyncDone(timeSlot);
+        .invokeAsync(command));
   }
 
   private Effect onEvent(Reservation.Event.CancelledAircraftReservation event) {
@@ -93,9 +103,61 @@ public class ReservationToTimeSlotConsumer extends Consumer {
     var command = new TimeSlot.Command.CancelTimeSlot(
         event.aircraftTimeSlotId(),
         event.reservationId());
-    var timeSlot = componentClient.forEventSourcedEntity(event.aircraftTimeSlotId())
+    return timed(event, () -> componentClient.forEventSourcedEntity(event.aircraftTimeSlotId())
         .method(TimeSlotEntity::cancelTimeSlot)
+        .invokeAsync(command));
+  }
+
+  // The time slots were only held while the reservation was pending, confirming schedules them
+  private Effect onEvent(Reservation.Event.ReservationConfirmed event) {
+    if (holdTtl.isZero()) {
+      return effects().ignore();
+    }
+    log.info("Event: {}", event);
+    return timed(event, () -> componentClient.forEventSourcedEntity(event.reservationId())
+        .method(ReservationEntity::get)
+        .invokeAsync()
+        .thenCompose(reservation -> {
+          var student = confirmTimeSlot(reservation.student().timeSlotId(), event.reservationId()).toCompletableFuture();
+          var instructor = confirmTimeSlot(reservation.instructor().timeSlotId(), event.reservationId()).toCompletableFuture();
+          var aircraft = confirmTimeSlot(reservation.aircraft().timeSlotId(), event.reservationId()).toCompletableFuture();
+          return CompletableFuture.allOf(student, instructor, aircraft).thenApply(__ -> done());
+        }));
+  }
+
+  private CompletionStage<Done> confirmTimeSlot(String timeSlotId, String reservationId) {
+    var command = new TimeSlot.Command.ConfirmTimeSlot(timeSlotId, reservationId);
+    return componentClient.forEventSourcedEntity(timeSlotId)
+        .method(TimeSlotEntity::confirmTimeSlot)
+        .invokeAsync(command);
+  }
+
+  private CompletionStage<Done> studentRequestsTimeSlot(String timeSlotId, String reservationId) {
+    var command = new TimeSlot.Command.StudentRequestsTimeSlot(timeSlotId, reservationId, heldUntil());
+    return componentClient.forEventSourcedEntity(timeSlotId)
+        .method(TimeSlotEntity::studentRequestsTimeSlot)
         .invokeAsync(command);
-    return effects().asyncDone(timeSlot);
+  }
+
+  private CompletionStage<Done> instructorRequestsTimeSlot(String timeSlotId, String reservationId) {
+    var command = new TimeSlot.Command.InstructorRequestsTimeSlot(timeSlotId, reservationId, heldUntil());
+    return componentClient.forEventSourcedEntity(timeSlotId)
+        .method(TimeSlotEntity::instructorRequestsTimeSlot)
+        .invokeAsync(command);
+  }
+
+  private CompletionStage<Done> aircraftRequestsTimeSlot(String timeSlotId, String reservationId) {
+    var command = new TimeSlot.Command.AircraftRequestsTimeSlot(timeSlotId, reservationId, heldUntil());
+    return componentClient.forEventSourcedEntity(timeSlotId)
+        .method(TimeSlotEntity::aircraftRequestsTimeSlot)
+        .invokeAsync(command);
+  }
+
+  private Instant heldUntil() {
+    return holdTtl.isZero() ? null : Instant.now().plus(holdTtl);
+  }
+
+  private Effect timed(Reservation.Event event, Supplier<CompletionStage<Done>> call) {
+    return effects().asyncDone(Metrics.consumerCallSeconds.time(call, "reservation-timeSlots-consumer", event.getClass().getSimpleName()));
   }
 }
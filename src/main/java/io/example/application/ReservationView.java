@@ -0,0 +1,218 @@
+package io.example.application;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.annotations.Query;
+import akka.javasdk.view.TableUpdater;
+import akka.javasdk.view.View;
+import io.example.domain.Reservation;
+
+@ComponentId("reservation_view")
+public class ReservationView extends View {
+  private static final Logger log = LoggerFactory.getLogger(ReservationView.class);
+
+  @Query("""
+      SELECT *
+        FROM reservation_view
+        WHERE reservationId = :reservationId
+          """)
+  public QueryEffect<ReservationRow> getReservation(String reservationId) {
+    return queryResult();
+  }
+
+  // Emits the current row, if any, and then every change to it
+  @Query(value = """
+      SELECT *
+        FROM reservation_view
+        WHERE reservationId = :reservationId
+          """, streamUpdates = true)
+  public QueryStreamEffect<ReservationRow> getReservationUpdates(String reservationId) {
+    return queryStreamResult();
+  }
+
+  @Query("""
+      SELECT * as reservations
+        FROM reservation_view
+        WHERE studentId = :participantId
+          AND reservationTime >= :timeBegin
+          AND reservationTime < :timeEnd
+        ORDER BY reservationTime
+        LIMIT :limit
+          """)
+  public QueryEffect<Reservations> getReservationsByStudentAndTimeRange(ByParticipantAndTimeRange byParticipantAndTimeRange) {
+    log.info("{}", byParticipantAndTimeRange);
+    return queryResult();
+  }
+
+  @Query("""
+      SELECT * as reservations
+        FROM reservation_view
+        WHERE instructorId = :participantId
+          AND reservationTime >= :timeBegin
+          AND reservationTime < :timeEnd
+        ORDER BY reservationTime
+        LIMIT :limit
+          """)
+  public QueryEffect<Reservations> getReservationsByInstructorAndTimeRange(ByParticipantAndTimeRange byParticipantAndTimeRange) {
+    log.info("{}", byParticipantAndTimeRange);
+    return queryResult();
+  }
+
+  @Query("""
+      SELECT * as reservations
+        FROM reservation_view
+        WHERE aircraftId = :participantId
+          AND reservationTime >= :timeBegin
+          AND reservationTime < :timeEnd
+        ORDER BY reservationTime
+        LIMIT :limit
+          """)
+  public QueryEffect<Reservations> getReservationsByAircraftAndTimeRange(ByParticipantAndTimeRange byParticipantAndTimeRange) {
+    log.info("{}", byParticipantAndTimeRange);
+    return queryResult();
+  }
+
+  @Query("""
+      SELECT * as reservations
+        FROM reservation_view
+        WHERE status = :status
+          AND reservationTime >= :timeBegin
+          AND reservationTime < :timeEnd
+        ORDER BY reservationTime
+        LIMIT :limit
+          """)
+  public QueryEffect<Reservations> getReservationsByStatusAndTimeRange(ByStatusAndTimeRange byStatusAndTimeRange) {
+    log.info("{}", byStatusAndTimeRange);
+    return queryResult();
+  }
+
+  // Oldest first, such as pending reservations created more than a few minutes ago
+  @Query("""
+      SELECT * as reservations
+        FROM reservation_view
+        WHERE status = :status
+          AND createdAt < :createdBefore
+        ORDER BY createdAt
+        LIMIT :limit
+          """)
+  public QueryEffect<Reservations> getReservationsByStatusCreatedBefore(ByStatusCreatedBefore byStatusCreatedBefore) {
+    log.info("{}", byStatusCreatedBefore);
+    return queryResult();
+  }
+
+  @Query("""
+      SELECT total_count() AS count
+        FROM reservation_view
+        WHERE status = :status
+          AND reservationTime >= :timeBegin
+          AND reservationTime < :timeEnd
+          """)
+  public QueryEffect<ReservationCount> countReservationsByStatusAndTimeRange(CountByStatusAndTimeRange countByStatusAndTimeRange) {
+    return queryResult();
+  }
+
+  @Consume.FromEventSourcedEntity(ReservationEntity.class)
+  public static class ReservationsById extends TableUpdater<ReservationRow> {
+
+    public Effect<ReservationRow> onEvent(Reservation.Event event) {
+      var state = rowState() == null ? Reservation.State.empty() : rowState().toState();
+      var newState = ReservationEntity.applyEvent(state, event);
+      if (newState.equals(state)) {
+        return effects().ignore(); // Only state transitions are pushed to subscribers
+      }
+      log.info("Event: {}\n_State: {}", event, newState);
+      var createdAt = rowState() == null ? eventTime() : rowState().createdAt();
+      return effects().updateRow(ReservationRow.of(newState, createdAt));
+    }
+
+    private Instant eventTime() {
+      return updateContext().metadata().asCloudEvent().time()
+          .map(ZonedDateTime::toInstant)
+          .orElseGet(Instant::now);
+    }
+  }
+
+  public record ReservationRow(
+      String reservationId,
+      String studentId,
+      String studentTimeSlotId,
+      String studentStatus,
+      String instructorId,
+      String instructorTimeSlotId,
+      String instructorStatus,
+      String aircraftId,
+      String aircraftTimeSlotId,
+      String aircraftStatus,
+      Instant reservationTime,
+      String status,
+      Instant createdAt) {
+
+    public static ReservationRow of(Reservation.State state, Instant createdAt) {
+      return new ReservationRow(
+          state.reservationId(),
+          state.student().participantId(),
+          state.student().timeSlotId(),
+          state.student().status().name(),
+          state.instructor().participantId(),
+          state.instructor().timeSlotId(),
+          state.instructor().status().name(),
+          state.aircraft().participantId(),
+          state.aircraft().timeSlotId(),
+          state.aircraft().status().name(),
+          state.reservationTime(),
+          state.status().name(),
+          createdAt);
+    }
+
+    public Reservation.State toState() {
+      return new Reservation.State(
+          reservationId,
+          participant(studentId, "student", studentTimeSlotId, studentStatus),
+          participant(instructorId, "instructor", instructorTimeSlotId, instructorStatus),
+          participant(aircraftId, "aircraft", aircraftTimeSlotId, aircraftStatus),
+          reservationTime,
+          Reservation.Status.valueOf(status));
+    }
+
+    public boolean isFinal() {
+      return !Reservation.Status.pending.name().equals(status);
+    }
+
+    private static Reservation.Participant participant(String participantId, String participantType, String timeSlotId, String status) {
+      return new Reservation.Participant(participantId, participantType, timeSlotId, Reservation.ParticipantStatus.valueOf(status));
+    }
+  }
+
+  public record Reservations(List<ReservationRow> reservations) {}
+
+  public record ReservationCount(long count) {}
+
+  public record ByParticipantAndTimeRange(
+      String participantId,
+      Instant timeBegin,
+      Instant timeEnd,
+      int limit) {}
+
+  public record ByStatusAndTimeRange(
+      String status,
+      Instant timeBegin,
+      Instant timeEnd,
+      int limit) {}
+
+  public record CountByStatusAndTimeRange(
+      String status,
+      Instant timeBegin,
+      Instant timeEnd) {}
+
+  public record ByStatusCreatedBefore(
+      String status,
+      Instant createdBefore,
+      int limit) {}
+}
@@ -0,0 +1,64 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletionStage;
+
+import akka.Done;
+import akka.javasdk.client.ComponentClient;
+import io.example.domain.TimeSlot;
+
+/**
+ * Requests a time slot for a reservation from a workflow and finds out whether it was accepted. The
+ * request commands reply Done either way, so the time slot is read back afterwards.
+ */
+final class TimeSlotClaims {
+  private final ComponentClient componentClient;
+  private final Duration holdTtl;
+
+  TimeSlotClaims(ComponentClient componentClient, Duration holdTtl) {
+    this.componentClient = componentClient;
+    this.holdTtl = holdTtl;
+  }
+
+  /** True when the time slot is held or scheduled for the reservation after the request. */
+  CompletionStage<Boolean> claim(TimeSlot.ParticipantType participantType, String timeSlotId, String reservationId) {
+    return request(participantType, timeSlotId, reservationId)
+        .thenCompose(__ -> componentClient.forEventSourcedEntity(timeSlotId)
+            .method(TimeSlotEntity::get)
+            .invokeAsync())
+        .thenApply(state -> state.isClaimedBy(reservationId));
+  }
+
+  CompletionStage<Done> release(String timeSlotId, String reservationId) {
+    return componentClient.forEventSourcedEntity(timeSlotId)
+        .method(TimeSlotEntity::cancelTimeSlot)
+        .invokeAsync(new TimeSlot.Command.CancelTimeSlot(timeSlotId, reservationId));
+  }
+
+  CompletionStage<Done> confirm(String timeSlotId, String reservationId) {
+    return componentClient.forEventSourcedEntity(timeSlotId)
+        .method(TimeSlotEntity::confirmTimeSlot)
+        .invokeAsync(new TimeSlot.Command.ConfirmTimeSlot(timeSlotId, reservationId));
+  }
+
+  boolean holdsTimeSlots() {
+    return !holdTtl.isZero();
+  }
+
+  private CompletionStage<Done> request(TimeSlot.ParticipantType participantType, String timeSlotId, String reservationId) {
+    var heldUntil = holdTtl.isZero() ? null : Instant.now().plus(holdTtl);
+    var timeSlot = componentClient.forEventSourcedEntity(timeSlotId);
+    return switch (participantType) {
+      case student -> timeSlot
+          .method(TimeSlotEntity::studentRequestsTimeSlot)
+          .invokeAsync(new TimeSlot.Command.StudentRequestsTimeSlot(timeSlotId, reservationId, heldUntil));
+      case instructor -> timeSlot
+          .method(TimeSlotEntity::instructorRequestsTimeSlot)
+          .invokeAsync(new TimeSlot.Command.InstructorRequestsTimeSlot(timeSlotId, reservationId, heldUntil));
+      case aircraft -> timeSlot
+          .method(TimeSlotEntity::aircraftRequestsTimeSlot)
+          .invokeAsync(new TimeSlot.Command.AircraftRequestsTimeSlot(timeSlotId, reservationId, heldUntil));
+    };
+  }
+}
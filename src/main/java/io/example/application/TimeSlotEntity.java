@@ -2,6 +2,11 @@ package io.example.application;
 
 import static akka.Done.done;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,49 +33,73 @@ public class TimeSlotEntity extends EventSourcedEntity<TimeSlot.State, TimeSlot.
   public Effect<Done> createTimeSlot(TimeSlot.Command.MakeTimeSlotAvailable command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command).stream().toList())
-        .thenReply(newState -> done());
+    return persist(currentState().onCommand(command).stream().toList());
   }
 
   public Effect<Done> makeTimeSlotUnavailable(TimeSlot.Command.MakeTimeSlotUnavailable command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command).stream().toList())
-        .thenReply(newState -> done());
+    return persist(currentState().onCommand(command).stream().toList());
   }
 
   public Effect<Done> studentRequestsTimeSlot(TimeSlot.Command.StudentRequestsTimeSlot command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command).stream().toList())
-        .thenReply(newState -> done());
+    return persistRequest(TimeSlot.ParticipantType.student, currentState().onCommand(command));
   }
 
   public Effect<Done> instructorRequestsTimeSlot(TimeSlot.Command.InstructorRequestsTimeSlot command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command).stream().toList())
-        .thenReply(newState -> done());
+    return persistRequest(TimeSlot.ParticipantType.instructor, currentState().onCommand(command));
   }
 
   public Effect<Done> aircraftRequestsTimeSlot(TimeSlot.Command.AircraftRequestsTimeSlot command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
-    return effects()
-        .persistAll(currentState().onCommand(command).stream().toList())
-        .thenReply(newState -> done());
+    return persistRequest(TimeSlot.ParticipantType.aircraft, currentState().onCommand(command));
   }
 
   public Effect<Done> cancelTimeSlot(TimeSlot.Command.CancelTimeSlot command) {
     log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
 
+    return persist(currentState().onCommand(command).stream().toList());
+  }
+
+  public Effect<Done> confirmTimeSlot(TimeSlot.Command.ConfirmTimeSlot command) {
+    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
+
+    var state = currentState();
+    var events = state.onCommand(command).stream().toList();
+    if (events.isEmpty()) {
+      if (!state.isEmpty() && !state.isClaimedBy(command.reservationId())) {
+        // The hold lapsed and another reservation claimed the time slot before the confirmation arrived
+        log.warn("Time slot {} is no longer held for reservation {}", entityId, command.reservationId());
+        Metrics.timeSlotHoldConfirmations.increment(state.participantType().name(), "lost");
+      }
+      return effects().reply(done());
+    }
     return effects()
-        .persistAll(currentState().onCommand(command).stream().toList())
-        .thenReply(newState -> done());
+        .persistAll(events)
+        .thenReply(newState -> {
+          events.forEach(TimeSlotEntity::record);
+          Metrics.timeSlotHoldConfirmations.increment(state.participantType().name(), "confirmed");
+          Metrics.timeSlotHoldConfirmSeconds.observe(
+              Duration.between(state.heldAt(), Instant.now()).toNanos(), state.participantType().name());
+          return done();
+        });
+  }
+
+  public Effect<Done> lapseHold(TimeSlot.Command.LapseHold command) {
+    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
+
+    return persist(currentState().onCommand(command).stream().toList());
+  }
+
+  public Effect<Done> archiveTimeSlot(TimeSlot.Command.ArchiveTimeSlot command) {
+    log.info("EntityId: {}\n_State: {}\n_Command: {}", entityId, currentState(), command);
+
+    return persist(currentState().onCommand(command).stream().toList());
   }
 
   public ReadOnlyEffect<TimeSlot.State> get() {
@@ -81,18 +110,61 @@ public class TimeSlotEntity extends EventSourcedEntity<TimeSlot.State, TimeSlot.
     return effects().reply(currentState());
   }
 
+  // Replies with the empty state for a time slot that was never made available, so callers can tell
+  // it apart from a failed call
+  public ReadOnlyEffect<TimeSlot.State> getOrEmpty() {
+    return effects().reply(currentState());
+  }
+
+  // A request that changes nothing comes from the reservation that already has the time slot
+  private Effect<Done> persistRequest(TimeSlot.ParticipantType participantType, Optional<TimeSlot.Event> event) {
+    if (event.isEmpty()) {
+      Metrics.timeSlotRequests.increment(participantType.name(), "repeated");
+    }
+    return persist(event.stream().toList());
+  }
+
+  private Effect<Done> persist(List<TimeSlot.Event> events) {
+    return effects()
+        .persistAll(events)
+        .thenReply(newState -> {
+          events.forEach(TimeSlotEntity::record);
+          return done();
+        });
+  }
+
+  private static void record(TimeSlot.Event event) {
+    Metrics.timeSlotEvents.increment(event.getClass().getSimpleName());
+    switch (event) {
+      case TimeSlot.Event.StudentRequestAccepted e -> Metrics.timeSlotRequests.increment("student", "accepted");
+      case TimeSlot.Event.StudentRequestRejected e -> Metrics.timeSlotRequests.increment("student", "rejected");
+      case TimeSlot.Event.InstructorRequestAccepted e -> Metrics.timeSlotRequests.increment("instructor", "accepted");
+      case TimeSlot.Event.InstructorRequestRejected e -> Metrics.timeSlotRequests.increment("instructor", "rejected");
+      case TimeSlot.Event.AircraftRequestAccepted e -> Metrics.timeSlotRequests.increment("aircraft", "accepted");
+      case TimeSlot.Event.AircraftRequestRejected e -> Metrics.timeSlotRequests.increment("aircraft", "rejected");
+      default -> {}
+    }
+  }
+
   @Override
   public TimeSlot.State applyEvent(TimeSlot.Event event) {
+    return applyEvent(currentState(), event);
+  }
+
+  static TimeSlot.State applyEvent(TimeSlot.State state, TimeSlot.Event event) {
     return switch (event) {
-      case TimeSlot.Event.TimeSlotMadeAvailable e -> currentState().onEvent(e);
-      case TimeSlot.Event.TimeSlotMadeUnavailable e -> currentState().onEvent(e);
-      case TimeSlot.Event.TimeSlotReservationCancelled e -> currentState().onEvent(e);
-      case TimeSlot.Event.StudentRequestAccepted e -> currentState().onEvent(e);
-      case TimeSlot.Event.StudentRequestRejected e -> currentState().onEvent(e);
-      case TimeSlot.Event.InstructorRequestAccepted e -> currentState().onEvent(e);
-      case TimeSlot.Event.InstructorRequestRejected e -> currentState().onEvent(e);
-      case TimeSlot.Event.AircraftRequestAccepted e -> currentState().onEvent(e);
-      case TimeSlot.Event.AircraftRequestRejected e -> currentState().onEvent(e);
+      case TimeSlot.Event.TimeSlotMadeAvailable e -> state.onEvent(e);
+      case TimeSlot.Event.TimeSlotMadeUnavailable e -> state.onEvent(e);
+      case TimeSlot.Event.TimeSlotReservationCancelled e -> state.onEvent(e);
+      case TimeSlot.Event.StudentRequestAccepted e -> state.onEvent(e);
+      case TimeSlot.Event.StudentRequestRejected e -> state.onEvent(e);
+      case TimeSlot.Event.InstructorRequestAccepted e -> state.onEvent(e);
+      case TimeSlot.Event.InstructorRequestRejected e -> state.onEvent(e);
+      case TimeSlot.Event.AircraftRequestAccepted e -> state.onEvent(e);
+      case TimeSlot.Event.AircraftRequestRejected e -> state.onEvent(e);
+      case TimeSlot.Event.TimeSlotConfirmed e -> state.onEvent(e);
+      case TimeSlot.Event.TimeSlotHoldLapsed e -> state.onEvent(e);
+      case TimeSlot.Event.TimeSlotArchived e -> state.onEvent(e);
     };
   }
 }
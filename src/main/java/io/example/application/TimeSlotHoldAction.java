@@ -0,0 +1,45 @@
+package io.example.application;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import io.example.domain.TimeSlot;
+
+/**
+ * Called by the hold timer that TimeSlotHoldConsumer schedules. Only the time slot hold lapses, the
+ * reservation is left to its own pending timeout in ReservationExpiryConsumer. A reservation that
+ * already confirmed keeps the time slot, its hold is confirmed instead of lapsed, so a late
+ * confirmation never loses the time slot to another reservation.
+ */
+@ComponentId("time-slot-hold-action")
+public class TimeSlotHoldAction extends TimedAction {
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final ComponentClient componentClient;
+
+  public TimeSlotHoldAction(ComponentClient componentClient) {
+    this.componentClient = componentClient;
+  }
+
+  public Effect lapse(TimeSlot.Command.LapseHold command) {
+    log.info("Lapse hold: {}", command);
+    var done = componentClient.forEventSourcedEntity(command.reservationId())
+        .method(ReservationEntity::getOrEmpty)
+        .invokeAsync()
+        .thenCompose(reservation -> {
+          if (reservation.isConfirmedWith(command.timeSlotId())) {
+            return componentClient.forEventSourcedEntity(command.timeSlotId())
+                .method(TimeSlotEntity::confirmTimeSlot)
+                .invokeAsync(new TimeSlot.Command.ConfirmTimeSlot(command.timeSlotId(), command.reservationId()));
+          }
+          return componentClient.forEventSourcedEntity(command.timeSlotId())
+              .method(TimeSlotEntity::lapseHold)
+              .invokeAsync(command);
+        })
+        .thenApply(__ -> Done.done());
+    return effects().asyncDone(done);
+  }
+}
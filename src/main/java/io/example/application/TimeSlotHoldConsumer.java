@@ -0,0 +1,67 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.domain.TimeSlot;
+
+/**
+ * Starts a timer for every held time slot that fires at its heldUntil, and deletes the timer once
+ * the hold is confirmed, cancelled or lapsed. TimeSlotHoldAction decides what the timer does, a
+ * hold that already ended is left alone, so a timer that fires before it is deleted does no harm.
+ */
+@ComponentId("time-slot-hold-consumer")
+@Consume.FromEventSourcedEntity(TimeSlotEntity.class)
+public class TimeSlotHoldConsumer extends Consumer {
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final ComponentClient componentClient;
+
+  public TimeSlotHoldConsumer(ComponentClient componentClient) {
+    this.componentClient = componentClient;
+  }
+
+  public Effect onEvent(TimeSlot.Event event) {
+    return switch (event) {
+      case TimeSlot.Event.StudentRequestAccepted e -> startTimer(e.timeSlotId(), e.reservationId(), e.heldUntil());
+      case TimeSlot.Event.InstructorRequestAccepted e -> startTimer(e.timeSlotId(), e.reservationId(), e.heldUntil());
+      case TimeSlot.Event.AircraftRequestAccepted e -> startTimer(e.timeSlotId(), e.reservationId(), e.heldUntil());
+      case TimeSlot.Event.TimeSlotConfirmed e -> deleteTimer(e.timeSlotId());
+      case TimeSlot.Event.TimeSlotReservationCancelled e -> deleteTimer(e.timeSlotId());
+      case TimeSlot.Event.TimeSlotHoldLapsed e -> deleteTimer(e.timeSlotId());
+      // Ignore other events
+      default -> effects().ignore();
+    };
+  }
+
+  // Accepted requests without heldUntil schedule the time slot right away, there is no hold to lapse
+  private Effect startTimer(String timeSlotId, String reservationId, Instant heldUntil) {
+    if (heldUntil == null) {
+      return effects().ignore();
+    }
+    var delay = Duration.between(Instant.now(), heldUntil);
+    delay = delay.isNegative() ? Duration.ZERO : delay;
+    log.info("Lapse hold of time slot {} for reservation {} in {}", timeSlotId, reservationId, delay);
+    var timer = timers().createSingleTimer(
+        timerName(timeSlotId),
+        delay,
+        componentClient.forTimedAction()
+            .method(TimeSlotHoldAction::lapse)
+            .deferred(new TimeSlot.Command.LapseHold(timeSlotId, reservationId)));
+    return effects().asyncDone(timer);
+  }
+
+  private Effect deleteTimer(String timeSlotId) {
+    return effects().asyncDone(timers().delete(timerName(timeSlotId)));
+  }
+
+  private static String timerName(String timeSlotId) {
+    return "time-slot-hold-" + timeSlotId;
+  }
+}
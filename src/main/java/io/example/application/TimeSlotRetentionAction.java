@@ -0,0 +1,76 @@
+package io.example.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.typesafe.config.Config;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.timedaction.TimedAction;
+import akka.javasdk.timer.TimerScheduler;
+import io.example.domain.TimeSlot;
+
+/**
+ * Removes time slots that started more than wing-plan.time-slot-view.retention ago from the
+ * TimeSlotView, so the view stays proportional to the scheduling horizon. Each run archives one
+ * batch of the oldest time slots and schedules the next run: right away when the batch was full,
+ * otherwise after the sweep interval. Bootstrap schedules the first run when the service starts.
+ */
+@ComponentId("time-slot-retention-action")
+public class TimeSlotRetentionAction extends TimedAction {
+  public static final String timerName = "time-slot-retention";
+  private static final Duration nextBatchDelay = Duration.ofSeconds(1);
+
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final ComponentClient componentClient;
+  private final Duration retention;
+  private final Duration sweepInterval;
+  private final int batchSize;
+
+  public TimeSlotRetentionAction(ComponentClient componentClient, Config config) {
+    var settings = config.getConfig("wing-plan.time-slot-view");
+    this.componentClient = componentClient;
+    this.retention = settings.getDuration("retention");
+    this.sweepInterval = settings.getDuration("sweep-interval");
+    this.batchSize = settings.getInt("sweep-batch-size");
+  }
+
+  public Effect sweep() {
+    var startedBefore = Instant.now().minus(retention);
+    var swept = componentClient.forView()
+        .method(TimeSlotView::getTimeSlotsStartedBefore)
+        .invokeAsync(new TimeSlotView.StartedBefore(startedBefore, batchSize))
+        .thenCompose(result -> archive(result, startedBefore))
+        .thenCompose(count -> {
+          log.info("Archived {} time slots that started before {}", count, startedBefore);
+          return schedule(timers(), componentClient, count == batchSize ? nextBatchDelay : sweepInterval);
+        });
+    return effects().asyncDone(swept);
+  }
+
+  public static CompletionStage<Done> schedule(TimerScheduler timers, ComponentClient componentClient, Duration delay) {
+    return timers.createSingleTimer(
+        timerName,
+        delay,
+        componentClient.forTimedAction()
+            .method(TimeSlotRetentionAction::sweep)
+            .deferred());
+  }
+
+  private CompletionStage<Integer> archive(TimeSlotView.TimeSlots result, Instant startedBefore) {
+    var archived = result.timeSlots().stream()
+        .map(row -> componentClient.forEventSourcedEntity(row.timeSlotId())
+            .method(TimeSlotEntity::archiveTimeSlot)
+            .invokeAsync(new TimeSlot.Command.ArchiveTimeSlot(row.timeSlotId(), startedBefore))
+            .toCompletableFuture())
+        .toArray(CompletableFuture[]::new);
+    return CompletableFuture.allOf(archived).thenApply(__ -> archived.length);
+  }
+}
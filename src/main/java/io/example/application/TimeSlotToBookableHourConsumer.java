@@ -0,0 +1,67 @@
+package io.example.application;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.domain.BookableHour;
+import io.example.domain.TimeSlot;
+import io.example.domain.TimeSlotKey;
+
+/**
+ * Keeps BookableHourEntity in step with the instructor and aircraft time slots. A time slot made
+ * available, or whose reservation is cancelled or hold lapsed, adds its participant to the hour. A
+ * time slot made unavailable or scheduled removes it. Student time slots are skipped, the hour does
+ * not keep students. Events of time slots whose id is not a "yyyy-MM-dd-HH-type-id" key are
+ * skipped, as the hour cannot be recovered from them.
+ */
+@ComponentId("timeSlot-bookable-hour-consumer")
+@Consume.FromEventSourcedEntity(TimeSlotEntity.class)
+public class TimeSlotToBookableHourConsumer extends Consumer {
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final ComponentClient componentClient;
+
+  public TimeSlotToBookableHourConsumer(ComponentClient componentClient) {
+    this.componentClient = componentClient;
+  }
+
+  public Effect onEvent(TimeSlot.Event event) {
+    return switch (event) {
+      case TimeSlot.Event.TimeSlotMadeAvailable e -> updateAvailability(e.timeSlotId(), true);
+      case TimeSlot.Event.TimeSlotMadeUnavailable e -> updateAvailability(e.timeSlotId(), false);
+      case TimeSlot.Event.StudentRequestAccepted e -> updateAvailability(e.timeSlotId(), false);
+      case TimeSlot.Event.InstructorRequestAccepted e -> updateAvailability(e.timeSlotId(), false);
+      case TimeSlot.Event.AircraftRequestAccepted e -> updateAvailability(e.timeSlotId(), false);
+      case TimeSlot.Event.TimeSlotReservationCancelled e -> updateAvailability(e.timeSlotId(), true);
+      case TimeSlot.Event.TimeSlotHoldLapsed e -> updateAvailability(e.timeSlotId(), true);
+      // Rejected requests do not change a time slot
+      default -> effects().ignore();
+    };
+  }
+
+  private Effect updateAvailability(String timeSlotId, boolean available) {
+    log.info("TimeSlotId: {}, available: {}", timeSlotId, available);
+    var parsed = TimeSlotKey.tryParse(timeSlotId);
+    if (parsed.isEmpty()) {
+      // Retrying would fail the same way forever, the hour of a non canonical id is unknown
+      log.warn("Skipping time slot {}, its id is not a time slot key", timeSlotId);
+      return effects().ignore();
+    }
+    var key = parsed.get();
+    if (key.participantType() == TimeSlot.ParticipantType.student) {
+      return effects().ignore();
+    }
+    var command = new BookableHour.Command.UpdateAvailability(
+        key.participantId(),
+        key.participantType(),
+        key.startTime(),
+        available);
+    var bookableHour = componentClient.forKeyValueEntity(BookableHour.State.entityId(key.startTime()))
+        .method(BookableHourEntity::updateAvailability)
+        .invokeAsync(command);
+    return effects().asyncDone(bookableHour);
+  }
+}
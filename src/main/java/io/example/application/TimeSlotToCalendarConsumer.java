@@ -0,0 +1,166 @@
+package io.example.application;
+
+import java.time.Instant;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.typesafe.config.Config;
+
+import akka.Done;
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.client.ComponentClient;
+import akka.javasdk.consumer.Consumer;
+import io.example.domain.Calendar;
+import io.example.domain.TimeSlot;
+import io.example.domain.TimeSlotKey;
+
+/**
+ * Migration path from TimeSlotEntity to CalendarEntity. When wing-plan.calendar.mirror-time-slots
+ * is enabled, every TimeSlot event, starting with the oldest in the journal, is replayed as the
+ * equivalent command on the participant's calendar. Accepted requests carry their heldUntil, so a
+ * held hour stays held in the calendar until its TimeSlotConfirmed or TimeSlotHoldLapsed event. The
+ * calendar commands are idempotent, so redelivered events leave the calendar unchanged. The calendar
+ * and hour come from the time slot id, so events of time slots whose id is not a time slot key are
+ * skipped. Events ignored while the flag is off are still acknowledged, so a backfill after that
+ * needs a new component id to start from the oldest event.
+ */
+@ComponentId("timeSlot-calendar-consumer")
+@Consume.FromEventSourcedEntity(TimeSlotEntity.class)
+public class TimeSlotToCalendarConsumer extends Consumer {
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final ComponentClient componentClient;
+  private final boolean enabled;
+
+  public TimeSlotToCalendarConsumer(ComponentClient componentClient, Config config) {
+    this.componentClient = componentClient;
+    this.enabled = config.getBoolean("wing-plan.calendar.mirror-time-slots");
+  }
+
+  public Effect onEvent(TimeSlot.Event event) {
+    if (!enabled) {
+      return effects().ignore();
+    }
+    return switch (event) {
+      case TimeSlot.Event.TimeSlotMadeAvailable e -> onEvent(e);
+      case TimeSlot.Event.TimeSlotMadeUnavailable e -> onEvent(e);
+      case TimeSlot.Event.StudentRequestAccepted e -> onEvent(e);
+      case TimeSlot.Event.InstructorRequestAccepted e -> onEvent(e);
+      case TimeSlot.Event.AircraftRequestAccepted e -> onEvent(e);
+      case TimeSlot.Event.TimeSlotReservationCancelled e -> onEvent(e);
+      case TimeSlot.Event.TimeSlotConfirmed e -> onEvent(e);
+      case TimeSlot.Event.TimeSlotHoldLapsed e -> onEvent(e);
+      // Rejected requests do not change a time slot
+      default -> effects().ignore();
+    };
+  }
+
+  private Effect onEvent(TimeSlot.Event.TimeSlotMadeAvailable event) {
+    log.info("Event: {}", event);
+    var command = new TimeSlot.Command.MakeTimeSlotAvailable(
+        event.participantId(),
+        event.participantType(),
+        event.startTime());
+    var calendar = componentClient.forEventSourcedEntity(Calendar.State.entityId(event.participantId(), event.participantType()))
+        .method(CalendarEntity::createTimeSlot)
+        .invokeAsync(command);
+    return effects().asyncDone(calendar);
+  }
+
+  private Effect onEvent(TimeSlot.Event.TimeSlotMadeUnavailable event) {
+    log.info("Event: {}", event);
+    return withKey(event.timeSlotId(), key -> {
+      var command = new TimeSlot.Command.MakeTimeSlotUnavailable(
+          key.participantId(),
+          key.participantType(),
+          key.startTime());
+      return componentClient.forEventSourcedEntity(calendarId(key))
+          .method(CalendarEntity::makeTimeSlotUnavailable)
+          .invokeAsync(command);
+    });
+  }
+
+  private Effect onEvent(TimeSlot.Event.StudentRequestAccepted event) {
+    log.info("Event: {}", event);
+    return requestHour(event.timeSlotId(), event.reservationId(), event.heldUntil());
+  }
+
+  private Effect onEvent(TimeSlot.Event.InstructorRequestAccepted event) {
+    log.info("Event: {}", event);
+    return requestHour(event.timeSlotId(), event.reservationId(), event.heldUntil());
+  }
+
+  private Effect onEvent(TimeSlot.Event.AircraftRequestAccepted event) {
+    log.info("Event: {}", event);
+    return requestHour(event.timeSlotId(), event.reservationId(), event.heldUntil());
+  }
+
+  private Effect onEvent(TimeSlot.Event.TimeSlotReservationCancelled event) {
+    log.info("Event: {}", event);
+    return withKey(event.timeSlotId(), key -> {
+      var command = new Calendar.Command.CancelHour(
+          event.timeSlotId(),
+          event.reservationId(),
+          key.startTime());
+      return componentClient.forEventSourcedEntity(calendarId(key))
+          .method(CalendarEntity::cancelTimeSlot)
+          .invokeAsync(command);
+    });
+  }
+
+  private Effect onEvent(TimeSlot.Event.TimeSlotConfirmed event) {
+    log.info("Event: {}", event);
+    return withKey(event.timeSlotId(), key -> {
+      var command = new Calendar.Command.ConfirmHour(
+          event.timeSlotId(),
+          event.reservationId(),
+          key.startTime());
+      return componentClient.forEventSourcedEntity(calendarId(key))
+          .method(CalendarEntity::confirmTimeSlot)
+          .invokeAsync(command);
+    });
+  }
+
+  private Effect onEvent(TimeSlot.Event.TimeSlotHoldLapsed event) {
+    log.info("Event: {}", event);
+    return withKey(event.timeSlotId(), key -> {
+      var command = new Calendar.Command.LapseHold(
+          event.timeSlotId(),
+          event.reservationId(),
+          key.startTime());
+      return componentClient.forEventSourcedEntity(calendarId(key))
+          .method(CalendarEntity::lapseHold)
+          .invokeAsync(command);
+    });
+  }
+
+  private Effect requestHour(String timeSlotId, String reservationId, Instant heldUntil) {
+    return withKey(timeSlotId, key -> {
+      var command = new Calendar.Command.RequestHour(
+          timeSlotId,
+          reservationId,
+          key.startTime(),
+          heldUntil);
+      return componentClient.forEventSourcedEntity(calendarId(key))
+          .method(CalendarEntity::requestTimeSlot)
+          .invokeAsync(command);
+    });
+  }
+
+  // The calendar and the hour come from the time slot id, which only a time slot key can provide
+  private Effect withKey(String timeSlotId, Function<TimeSlotKey, CompletionStage<Done>> call) {
+    var key = TimeSlotKey.tryParse(timeSlotId);
+    if (key.isEmpty()) {
+      log.warn("Skipping time slot {}, its id is not a time slot key", timeSlotId);
+      return effects().ignore();
+    }
+    return effects().asyncDone(call.apply(key.get()));
+  }
+
+  private static String calendarId(TimeSlotKey key) {
+    return Calendar.State.entityId(key.participantId(), key.participantType());
+  }
+}
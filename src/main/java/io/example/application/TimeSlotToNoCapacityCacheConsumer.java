@@ -0,0 +1,53 @@
+package io.example.application;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import akka.javasdk.annotations.ComponentId;
+import akka.javasdk.annotations.Consume;
+import akka.javasdk.consumer.Consumer;
+import io.example.domain.NoCapacityCache;
+import io.example.domain.TimeSlot;
+import io.example.domain.TimeSlotKey;
+
+/**
+ * Removes the no capacity entry for an hour and participant type when a time slot of that type
+ * becomes available in the hour. The cache is local to each node and this consumer runs on one
+ * node per event, so other nodes keep their entry until the short ttl expires. Events of time slots
+ * whose id is not a "yyyy-MM-dd-HH-type-id" key are skipped.
+ */
+@ComponentId("timeSlot-no-capacity-consumer")
+@Consume.FromEventSourcedEntity(TimeSlotEntity.class)
+public class TimeSlotToNoCapacityCacheConsumer extends Consumer {
+  private final Logger log = LoggerFactory.getLogger(getClass());
+  private final NoCapacityCache noCapacityCache;
+
+  public TimeSlotToNoCapacityCacheConsumer(NoCapacityCache noCapacityCache) {
+    this.noCapacityCache = noCapacityCache;
+  }
+
+  public Effect onEvent(TimeSlot.Event event) {
+    return switch (event) {
+      case TimeSlot.Event.TimeSlotMadeAvailable e -> invalidate(e.timeSlotId());
+      case TimeSlot.Event.TimeSlotReservationCancelled e -> invalidate(e.timeSlotId());
+      case TimeSlot.Event.TimeSlotHoldLapsed e -> invalidate(e.timeSlotId());
+      // Other events do not add capacity
+      default -> effects().ignore();
+    };
+  }
+
+  private Effect invalidate(String timeSlotId) {
+    var parsed = TimeSlotKey.tryParse(timeSlotId);
+    if (parsed.isEmpty()) {
+      // Retrying would fail the same way forever, the ttl still expires the entry
+      log.warn("Skipping time slot {}, its id is not a time slot key", timeSlotId);
+      return effects().ignore();
+    }
+    var key = parsed.get();
+    if (key.participantType() != TimeSlot.ParticipantType.student) {
+      log.debug("Invalidate no capacity: {} {}", key.startTime(), key.participantType());
+      noCapacityCache.invalidate(key.startTime(), key.participantType());
+    }
+    return effects().done();
+  }
+}
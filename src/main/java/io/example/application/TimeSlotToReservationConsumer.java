@@ -1,8 +1,12 @@
 package io.example.application;
 
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import akka.Done;
 import akka.javasdk.annotations.ComponentId;
 import akka.javasdk.annotations.Consume;
 import akka.javasdk.client.ComponentClient;
@@ -21,6 +25,7 @@ public class TimeSlotToReservationConsumer extends Consumer {
   }
 
   public Effect onEvent(TimeSlot.Event event) {
+    Metrics.recordLag("timeSlot-reservation-consumer", messageContext().metadata());
     return switch (event) {
       case TimeSlot.Event.StudentRequestAccepted e -> onEvent(e);
       case TimeSlot.Event.StudentRequestRejected e -> onEvent(e);
@@ -36,54 +41,52 @@ public class TimeSlotToReservationConsumer extends Consumer {
   private Effect onEvent(TimeSlot.Event.StudentRequestAccepted event) {
     log.info("Event: {}", event);
     var command = new Reservation.Command.StudentAvailable(event.reservationId());
-    var reservation = componentClient.forEventSourcedEntity(event.reservationId())
+    return timed(event, () -> componentClient.forEventSourcedEntity(event.reservationId())
         .method(ReservationEntity::studentAvailable)
-        .invokeAsync(command);
-    return effects().asyncDone(reservation);
+        .invokeAsync(command));
   }
 
   private Effect onEvent(TimeSlot.Event.StudentRequestRejected event) {
     log.info("Event: {}", event);
     var command = new Reservation.Command.StudentUnavailable(event.reservationId());
-    var reservation = componentClient.forEventSourcedEntity(event.reservationId())
+    return timed(event, () -> componentClient.forEventSourcedEntity(event.reservationId())
         .method(ReservationEntity::studentUnavailable)
-        .invokeAsync(command);
-    return effects().asyncDone(reservation);
+        .invokeAsync(command));
   }
 
   private Effect onEvent(TimeSlot.Event.InstructorRequestAccepted event) {
     log.info("Event: {}", event);
-    var command = new Reservation.Command.InstructorAvailable(event.reservationId());
-    var reservation = componentClient.forEventSourcedEntity(event.reservationId())
+    var command = new Reservation.Command.InstructorAvailable(event.reservationId(), event.timeSlotId());
+    return timed(event, () -> componentClient.forEventSourcedEntity(event.reservationId())
         .method(ReservationEntity::instructorAvailable)
-        .invokeAsync(command);
-    return effects().asyncDone(reservation);
+        .invokeAsync(command));
   }
 
   private Effect onEvent(TimeSlot.Event.InstructorRequestRejected event) {
     log.info("Event: {}", event);
-    var command = new Reservation.Command.InstructorUnavailable(event.reservationId());
-    var reservation = componentClient.forEventSourcedEntity(event.reservationId())
+    var command = new Reservation.Command.InstructorUnavailable(event.reservationId(), event.timeSlotId());
+    return timed(event, () -> componentClient.forEventSourcedEntity(event.reservationId())
         .method(ReservationEntity::instructorUnavailable)
-        .invokeAsync(command);
-    return effects().asyncDone(reservation);
+        .invokeAsync(command));
   }
 
   private Effect onEvent(TimeSlot.Event.AircraftRequestAccepted event) {
     log.info("Event: {}", event);
-    var command = new Reservation.Command.AircraftAvailable(event.reservationId());
-    var reservation = componentClient.forEventSourcedEntity(event.reservationId())
+    var command = new Reservation.Command.AircraftAvailable(event.reservationId(), event.timeSlotId());
+    return timed(event, () -> componentClient.forEventSourcedEntity(event.reservationId())
         .method(ReservationEntity::aircraftAvailable)
-        .invokeAsync(command);
-    return effects().asyncDone(reservation);
+        .invokeAsync(command));
   }
 
   private Effect onEvent(TimeSlot.Event.AircraftRequestRejected event) {
     log.info("Event: {}", event);
-    var command = new Reservation.Command.AircraftUnavailable(event.reservationId());
-    var reservation = componentClient.forEventSourcedEntity(event.reservationId())
+    var command = new Reservation.Command.AircraftUnavailable(event.reservationId(), event.timeSlotId());
+    return timed(event, () -> componentClient.forEventSourcedEntity(event.reservationId())
         .method(ReservationEntity::aircraftUnavailable)
-        .invokeAsync(command);
-    return effects().asyncDone(reservation);
+        .invokeAsync(command));
+  }
+
+  private Effect timed(TimeSlot.Event event, Supplier<CompletionStage<Done>> call) {
+    return effects().asyncDone(Metrics.consumerCallSeconds.time(call, "timeSlot-reservation-consumer", event.getClass().getSimpleName()));
   }
 }
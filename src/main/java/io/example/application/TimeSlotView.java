@@ -17,16 +17,29 @@ import io.example.domain.TimeSlot;
 public class TimeSlotView extends View {
   private static final Logger log = LoggerFactory.getLogger(TimeSlotView.class);
 
+  // An empty page token starts at the first page
   @Query("""
-      SELECT * as timeSlots
+      SELECT * as timeSlots, next_page_token() AS nextPageToken, has_more() AS hasMore
         FROM time_slot_view
-        LIMIT 1000
+        ORDER BY startTime, timeSlotId
+        OFFSET page_token_offset(:pageToken)
+        LIMIT :pageSize
           """)
-  public QueryEffect<TimeSlots> getAllTimeSlots() {
-    log.info("Getting all time slots");
+  public QueryEffect<TimeSlotsPage> getTimeSlotsPage(PageRequest pageRequest) {
+    log.info("{}", pageRequest);
     return queryResult();
   }
 
+  @Query("""
+      SELECT *
+        FROM time_slot_view
+        ORDER BY startTime, timeSlotId
+          """)
+  public QueryStreamEffect<TimeSlotRow> streamAllTimeSlots() {
+    log.info("Streaming all time slots");
+    return queryStreamResult();
+  }
+
   @Query("""
       SELECT * as timeSlots
         FROM time_slot_view
@@ -39,6 +52,19 @@ public class TimeSlotView extends View {
     return queryResult();
   }
 
+  // Emits the rows in the range and then every row that changes within it
+  @Query(value = """
+      SELECT *
+        FROM time_slot_view
+        WHERE participantType = :participantType
+          AND startTime >= :timeBegin
+          AND startTime < :timeEnd
+          """, streamUpdates = true)
+  public QueryStreamEffect<TimeSlotRow> getTimeSlotUpdatesByParticipantTypeAndTimeRange(ByParticipantTypeAndTimeRange byTypeAndTimeRange) {
+    log.info("{}", byTypeAndTimeRange);
+    return queryStreamResult();
+  }
+
   @Query("""
       SELECT * as timeSlots
         FROM time_slot_view
@@ -51,10 +77,56 @@ public class TimeSlotView extends View {
     return queryResult();
   }
 
+  @Query("""
+      SELECT * as timeSlots
+        FROM time_slot_view
+        WHERE participantType = :participantType
+          AND status = 'available'
+          AND startTime >= :timeBegin
+          AND startTime < :timeEnd
+        ORDER BY startTime, participantId
+        LIMIT :limit
+          """)
+  public QueryEffect<TimeSlots> getAvailableTimeSlotsByParticipantTypeAndTimeRange(AvailableByParticipantTypeAndTimeRange availableByTypeAndTimeRange) {
+    log.info("{}", availableByTypeAndTimeRange);
+    return queryResult();
+  }
+
+  @Query("""
+      SELECT * as timeSlots
+        FROM time_slot_view
+        WHERE participantId = :participantId
+          AND participantType = :participantType
+          AND status = 'available'
+          AND startTime >= :timeBegin
+          AND startTime < :timeEnd
+        ORDER BY startTime
+          """)
+  public QueryEffect<TimeSlots> getAvailableTimeSlotsByParticipantAndTimeRange(ByParticipantAndTimeRange byParticipantAndTimeRange) {
+    return queryResult();
+  }
+
+  // Oldest first, used by TimeSlotRetentionAction to find the time slots to archive
+  @Query("""
+      SELECT * as timeSlots
+        FROM time_slot_view
+        WHERE startTime < :startedBefore
+        ORDER BY startTime
+        LIMIT :limit
+          """)
+  public QueryEffect<TimeSlots> getTimeSlotsStartedBefore(StartedBefore startedBefore) {
+    log.info("{}", startedBefore);
+    return queryResult();
+  }
+
   @Consume.FromEventSourcedEntity(TimeSlotEntity.class)
   public static class TimeSlotsByDate extends TableUpdater<TimeSlotRow> {
 
     public Effect<TimeSlotRow> onEvent(TimeSlot.Event event) {
+      Metrics.recordLag("time_slot_view", updateContext().metadata());
+      if (rowState() == null && !(event instanceof TimeSlot.Event.TimeSlotMadeAvailable)) {
+        return effects().ignore(); // The row was archived, later events must not recreate it
+      }
       return switch (event) {
         case TimeSlot.Event.TimeSlotMadeAvailable e -> effects().updateRow(onEvent(e));
         case TimeSlot.Event.TimeSlotMadeUnavailable e -> effects().updateRow(onEvent(e));
@@ -65,6 +137,9 @@ public class TimeSlotView extends View {
         case TimeSlot.Event.InstructorRequestRejected e -> effects().ignore();
         case TimeSlot.Event.AircraftRequestAccepted e -> effects().updateRow(onEvent(e));
         case TimeSlot.Event.AircraftRequestRejected e -> effects().ignore();
+        case TimeSlot.Event.TimeSlotConfirmed e -> effects().updateRow(onEvent(e));
+        case TimeSlot.Event.TimeSlotHoldLapsed e -> effects().updateRow(onEvent(e));
+        case TimeSlot.Event.TimeSlotArchived e -> effects().deleteRow();
         default -> effects().ignore();
       };
     }
@@ -81,15 +156,16 @@ public class TimeSlotView extends View {
           null);
     }
 
+    // The row keeps its participant and start time, so the time slot is still found by the range queries
     private TimeSlotRow onEvent(TimeSlot.Event.TimeSlotMadeUnavailable event) {
       log.info("Event: {}\n_State: {}", event, rowState());
 
       return new TimeSlotRow(
-          event.timeSlotId(),
-          Instant.EPOCH,
+          rowState().timeSlotId(),
+          rowState().startTime(),
           TimeSlot.Status.unavailable.name(),
-          null,
-          null,
+          rowState().participantId(),
+          rowState().participantType(),
           null);
     }
 
@@ -111,7 +187,7 @@ public class TimeSlotView extends View {
       return new TimeSlotRow(
           rowState().timeSlotId(),
           rowState().startTime(),
-          TimeSlot.Status.scheduled.name(),
+          (event.heldUntil() == null ? TimeSlot.Status.scheduled : TimeSlot.Status.held).name(),
           rowState().participantId(),
           rowState().participantType(),
           event.reservationId());
@@ -123,7 +199,7 @@ public class TimeSlotView extends View {
       return new TimeSlotRow(
           rowState().timeSlotId(),
           rowState().startTime(),
-          TimeSlot.Status.scheduled.name(),
+          (event.heldUntil() == null ? TimeSlot.Status.scheduled : TimeSlot.Status.held).name(),
           rowState().participantId(),
           rowState().participantType(),
           event.reservationId());
@@ -132,6 +208,30 @@ public class TimeSlotView extends View {
     private TimeSlotRow onEvent(TimeSlot.Event.AircraftRequestAccepted event) {
       log.info("Event: {}\n_State: {}", event, rowState());
 
+      return new TimeSlotRow(
+          rowState().timeSlotId(),
+          rowState().startTime(),
+          (event.heldUntil() == null ? TimeSlot.Status.scheduled : TimeSlot.Status.held).name(),
+          rowState().participantId(),
+          rowState().participantType(),
+          event.reservationId());
+    }
+
+    private TimeSlotRow onEvent(TimeSlot.Event.TimeSlotHoldLapsed event) {
+      log.info("Event: {}\n_State: {}", event, rowState());
+
+      return new TimeSlotRow(
+          rowState().timeSlotId(),
+          rowState().startTime(),
+          TimeSlot.Status.available.name(),
+          rowState().participantId(),
+          rowState().participantType(),
+          null);
+    }
+
+    private TimeSlotRow onEvent(TimeSlot.Event.TimeSlotConfirmed event) {
+      log.info("Event: {}\n_State: {}", event, rowState());
+
       return new TimeSlotRow(
           rowState().timeSlotId(),
           rowState().startTime(),
@@ -144,6 +244,10 @@ public class TimeSlotView extends View {
 
   public record TimeSlots(List<TimeSlotRow> timeSlots) {}
 
+  public record TimeSlotsPage(List<TimeSlotRow> timeSlots, String nextPageToken, boolean hasMore) {}
+
+  public record PageRequest(String pageToken, int pageSize) {}
+
   public record TimeSlotRow(
       String timeSlotId,
       Instant startTime,
@@ -157,6 +261,16 @@ public class TimeSlotView extends View {
       Instant timeBegin,
       Instant timeEnd) {}
 
+  public record AvailableByParticipantTypeAndTimeRange(
+      String participantType,
+      Instant timeBegin,
+      Instant timeEnd,
+      int limit) {}
+
+  public record StartedBefore(
+      Instant startedBefore,
+      int limit) {}
+
   public record ByParticipantAndTimeRange(
       String participantId,
       String participantType,
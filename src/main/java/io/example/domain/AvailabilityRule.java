@@ -0,0 +1,136 @@
+package io.example.domain;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface AvailabilityRule {
+  public enum Status {
+    running, // Hours are being made available in batches
+    completed // Every hour of the rule has been processed
+  }
+
+  /**
+   * A weekly availability pattern in UTC, for example weekdays 08:00-17:00 from fromDate through
+   * toDate. An hour is included when it starts at or after startTime and before endTime.
+   */
+  public record Rule(
+      String ruleId,
+      String participantId,
+      TimeSlot.ParticipantType participantType,
+      Set<DayOfWeek> daysOfWeek,
+      LocalTime startTime,
+      LocalTime endTime,
+      LocalDate fromDate,
+      LocalDate toDate) {
+
+    // The span bounds the hours a single rule makes available, and so the time its workflow runs
+    public Optional<String> validate(Duration maxSpan) {
+      if (ruleId == null || participantId == null || participantType == null) {
+        return Optional.of("ruleId, participantId and participantType are required");
+      }
+      if (daysOfWeek == null || daysOfWeek.isEmpty()) {
+        return Optional.of("daysOfWeek must not be empty");
+      }
+      if (startTime == null || endTime == null || !startTime.isBefore(endTime)) {
+        return Optional.of("startTime must be before endTime");
+      }
+      if (fromDate == null || toDate == null || toDate.isBefore(fromDate)) {
+        return Optional.of("toDate must not be before fromDate");
+      }
+      var days = Duration.between(firstHour(), endHour()).toDays();
+      if (days > maxSpan.toDays()) {
+        return Optional.of("fromDate through toDate spans " + days + " days, at most " + maxSpan.toDays() + " are allowed");
+      }
+      return Optional.empty();
+    }
+
+    public Instant firstHour() {
+      return fromDate.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    public Instant endHour() {
+      return toDate.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    public boolean includes(Instant hour) {
+      var dateTime = hour.atZone(ZoneOffset.UTC);
+      var time = dateTime.toLocalTime();
+      return daysOfWeek.contains(dateTime.getDayOfWeek())
+          && !time.isBefore(startTime)
+          && time.isBefore(endTime);
+    }
+
+    /** Up to limit hours of the rule, starting at the given hour. */
+    public List<Instant> hours(Instant from, int limit) {
+      var hours = new ArrayList<Instant>(limit);
+      for (var hour = from; hours.size() < limit && hour.isBefore(endHour()); hour = hour.plus(Duration.ofHours(1))) {
+        if (includes(hour)) {
+          hours.add(hour);
+        }
+      }
+      return hours;
+    }
+
+    public int hourCount() {
+      var count = 0;
+      for (var hour = firstHour(); hour.isBefore(endHour()); hour = hour.plus(Duration.ofHours(1))) {
+        if (includes(hour)) {
+          count++;
+        }
+      }
+      return count;
+    }
+  }
+
+  public record HourResult(Instant startTime, boolean succeeded) {}
+
+  public record BatchResult(List<HourResult> hours) {}
+
+  public record State(
+      Rule rule,
+      Instant nextHour, // Where the next batch starts looking for hours of the rule
+      int totalHours,
+      int succeededHours,
+      List<Instant> failedHours,
+      Status status) {
+
+    public static State initialState(Rule rule) {
+      return new State(rule, rule.firstHour(), rule.hourCount(), 0, List.of(), Status.running);
+    }
+
+    public int processedHours() {
+      return succeededHours + failedHours.size();
+    }
+
+    public List<Instant> nextBatch(int batchSize) {
+      return rule.hours(nextHour, batchSize);
+    }
+
+    public State withBatchResult(BatchResult result) {
+      if (result.hours().isEmpty()) {
+        return new State(rule, rule.endHour(), totalHours, succeededHours, failedHours, Status.completed);
+      }
+      var succeeded = succeededHours;
+      var failed = new ArrayList<>(failedHours);
+      for (var hour : result.hours()) {
+        if (hour.succeeded()) {
+          succeeded++;
+        } else {
+          failed.add(hour.startTime());
+        }
+      }
+      var lastHour = result.hours().get(result.hours().size() - 1).startTime();
+      var newNextHour = lastHour.plus(Duration.ofHours(1));
+      var newStatus = rule.hours(newNextHour, 1).isEmpty() ? Status.completed : Status.running;
+      return new State(rule, newNextHour, totalHours, succeeded, failed, newStatus);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package io.example.domain;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The instructors and aircraft available in one hour, collected from the events of their time slots
+ * that start in that hour. An hour has capacity when at least one instructor and one aircraft are
+ * available. Students are not kept here, each student's available hours are already in their own
+ * time slots, so the state is bounded by the fleet and the instructors rather than the number of
+ * students, and student time slots never write to the hour.
+ */
+public interface BookableHour {
+
+  public record State(
+      Instant startTime,
+      Set<String> instructorIds,
+      Set<String> aircraftIds) {
+
+    public static State empty() {
+      return new State(null, Set.of(), Set.of());
+    }
+
+    public boolean isEmpty() {
+      return startTime == null;
+    }
+
+    // Adding or removing a participant twice has no further effect, so redelivered updates are harmless
+    public State onCommand(Command.UpdateAvailability command) {
+      var newStartTime = isEmpty() ? Instant.ofEpochSecond(TimeSlotKey.epochHour(command.startTime()) * 3600) : startTime;
+      return switch (command.participantType()) {
+        case student -> this;
+        case instructor -> new State(newStartTime, update(instructorIds, command), aircraftIds);
+        case aircraft -> new State(newStartTime, instructorIds, update(aircraftIds, command));
+      };
+    }
+
+    public boolean hasCapacity() {
+      return !instructorIds.isEmpty() && !aircraftIds.isEmpty();
+    }
+
+    public static String entityId(Instant startTime) {
+      return String.valueOf(TimeSlotKey.epochHour(startTime));
+    }
+
+    private static Set<String> update(Set<String> participantIds, Command.UpdateAvailability command) {
+      if (participantIds.contains(command.participantId()) == command.available()) {
+        return participantIds;
+      }
+      var newParticipantIds = new HashSet<>(participantIds);
+      if (command.available()) {
+        newParticipantIds.add(command.participantId());
+      } else {
+        newParticipantIds.remove(command.participantId());
+      }
+      return Set.copyOf(newParticipantIds);
+    }
+  }
+
+  public sealed interface Command {
+    record UpdateAvailability(
+        String participantId,
+        TimeSlot.ParticipantType participantType,
+        Instant startTime,
+        boolean available) implements Command {}
+  }
+}
@@ -1,6 +1,7 @@
 package io.example.domain;
 
 import java.time.Instant;
+import java.util.List;
 
 public interface Booking {
   public enum Status {
@@ -11,6 +12,27 @@ public interface Booking {
     reservationRequested
   }
 
+  public enum LookupMode {
+    sequential, // Query the student, instructor and aircraft time slots one step at a time
+    concurrent, // Query all three time slots at once and evaluate them in a single step
+    matched // Query the student time slot, then get the instructor and aircraft from the node's BookingCoordinator
+  }
+
+  public enum StudentLookup {
+    view, // Find the student's time slot with a TimeSlotView query
+    entity // Read the student's TimeSlotEntity directly by its derived entity id
+  }
+
+  public enum CandidateSelection {
+    first, // The first candidate in start time and participant id order, concurrent bookings all race for it
+    random, // A uniformly random candidate
+    studentHash, // A candidate chosen by the student id hash, so different students spread over the candidates
+    leastSelected // The candidate this node has selected the fewest times, whatever became of those bookings
+  }
+
+  /** An available instructor or aircraft time slot the booking may claim. */
+  record Candidate(String participantId, String timeSlotId) {}
+
   record State(
       String studentId,
       String studentTimeSlotId,
@@ -20,8 +42,11 @@ public interface Booking {
       String aircraftTimeSlotId,
       Instant reservationTime,
       String reservationId,
-      Status status) {
-    public static State initialState(String studentId, Instant reservationTime) {
+      Status status,
+      List<Instant> alternativeHours,
+      CandidateSelection candidateSelection,
+      List<Candidate> instructorCandidates) { // Claimed together when claiming speculatively, the selected one first
+    public static State initialState(String studentId, Instant reservationTime, CandidateSelection candidateSelection) {
       return new State(
           studentId,
           null,
@@ -31,7 +56,10 @@ public interface Booking {
           null,
           reservationTime,
           null,
-          Status.pending);
+          Status.pending,
+          List.of(),
+          candidateSelection,
+          List.of());
     }
 
     public boolean isEmpty() {
@@ -48,7 +76,10 @@ public interface Booking {
           aircraftTimeSlotId,
           reservationTime,
           reservationId,
-          status);
+          status,
+          alternativeHours,
+          candidateSelection,
+          instructorCandidates);
     }
 
     public State withInstructor(String newInstructorId, String newInstructorTimeSlotId) {
@@ -61,7 +92,26 @@ public interface Booking {
           aircraftTimeSlotId,
           reservationTime,
           reservationId,
-          status);
+          status,
+          alternativeHours,
+          candidateSelection,
+          instructorCandidates);
+    }
+
+    public State withInstructorCandidates(List<Candidate> newInstructorCandidates) {
+      return new State(
+          studentId,
+          studentTimeSlotId,
+          instructorId,
+          instructorTimeSlotId,
+          aircraftId,
+          aircraftTimeSlotId,
+          reservationTime,
+          reservationId,
+          status,
+          alternativeHours,
+          candidateSelection,
+          newInstructorCandidates);
     }
 
     public State withAircraftAndReservationId(String newAircraftId, String newAircraftTimeSlotId, String newReservationId) {
@@ -74,7 +124,10 @@ public interface Booking {
           newAircraftTimeSlotId,
           reservationTime,
           newReservationId,
-          status);
+          status,
+          alternativeHours,
+          candidateSelection,
+          instructorCandidates);
     }
 
     public State withStatus(Status newStatus) {
@@ -87,7 +140,26 @@ public interface Booking {
           aircraftTimeSlotId,
           reservationTime,
           reservationId,
-          newStatus);
+          newStatus,
+          alternativeHours,
+          candidateSelection,
+          instructorCandidates);
+    }
+
+    public State withStatus(Status newStatus, List<Instant> newAlternativeHours) {
+      return new State(
+          studentId,
+          studentTimeSlotId,
+          instructorId,
+          instructorTimeSlotId,
+          aircraftId,
+          aircraftTimeSlotId,
+          reservationTime,
+          reservationId,
+          newStatus,
+          newAlternativeHours,
+          candidateSelection,
+          instructorCandidates);
     }
   }
 }
@@ -0,0 +1,80 @@
+package io.example.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns each booking of a batch at most one of its candidates, so that no candidate is assigned
+ * twice and as many bookings as possible get one. This is a maximum bipartite matching, found with
+ * augmenting paths: each booking takes its first free candidate, or moves an earlier booking to
+ * another of that booking's candidates to free one.
+ *
+ * <p>Bookings are matched in list order and try their candidates in list order, so when every
+ * booking has the same candidates the first bookings get the first candidates.
+ */
+public final class BookingMatcher {
+  private BookingMatcher() {}
+
+  /** The candidate assigned to each booking, in booking order, null for bookings left without one. */
+  public static <C> List<C> match(List<List<C>> candidatesByBooking) {
+    var candidates = new ArrayList<C>();
+    var candidateIndexes = new HashMap<C, Integer>();
+    var edges = new int[candidatesByBooking.size()][];
+    for (int booking = 0; booking < edges.length; booking++) {
+      edges[booking] = candidatesByBooking.get(booking).stream()
+          .mapToInt(candidate -> index(candidates, candidateIndexes, candidate))
+          .distinct()
+          .toArray();
+    }
+
+    var bookingOfCandidate = new int[candidates.size()];
+    Arrays.fill(bookingOfCandidate, -1);
+    var visited = new int[candidates.size()];
+    Arrays.fill(visited, -1);
+    for (int booking = 0; booking < edges.length; booking++) {
+      augment(booking, booking, edges, bookingOfCandidate, visited);
+    }
+
+    var assigned = new ArrayList<C>(Collections.nCopies(edges.length, (C) null));
+    for (int candidate = 0; candidate < bookingOfCandidate.length; candidate++) {
+      if (bookingOfCandidate[candidate] >= 0) {
+        assigned.set(bookingOfCandidate[candidate], candidates.get(candidate));
+      }
+    }
+    return assigned;
+  }
+
+  // visited holds the round in which a candidate was last tried, so it is not cleared between bookings.
+  // A free candidate is taken before any other booking is moved, so bookings keep their preferences when they can.
+  private static boolean augment(int booking, int round, int[][] edges, int[] bookingOfCandidate, int[] visited) {
+    for (var candidate : edges[booking]) {
+      if (bookingOfCandidate[candidate] < 0) {
+        visited[candidate] = round;
+        bookingOfCandidate[candidate] = booking;
+        return true;
+      }
+    }
+    for (var candidate : edges[booking]) {
+      if (visited[candidate] == round) {
+        continue;
+      }
+      visited[candidate] = round;
+      if (augment(bookingOfCandidate[candidate], round, edges, bookingOfCandidate, visited)) {
+        bookingOfCandidate[candidate] = booking;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static <C> int index(List<C> candidates, Map<C, Integer> candidateIndexes, C candidate) {
+    return candidateIndexes.computeIfAbsent(candidate, __ -> {
+      candidates.add(candidate);
+      return candidates.size() - 1;
+    });
+  }
+}
@@ -0,0 +1,334 @@
+package io.example.domain;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import akka.javasdk.annotations.TypeName;
+
+/**
+ * One calendar per participant, an alternative to one TimeSlot entity per participant hour.
+ *
+ * <p>Hours are stored as bits in 64-hour words keyed by {@code epochHour / 64}. An hour is
+ * scheduled when its bit is set in {@code scheduled}, available when its bit is set in
+ * {@code available}, and unavailable otherwise. A scheduled hour with an entry in {@code holds} is
+ * held until its reservation confirms it or the hold lapses. Hours are made available and unavailable
+ * with the TimeSlot commands, the other commands are the TimeSlot commands with the hour added. Every
+ * command is accepted or rejected exactly as TimeSlot.State would for the same hour.
+ */
+public interface Calendar {
+  int hoursPerWord = 64;
+
+  public record State(
+      String calendarId,
+      String participantId,
+      TimeSlot.ParticipantType participantType,
+      Map<Long, Long> available, // word index -> bitmap of available hours
+      Map<Long, Long> scheduled, // word index -> bitmap of scheduled hours
+      Map<Long, String> reservations, // epoch hour -> reservation id of a scheduled hour
+      Map<Long, Instant> holds) { // epoch hour -> heldUntil of a held hour
+
+    public State {
+      holds = holds == null ? Map.of() : holds; // Snapshots taken before holds were mirrored
+    }
+
+    public static State empty() {
+      return new State(null, null, null, Map.of(), Map.of(), Map.of(), Map.of());
+    }
+
+    public boolean isEmpty() {
+      return calendarId == null;
+    }
+
+    public TimeSlot.Status status(long epochHour) {
+      if (isSet(scheduled, epochHour)) {
+        return holds.containsKey(epochHour) ? TimeSlot.Status.held : TimeSlot.Status.scheduled;
+      }
+      if (isSet(available, epochHour)) {
+        return TimeSlot.Status.available;
+      }
+      return TimeSlot.Status.unavailable;
+    }
+
+    public TimeSlot.Status status(Instant startTime) {
+      return status(TimeSlotKey.epochHour(startTime));
+    }
+
+    public Optional<String> reservationId(long epochHour) {
+      return Optional.ofNullable(reservations.get(epochHour));
+    }
+
+    public Optional<Event> onCommand(TimeSlot.Command.MakeTimeSlotAvailable command) {
+      if (status(command.startTime()) == TimeSlot.Status.unavailable) {
+        var startTime = TimeSlotKey.of(command.participantId(), command.participantType(), command.startTime()).startTime();
+        return Optional.of(new Event.CalendarHourMadeAvailable(
+            entityId(command.participantId(), command.participantType()),
+            command.participantId(),
+            command.participantType(),
+            startTime));
+      }
+      return Optional.empty();
+    }
+
+    public Optional<Event> onCommand(TimeSlot.Command.MakeTimeSlotUnavailable command) {
+      if (!isEmpty() && status(command.startTime()) == TimeSlot.Status.available) {
+        var startTime = TimeSlotKey.of(command.participantId(), command.participantType(), command.startTime()).startTime();
+        return Optional.of(new Event.CalendarHourMadeUnavailable(calendarId, startTime));
+      }
+      return Optional.empty();
+    }
+
+    public Optional<Event> onCommand(Command.CancelHour command) {
+      var epochHour = TimeSlotKey.epochHour(command.startTime());
+      if (!isEmpty() && isSet(scheduled, epochHour) && command.reservationId().equals(reservations.get(epochHour))) {
+        return Optional.of(new Event.CalendarHourReservationCancelled(
+            calendarId,
+            command.timeSlotId(),
+            command.reservationId(),
+            hourStart(epochHour)));
+      }
+      return Optional.empty();
+    }
+
+    public Optional<Event> onCommand(Command.RequestHour command) {
+      var epochHour = TimeSlotKey.epochHour(command.startTime());
+      if (!isEmpty() && status(epochHour) == TimeSlot.Status.available) {
+        return Optional.of(new Event.CalendarHourRequestAccepted(
+            calendarId,
+            command.timeSlotId(),
+            command.reservationId(),
+            hourStart(epochHour),
+            command.heldUntil()));
+      } else if (isSet(scheduled, epochHour) && command.reservationId().equals(reservations.get(epochHour))) {
+        return Optional.empty(); // Idempotent case - already held or scheduled with same reservation
+      }
+      return Optional.of(new Event.CalendarHourRequestRejected(
+          calendarId,
+          command.timeSlotId(),
+          command.reservationId(),
+          hourStart(epochHour)));
+    }
+
+    public Optional<Event> onCommand(Command.ConfirmHour command) {
+      var epochHour = TimeSlotKey.epochHour(command.startTime());
+      if (!isEmpty() && status(epochHour) == TimeSlot.Status.held
+          && command.reservationId().equals(reservations.get(epochHour))) {
+        return Optional.of(new Event.CalendarHourConfirmed(
+            calendarId,
+            command.timeSlotId(),
+            command.reservationId(),
+            hourStart(epochHour)));
+      }
+      return Optional.empty();
+    }
+
+    public Optional<Event> onCommand(Command.LapseHold command) {
+      var epochHour = TimeSlotKey.epochHour(command.startTime());
+      if (!isEmpty() && status(epochHour) == TimeSlot.Status.held
+          && command.reservationId().equals(reservations.get(epochHour))) {
+        return Optional.of(new Event.CalendarHourHoldLapsed(
+            calendarId,
+            command.timeSlotId(),
+            command.reservationId(),
+            hourStart(epochHour)));
+      }
+      return Optional.empty();
+    }
+
+    public State onEvent(Event.CalendarHourMadeAvailable event) {
+      var epochHour = TimeSlotKey.epochHour(event.startTime());
+      return new State(
+          event.calendarId(),
+          event.participantId(),
+          event.participantType(),
+          with(available, epochHour, true),
+          scheduled,
+          reservations,
+          holds);
+    }
+
+    public State onEvent(Event.CalendarHourMadeUnavailable event) {
+      var epochHour = TimeSlotKey.epochHour(event.startTime());
+      return new State(
+          calendarId,
+          participantId,
+          participantType,
+          with(available, epochHour, false),
+          scheduled,
+          reservations,
+          holds);
+    }
+
+    public State onEvent(Event.CalendarHourRequestAccepted event) {
+      var epochHour = TimeSlotKey.epochHour(event.startTime());
+      var newReservations = new HashMap<>(reservations);
+      newReservations.put(epochHour, event.reservationId());
+      var newHolds = new HashMap<>(holds);
+      if (event.heldUntil() != null) {
+        newHolds.put(epochHour, event.heldUntil());
+      }
+      return new State(
+          calendarId,
+          participantId,
+          participantType,
+          with(available, epochHour, false),
+          with(scheduled, epochHour, true),
+          newReservations,
+          newHolds);
+    }
+
+    public State onEvent(Event.CalendarHourRequestRejected event) {
+      return this;
+    }
+
+    public State onEvent(Event.CalendarHourReservationCancelled event) {
+      return release(TimeSlotKey.epochHour(event.startTime()));
+    }
+
+    public State onEvent(Event.CalendarHourConfirmed event) {
+      var newHolds = new HashMap<>(holds);
+      newHolds.remove(TimeSlotKey.epochHour(event.startTime()));
+      return new State(
+          calendarId,
+          participantId,
+          participantType,
+          available,
+          scheduled,
+          reservations,
+          newHolds);
+    }
+
+    public State onEvent(Event.CalendarHourHoldLapsed event) {
+      return release(TimeSlotKey.epochHour(event.startTime()));
+    }
+
+    // Makes a held or scheduled hour available again
+    private State release(long epochHour) {
+      var newReservations = new HashMap<>(reservations);
+      newReservations.remove(epochHour);
+      var newHolds = new HashMap<>(holds);
+      newHolds.remove(epochHour);
+      return new State(
+          calendarId,
+          participantId,
+          participantType,
+          with(available, epochHour, true),
+          with(scheduled, epochHour, false),
+          newReservations,
+          newHolds);
+    }
+
+    public static String entityId(String participantId, TimeSlot.ParticipantType participantType) {
+      return participantType.name() + "-" + participantId;
+    }
+
+    private static Instant hourStart(long epochHour) {
+      return Instant.ofEpochSecond(epochHour * 3600);
+    }
+
+    private static boolean isSet(Map<Long, Long> bitmap, long epochHour) {
+      var word = bitmap.get(Math.floorDiv(epochHour, hoursPerWord));
+      return word != null && (word & bit(epochHour)) != 0;
+    }
+
+    private static Map<Long, Long> with(Map<Long, Long> bitmap, long epochHour, boolean set) {
+      var index = Math.floorDiv(epochHour, hoursPerWord);
+      var word = bitmap.getOrDefault(index, 0L);
+      var newWord = set ? word | bit(epochHour) : word & ~bit(epochHour);
+      if (newWord == word) {
+        return bitmap;
+      }
+      var newBitmap = new HashMap<>(bitmap);
+      if (newWord == 0) {
+        newBitmap.remove(index);
+      } else {
+        newBitmap.put(index, newWord);
+      }
+      return newBitmap;
+    }
+
+    private static long bit(long epochHour) {
+      return 1L << Math.floorMod(epochHour, hoursPerWord);
+    }
+  }
+
+  /**
+   * The commands for a scheduled hour. They carry the hour as {@code startTime}, the time slot id is
+   * only recorded in the events, so the hour never has to be recovered from an id.
+   */
+  public sealed interface Command {
+    // A null heldUntil schedules the hour instead of holding it
+    record RequestHour(
+        String timeSlotId,
+        String reservationId,
+        Instant startTime,
+        Instant heldUntil) implements Command {}
+
+    record CancelHour(
+        String timeSlotId,
+        String reservationId,
+        Instant startTime) implements Command {}
+
+    record ConfirmHour(
+        String timeSlotId,
+        String reservationId,
+        Instant startTime) implements Command {}
+
+    record LapseHold(
+        String timeSlotId,
+        String reservationId,
+        Instant startTime) implements Command {}
+  }
+
+  public sealed interface Event {
+    @TypeName("CalendarHourMadeAvailable")
+    record CalendarHourMadeAvailable(
+        String calendarId,
+        String participantId,
+        TimeSlot.ParticipantType participantType,
+        Instant startTime) implements Event {}
+
+    @TypeName("CalendarHourMadeUnavailable")
+    record CalendarHourMadeUnavailable(
+        String calendarId,
+        Instant startTime) implements Event {}
+
+    // A null heldUntil schedules the hour instead of holding it
+    @TypeName("CalendarHourRequestAccepted")
+    record CalendarHourRequestAccepted(
+        String calendarId,
+        String timeSlotId,
+        String reservationId,
+        Instant startTime,
+        Instant heldUntil) implements Event {}
+
+    @TypeName("CalendarHourRequestRejected")
+    record CalendarHourRequestRejected(
+        String calendarId,
+        String timeSlotId,
+        String reservationId,
+        Instant startTime) implements Event {}
+
+    @TypeName("CalendarHourReservationCancelled")
+    record CalendarHourReservationCancelled(
+        String calendarId,
+        String timeSlotId,
+        String reservationId,
+        Instant startTime) implements Event {}
+
+    @TypeName("CalendarHourConfirmed")
+    record CalendarHourConfirmed(
+        String calendarId,
+        String timeSlotId,
+        String reservationId,
+        Instant startTime) implements Event {}
+
+    @TypeName("CalendarHourHoldLapsed")
+    record CalendarHourHoldLapsed(
+        String calendarId,
+        String timeSlotId,
+        String reservationId,
+        Instant startTime) implements Event {}
+  }
+}
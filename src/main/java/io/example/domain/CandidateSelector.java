@@ -0,0 +1,57 @@
+package io.example.domain;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Picks one of the available instructor or aircraft time slots for a booking. With the first
+ * candidate every concurrent booking for an hour requests the same time slot, one wins and the
+ * rest are rejected. The other selections spread concurrent bookings over the candidates.
+ *
+ * <p>leastSelected counts the selections made on this node only, not the bookings the candidates
+ * hold. A selection counts whether or not its booking goes on to be confirmed, and other nodes'
+ * selections are not seen. That is enough to spread the bookings a node runs at the same time,
+ * without a query for each candidate's bookings.
+ */
+public class CandidateSelector {
+  private final Map<String, LongAdder> selections = new ConcurrentHashMap<>();
+
+  public <T> T select(Booking.CandidateSelection selection, List<T> candidates, Function<T, String> participantId, String studentId) {
+    var candidate = switch (selection) {
+      case first -> candidates.get(0);
+      case random -> candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+      case studentHash -> candidates.get(Math.floorMod(mix(studentId.hashCode()), candidates.size()));
+      case leastSelected -> leastSelected(candidates, participantId);
+    };
+    if (selection == Booking.CandidateSelection.leastSelected) {
+      selections.computeIfAbsent(participantId.apply(candidate), __ -> new LongAdder()).increment();
+    }
+    return candidate;
+  }
+
+  private <T> T leastSelected(List<T> candidates, Function<T, String> participantId) {
+    var best = candidates.get(0);
+    var bestCount = Long.MAX_VALUE;
+    for (var candidate : candidates) {
+      var count = selections.get(participantId.apply(candidate));
+      var selected = count == null ? 0 : count.sum();
+      if (selected < bestCount) {
+        best = candidate;
+        bestCount = selected;
+      }
+    }
+    return best;
+  }
+
+  // String hash codes of similar ids differ in the low bits only, mixing spreads them over the candidates
+  private static int mix(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    return hash;
+  }
+}
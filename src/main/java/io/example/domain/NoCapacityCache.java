@@ -0,0 +1,89 @@
+package io.example.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers, for a short time, the hours in which a booking found no available instructor or no
+ * available aircraft, so repeated bookings for a fully booked hour can be rejected without starting
+ * a workflow. Entries expire after the ttl and are removed early when a time slot of that type
+ * becomes available in the hour.
+ *
+ * <p>The cache is local to a node and the early removal only reaches the node that consumed the
+ * time slot event, so on every other node an entry can reject bookings for up to the ttl after the
+ * hour gained capacity. The ttl is what bounds that staleness, so it is capped at {@link #maxTtl}.
+ *
+ * <p>Only bookings for a whole hour are cached. Bookings that start within an hour query a range
+ * that spans two hours, so they always run the workflow.
+ */
+public class NoCapacityCache {
+  private static final int cleanupThreshold = 10_000;
+  public static final Duration maxTtl = Duration.ofSeconds(30);
+
+  private final long ttlNanos;
+  private final LongSupplier clock;
+  private final Map<Long, Long> expiries = new ConcurrentHashMap<>(); // TimeSlotKey.pack of the hour and type, to expiry
+
+  public NoCapacityCache(Duration ttl) {
+    this(ttl, System::nanoTime);
+  }
+
+  NoCapacityCache(Duration ttl, LongSupplier clock) {
+    if (ttl.compareTo(maxTtl) > 0) {
+      throw new IllegalArgumentException("No capacity ttl " + ttl + " is longer than " + maxTtl
+          + ", other nodes would reject bookings for that long after capacity is added");
+    }
+    this.ttlNanos = ttl.toNanos();
+    this.clock = clock;
+  }
+
+  public boolean isEnabled() {
+    return ttlNanos > 0;
+  }
+
+  public void put(Instant startTime, TimeSlot.ParticipantType participantType) {
+    if (!isEnabled() || !isWholeHour(startTime)) {
+      return;
+    }
+    var now = clock.getAsLong();
+    if (expiries.size() >= cleanupThreshold) {
+      expiries.values().removeIf(expiry -> expiry - now <= 0);
+    }
+    expiries.put(key(startTime, participantType), now + ttlNanos);
+  }
+
+  public void invalidate(Instant startTime, TimeSlot.ParticipantType participantType) {
+    expiries.remove(key(startTime, participantType));
+  }
+
+  /** The participant type with no capacity in the hour, checked in the order the workflow checks them. */
+  public Optional<TimeSlot.ParticipantType> find(Instant startTime) {
+    if (!isEnabled() || !isWholeHour(startTime)) {
+      return Optional.empty();
+    }
+    var now = clock.getAsLong();
+    for (var participantType : new TimeSlot.ParticipantType[] { TimeSlot.ParticipantType.instructor, TimeSlot.ParticipantType.aircraft }) {
+      var key = key(startTime, participantType);
+      var expiry = expiries.get(key);
+      if (expiry != null) {
+        if (expiry - now > 0) {
+          return Optional.of(participantType);
+        }
+        expiries.remove(key, expiry);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static boolean isWholeHour(Instant startTime) {
+    return startTime.getNano() == 0 && startTime.getEpochSecond() % 3600 == 0;
+  }
+
+  private static long key(Instant startTime, TimeSlot.ParticipantType participantType) {
+    return TimeSlotKey.pack(Math.floorDiv(startTime.getEpochSecond(), 3600), participantType);
+  }
+}
@@ -3,6 +3,7 @@ package io.example.domain;
 import java.security.SecureRandom;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface Reservation {
@@ -45,6 +46,14 @@ public interface Reservation {
       return reservationId == null;
     }
 
+    /** True when the reservation is confirmed and one of its participants uses the time slot. */
+    public boolean isConfirmedWith(String timeSlotId) {
+      return status == Status.confirmed
+          && (timeSlotId.equals(student.timeSlotId())
+              || timeSlotId.equals(instructor.timeSlotId())
+              || timeSlotId.equals(aircraft.timeSlotId()));
+    }
+
     public List<Event> onCommand(Command.CreateReservation command) {
       if (isEmpty()) {
         Instant roundedTime = command.reservationTime.plus(30, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.HOURS);
@@ -73,10 +82,40 @@ public interface Reservation {
       return List.of();
     }
 
+    /**
+     * Same as CreateReservation, but persists a single ReservationRequested event that carries all
+     * three time slot ids instead of ReservationCreated followed by three *WantsTimeSlot events. When
+     * requested by ReservationSagaWorkflow the event says so, and ReservationToTimeSlotConsumer leaves
+     * the time slot requests to the workflow.
+     */
+    public List<Event> onCommand(Command.RequestReservation command) {
+      if (isEmpty()) {
+        Instant roundedTime = command.reservationTime.plus(30, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.HOURS);
+        return List.of(
+            new Event.ReservationRequested(
+                command.reservationId(),
+                command.studentId(),
+                command.studentTimeSlotId(),
+                command.instructorId(),
+                command.instructorTimeSlotId(),
+                command.aircraftId(),
+                command.aircraftTimeSlotId(),
+                roundedTime,
+                Status.pending,
+                command.requestedBySaga()));
+      }
+
+      return List.of();
+    }
+
     public List<Event> onCommand(Command.StudentAvailable command) {
       if (isEmpty() || student.status() != ParticipantStatus.pending) {
         return List.of();
       }
+      if (status == Status.cancelled) {
+        // Accepted after the reservation was cancelled, release the time slot again
+        return List.of(new Event.CancelledStudentReservation(student.timeSlotId(), command.reservationId()));
+      }
 
       var newStudent = new Participant(student.participantId(), student.participantType(), student.timeSlotId(), ParticipantStatus.available);
       return (instructor.status() == ParticipantStatus.available &&
@@ -88,7 +127,7 @@ public interface Reservation {
     }
 
     public List<Event> onCommand(Command.StudentUnavailable command) {
-      if (isEmpty() || student.status() != ParticipantStatus.pending) {
+      if (isEmpty() || student.status() != ParticipantStatus.pending || status == Status.cancelled) {
         return List.of();
       }
 
@@ -101,9 +140,13 @@ public interface Reservation {
     }
 
     public List<Event> onCommand(Command.InstructorAvailable command) {
-      if (isEmpty() || instructor.status() != ParticipantStatus.pending) {
+      if (isEmpty() || instructor.status() != ParticipantStatus.pending || !isFor(instructor, command.timeSlotId())) {
         return List.of();
       }
+      if (status == Status.cancelled) {
+        // Accepted after the reservation was cancelled, release the time slot again
+        return List.of(new Event.CancelledInstructorReservation(instructor.timeSlotId(), command.reservationId()));
+      }
 
       var newInstructor = new Participant(instructor.participantId(), instructor.participantType(), instructor.timeSlotId(), ParticipantStatus.available);
       return (student.status() == ParticipantStatus.available &&
@@ -115,7 +158,7 @@ public interface Reservation {
     }
 
     public List<Event> onCommand(Command.InstructorUnavailable command) {
-      if (isEmpty() || instructor.status() != ParticipantStatus.pending) {
+      if (isEmpty() || instructor.status() != ParticipantStatus.pending || !isFor(instructor, command.timeSlotId()) || status == Status.cancelled) {
         return List.of();
       }
 
@@ -128,9 +171,13 @@ public interface Reservation {
     }
 
     public List<Event> onCommand(Command.AircraftAvailable command) {
-      if (isEmpty() || aircraft.status() != ParticipantStatus.pending) {
+      if (isEmpty() || aircraft.status() != ParticipantStatus.pending || !isFor(aircraft, command.timeSlotId())) {
         return List.of();
       }
+      if (status == Status.cancelled) {
+        // Accepted after the reservation was cancelled, release the time slot again
+        return List.of(new Event.CancelledAircraftReservation(aircraft.timeSlotId(), command.reservationId()));
+      }
 
       var newAircraft = new Participant(aircraft.participantId(), aircraft.participantType(), aircraft.timeSlotId(), ParticipantStatus.available);
       return (student.status() == ParticipantStatus.available &&
@@ -142,7 +189,7 @@ public interface Reservation {
     }
 
     public List<Event> onCommand(Command.AircraftUnavailable command) {
-      if (isEmpty() || aircraft.status() != ParticipantStatus.pending) {
+      if (isEmpty() || aircraft.status() != ParticipantStatus.pending || !isFor(aircraft, command.timeSlotId()) || status == Status.cancelled) {
         return List.of();
       }
 
@@ -154,6 +201,77 @@ public interface Reservation {
           new Event.ReservationCancelled(command.reservationId()));
     }
 
+    /**
+     * Records the answers of all three time slots at once, as collected by ReservationSagaWorkflow.
+     * Participants that already answered through the consumers keep their status, so the two paths
+     * can race without confirming or cancelling twice.
+     */
+    public List<Event> onCommand(Command.RecordOutcome command) {
+      if (isEmpty() || status != Status.pending) {
+        return List.of();
+      }
+
+      var newStudent = answer(student, command.student());
+      var newInstructor = answer(instructor, command.instructor());
+      var newAircraft = answer(aircraft, command.aircraft());
+      var events = new ArrayList<Event>();
+      if (newStudent != student) {
+        events.add(newStudent.status() == ParticipantStatus.available
+            ? new Event.StudentAvailable(reservationId, newStudent)
+            : new Event.StudentUnavailable(reservationId, newStudent));
+      }
+      if (newInstructor != instructor) {
+        events.add(newInstructor.status() == ParticipantStatus.available
+            ? new Event.InstructorAvailable(reservationId, newInstructor)
+            : new Event.InstructorUnavailable(reservationId, newInstructor));
+      }
+      if (newAircraft != aircraft) {
+        events.add(newAircraft.status() == ParticipantStatus.available
+            ? new Event.AircraftAvailable(reservationId, newAircraft)
+            : new Event.AircraftUnavailable(reservationId, newAircraft));
+      }
+
+      if (newStudent.status() == ParticipantStatus.unavailable
+          || newInstructor.status() == ParticipantStatus.unavailable
+          || newAircraft.status() == ParticipantStatus.unavailable) {
+        if (newStudent.status() != ParticipantStatus.unavailable) {
+          events.add(new Event.CancelledStudentReservation(student.timeSlotId(), reservationId));
+        }
+        if (newInstructor.status() != ParticipantStatus.unavailable) {
+          events.add(new Event.CancelledInstructorReservation(instructor.timeSlotId(), reservationId));
+        }
+        if (newAircraft.status() != ParticipantStatus.unavailable) {
+          events.add(new Event.CancelledAircraftReservation(aircraft.timeSlotId(), reservationId));
+        }
+        events.add(new Event.ReservationCancelled(reservationId));
+      } else if (newStudent.status() == ParticipantStatus.available
+          && newInstructor.status() == ParticipantStatus.available
+          && newAircraft.status() == ParticipantStatus.available) {
+        events.add(new Event.ReservationConfirmed(reservationId));
+      }
+      return events;
+    }
+
+    private static Participant answer(Participant participant, ParticipantStatus answer) {
+      if (participant.status() != ParticipantStatus.pending || answer == ParticipantStatus.pending) {
+        return participant;
+      }
+      return new Participant(participant.participantId(), participant.participantType(), participant.timeSlotId(), answer);
+    }
+
+    /** Cancels a reservation that is still pending after its deadline and releases all three time slots. */
+    public List<Event> onCommand(Command.ExpireReservation command) {
+      if (isEmpty() || status() != Status.pending) {
+        return List.of();
+      }
+
+      return List.of(
+          new Event.CancelledStudentReservation(student.timeSlotId(), command.reservationId()),
+          new Event.CancelledInstructorReservation(instructor.timeSlotId(), command.reservationId()),
+          new Event.CancelledAircraftReservation(aircraft.timeSlotId(), command.reservationId()),
+          new Event.ReservationCancelled(command.reservationId()));
+    }
+
     public List<Event> onCommand(Command.CancelReservation command) {
       if (isEmpty() || status() != Status.confirmed) {
         return List.of();
@@ -166,6 +284,12 @@ public interface Reservation {
           new Event.ReservationCancelled(command.reservationId()));
     }
 
+    // Speculative claims send the same reservation id to several time slots, only the one this
+    // reservation holds may answer for the participant. A null time slot id answers for any.
+    private static boolean isFor(Participant participant, String timeSlotId) {
+      return timeSlotId == null || timeSlotId.equals(participant.timeSlotId());
+    }
+
     public State onEvent(Event.ReservationCreated event) {
       return new State(
           event.reservationId(),
@@ -176,6 +300,16 @@ public interface Reservation {
           event.status());
     }
 
+    public State onEvent(Event.ReservationRequested event) {
+      return new State(
+          event.reservationId(),
+          Participant.pending(event.studentId(), TimeSlot.ParticipantType.student.name(), event.studentTimeSlotId()),
+          Participant.pending(event.instructorId(), TimeSlot.ParticipantType.instructor.name(), event.instructorTimeSlotId()),
+          Participant.pending(event.aircraftId(), TimeSlot.ParticipantType.aircraft.name(), event.aircraftTimeSlotId()),
+          event.reservationTime(),
+          event.status());
+    }
+
     public State onEvent(Event.StudentWantsTimeSlot event) {
       return this;
     }
@@ -292,6 +426,36 @@ public interface Reservation {
         String aircraftTimeSlotId,
         Instant reservationTime) implements Command {}
 
+    // requestedBySaga is set by ReservationSagaWorkflow, which requests the time slots itself
+    public record RequestReservation(
+        String reservationId,
+        String studentId,
+        String studentTimeSlotId,
+        String instructorId,
+        String instructorTimeSlotId,
+        String aircraftId,
+        String aircraftTimeSlotId,
+        Instant reservationTime,
+        boolean requestedBySaga) implements Command {
+      public RequestReservation(
+          String reservationId,
+          String studentId,
+          String studentTimeSlotId,
+          String instructorId,
+          String instructorTimeSlotId,
+          String aircraftId,
+          String aircraftTimeSlotId,
+          Instant reservationTime) {
+        this(reservationId, studentId, studentTimeSlotId, instructorId, instructorTimeSlotId, aircraftId, aircraftTimeSlotId,
+            reservationTime, false);
+      }
+
+      public RequestReservation bySaga() {
+        return new RequestReservation(reservationId, studentId, studentTimeSlotId, instructorId, instructorTimeSlotId,
+            aircraftId, aircraftTimeSlotId, reservationTime, true);
+      }
+    }
+
     public record StudentAvailable(
         String reservationId) implements Command {}
 
@@ -299,19 +463,48 @@ public interface Reservation {
         String reservationId) implements Command {}
 
     public record InstructorAvailable(
-        String reservationId) implements Command {}
+        String reservationId,
+        String timeSlotId) implements Command {
+      public InstructorAvailable(String reservationId) {
+        this(reservationId, null);
+      }
+    }
 
     public record InstructorUnavailable(
-        String reservationId) implements Command {}
+        String reservationId,
+        String timeSlotId) implements Command {
+      public InstructorUnavailable(String reservationId) {
+        this(reservationId, null);
+      }
+    }
 
     public record AircraftAvailable(
-        String reservationId) implements Command {}
+        String reservationId,
+        String timeSlotId) implements Command {
+      public AircraftAvailable(String reservationId) {
+        this(reservationId, null);
+      }
+    }
 
     public record AircraftUnavailable(
-        String reservationId) implements Command {}
+        String reservationId,
+        String timeSlotId) implements Command {
+      public AircraftUnavailable(String reservationId) {
+        this(reservationId, null);
+      }
+    }
+
+    public record RecordOutcome(
+        String reservationId,
+        ParticipantStatus student,
+        ParticipantStatus instructor,
+        ParticipantStatus aircraft) implements Command {}
 
     public record CancelReservation(
         String reservationId) implements Command {}
+
+    public record ExpireReservation(
+        String reservationId) implements Command {}
   }
 
   public sealed interface Event {
@@ -326,6 +519,18 @@ public interface Reservation {
         Instant reservationTime,
         Status status) implements Event {}
 
+    public record ReservationRequested(
+        String reservationId,
+        String studentId,
+        String studentTimeSlotId,
+        String instructorId,
+        String instructorTimeSlotId,
+        String aircraftId,
+        String aircraftTimeSlotId,
+        Instant reservationTime,
+        Status status,
+        boolean requestedBySaga) implements Event {}
+
     public record StudentWantsTimeSlot(
         String reservationId,
         String timeSlotId) implements Event {}
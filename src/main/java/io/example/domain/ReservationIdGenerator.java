@@ -0,0 +1,15 @@
+package io.example.domain;
+
+/** Creates the ids of new reservations. */
+public interface ReservationIdGenerator {
+  public enum Kind {
+    random, // Reservation.generateReservationId, 6 random characters
+    timeOrdered // TimeOrderedReservationIdGenerator, unique per node id and sorted by creation time
+  }
+
+  String next();
+
+  static ReservationIdGenerator random() {
+    return Reservation::generateReservationId;
+  }
+}
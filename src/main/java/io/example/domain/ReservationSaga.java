@@ -0,0 +1,38 @@
+package io.example.domain;
+
+/**
+ * The state of a ReservationSagaWorkflow, which requests a reservation's three time slots directly
+ * instead of through the consumers and records their answers on the reservation in one command.
+ */
+public interface ReservationSaga {
+  public enum Mode {
+    consumers, // ReservationToTimeSlotConsumer requests the time slots and TimeSlotToReservationConsumer records the answers
+    workflow // ReservationSagaWorkflow requests the time slots and records the answers, the consumers only relay the answers
+  }
+
+  public enum Status {
+    creatingReservation,
+    claimingTimeSlots,
+    recordingOutcome,
+    confirmingTimeSlots,
+    completed
+  }
+
+  record State(
+      Reservation.Command.RequestReservation request,
+      Status status,
+      Reservation.Status reservationStatus) {
+
+    public static State initialState(Reservation.Command.RequestReservation request) {
+      return new State(request, Status.creatingReservation, Reservation.Status.pending);
+    }
+
+    public State withStatus(Status newStatus) {
+      return new State(request, newStatus, reservationStatus);
+    }
+
+    public State withReservationStatus(Status newStatus, Reservation.Status newReservationStatus) {
+      return new State(request, newStatus, newReservationStatus);
+    }
+  }
+}
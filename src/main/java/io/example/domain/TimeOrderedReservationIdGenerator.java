@@ -0,0 +1,126 @@
+package io.example.domain;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates 13 character ids from a 63 bit value: 41 bits of milliseconds since 2024-01-01, a 12 bit
+ * sequence and a 10 bit node id. The value is written in Crockford base 32 with a fixed width, so ids
+ * sort by creation time as strings.
+ *
+ * <p>The millisecond and sequence are kept together in one counter that only ever increases. When
+ * more than 4096 ids are created in one millisecond, or the clock moves backwards, the counter
+ * carries into the following milliseconds instead of waiting. Ids from one generator are therefore
+ * unique and increasing, and ids from generators with different node ids never collide.
+ *
+ * <p>The counter is not persisted, so a restarted node must not reuse the milliseconds its previous
+ * run carried into. An id is only returned once the clock is at most {@code maxClockLead} behind
+ * it, and a new generator waits out that lead before its first id. Ids from the previous run are
+ * then all earlier than the first id of the new one.
+ */
+public class TimeOrderedReservationIdGenerator implements ReservationIdGenerator {
+  public static final int nodeBits = 10;
+  public static final int maxNodeId = (1 << nodeBits) - 1;
+  public static final Duration defaultMaxClockLead = Duration.ofMillis(100);
+  private static final int sequenceBits = 12;
+  private static final long epochMillis = 1704067200000L; // 2024-01-01T00:00:00Z
+  private static final int length = 13;
+  private static final char[] digits = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+  private final long nodeId;
+  private final long maxClockLead; // Milliseconds
+  private final long firstMillis; // No id is created before this, since the epoch above
+  private final LongSupplier clock;
+  private final LongConsumer sleep;
+  private final AtomicLong lastTick = new AtomicLong();
+
+  public TimeOrderedReservationIdGenerator(int nodeId) {
+    this(nodeId, defaultMaxClockLead);
+  }
+
+  public TimeOrderedReservationIdGenerator(int nodeId, Duration maxClockLead) {
+    this(nodeId, maxClockLead.toMillis(), System::currentTimeMillis, TimeOrderedReservationIdGenerator::sleep);
+  }
+
+  // Without a lead limit, for tests that drive the clock by hand
+  TimeOrderedReservationIdGenerator(int nodeId, LongSupplier clock) {
+    this(nodeId, Long.MAX_VALUE, clock, millis -> {});
+  }
+
+  TimeOrderedReservationIdGenerator(int nodeId, long maxClockLead, LongSupplier clock, LongConsumer sleep) {
+    if (nodeId < 0 || nodeId > maxNodeId) {
+      throw new IllegalArgumentException("Node id must be between 0 and " + maxNodeId + ": " + nodeId);
+    }
+    if (maxClockLead < 0) {
+      throw new IllegalArgumentException("Max clock lead must not be negative: " + maxClockLead);
+    }
+    this.nodeId = nodeId;
+    this.maxClockLead = maxClockLead;
+    this.firstMillis = maxClockLead == Long.MAX_VALUE ? Long.MIN_VALUE : clock.getAsLong() - epochMillis + maxClockLead + 1;
+    this.clock = clock;
+    this.sleep = sleep;
+  }
+
+  @Override
+  public String next() {
+    return format(nextValue());
+  }
+
+  long nextValue() {
+    var now = clock.getAsLong() - epochMillis;
+    while (now < firstMillis) { // Waits out the lead a previous run of this node may have had
+      sleep.accept(firstMillis - now);
+      now = clock.getAsLong() - epochMillis;
+    }
+    var nowTick = now << sequenceBits;
+    var tick = lastTick.updateAndGet(last -> Math.max(last + 1, nowTick));
+    var lead = (tick >> sequenceBits) - now;
+    while (lead > maxClockLead) { // The counter carried too far ahead of the clock
+      sleep.accept(lead - maxClockLead);
+      lead = (tick >> sequenceBits) - (clock.getAsLong() - epochMillis);
+    }
+    return (tick << nodeBits) | nodeId;
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the clock", e);
+    }
+  }
+
+  static String format(long value) {
+    var chars = new char[length];
+    for (int i = length - 1; i >= 0; i--) {
+      chars[i] = digits[(int) (value & 31)];
+      value >>>= 5;
+    }
+    return new String(chars);
+  }
+
+  /** Milliseconds since the epoch at which the id was created, or later if the counter carried. */
+  public static long timestamp(String id) {
+    var value = 0L;
+    for (int i = 0; i < id.length(); i++) {
+      var digit = indexOf(id.charAt(i));
+      if (digit < 0) {
+        throw new IllegalArgumentException("Invalid reservation id: " + id);
+      }
+      value = (value << 5) | digit;
+    }
+    return (value >>> (nodeBits + sequenceBits)) + epochMillis;
+  }
+
+  private static int indexOf(char c) {
+    for (int i = 0; i < digits.length; i++) {
+      if (digits[i] == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
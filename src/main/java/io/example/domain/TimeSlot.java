@@ -1,7 +1,6 @@
 package io.example.domain;
 
 import java.time.Instant;
-import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.Optional;
 
@@ -17,7 +16,9 @@ public interface TimeSlot {
   public enum Status {
     available, // Participant has declared availability for this time slot
     unavailable, // Participant has declared they are not available
-    scheduled // Participant is confirmed for a reservation in this time slot
+    held, // Claimed by a pending reservation until it is confirmed, cancelled or the hold lapses after heldUntil
+    scheduled, // Participant is confirmed for a reservation in this time slot
+    archived // Removed from the view by the retention sweep, no longer changes
   }
 
   public record State(
@@ -26,10 +27,12 @@ public interface TimeSlot {
       ParticipantType participantType, // Type of participant (student, instructor, aircraft)
       Instant startTime, // Start time of the time slot slot
       Status status, // Current status of this time slot
-      String reservationId) {
+      String reservationId,
+      Instant heldAt, // When a held time slot was claimed, null unless held
+      Instant heldUntil) { // When a held time slot lapses, null unless held
 
     public static State empty() {
-      return new State(null, null, null, Instant.EPOCH, Status.available, null);
+      return new State(null, null, null, Instant.EPOCH, Status.available, null, null, null);
     }
 
     public boolean isEmpty() {
@@ -58,7 +61,7 @@ public interface TimeSlot {
     }
 
     public Optional<Event> onCommand(Command.CancelTimeSlot command) {
-      if (!isEmpty() && status == Status.scheduled
+      if (!isEmpty() && (status == Status.scheduled || status == Status.held)
           && command.reservationId.equals(reservationId)) {
         return Optional.of(new Event.TimeSlotReservationCancelled(
             command.timeSlotId,
@@ -68,12 +71,18 @@ public interface TimeSlot {
     }
 
     public Optional<Event> onCommand(Command.StudentRequestsTimeSlot command) {
-      if (!isEmpty() && status == Status.available) {
+      return onCommand(command, Instant.now());
+    }
+
+    public Optional<Event> onCommand(Command.StudentRequestsTimeSlot command, Instant now) {
+      if (isClaimedBy(command.reservationId)) {
+        return Optional.empty(); // Idempotent case - already held or scheduled with same reservation
+      } else if (isClaimable()) {
         return Optional.of(new Event.StudentRequestAccepted(
             command.timeSlotId,
-            command.reservationId));
-      } else if (status == Status.scheduled && command.reservationId.equals(reservationId)) {
-        return Optional.empty(); // Idempotent case - already scheduled with same reservation
+            command.reservationId,
+            command.heldUntil == null ? null : now,
+            command.heldUntil));
       }
       return Optional.of(new Event.StudentRequestRejected(
           command.timeSlotId,
@@ -81,12 +90,18 @@ public interface TimeSlot {
     }
 
     public Optional<Event> onCommand(Command.InstructorRequestsTimeSlot command) {
-      if (!isEmpty() && status == Status.available) {
+      return onCommand(command, Instant.now());
+    }
+
+    public Optional<Event> onCommand(Command.InstructorRequestsTimeSlot command, Instant now) {
+      if (isClaimedBy(command.reservationId)) {
+        return Optional.empty(); // Idempotent case - already held or scheduled with same reservation
+      } else if (isClaimable()) {
         return Optional.of(new Event.InstructorRequestAccepted(
             command.timeSlotId,
-            command.reservationId));
-      } else if (status == Status.scheduled && command.reservationId.equals(reservationId)) {
-        return Optional.empty(); // Idempotent case
+            command.reservationId,
+            command.heldUntil == null ? null : now,
+            command.heldUntil));
       }
       return Optional.of(new Event.InstructorRequestRejected(
           command.timeSlotId,
@@ -94,18 +109,60 @@ public interface TimeSlot {
     }
 
     public Optional<Event> onCommand(Command.AircraftRequestsTimeSlot command) {
-      if (!isEmpty() && status == Status.available) {
+      return onCommand(command, Instant.now());
+    }
+
+    public Optional<Event> onCommand(Command.AircraftRequestsTimeSlot command, Instant now) {
+      if (isClaimedBy(command.reservationId)) {
+        return Optional.empty(); // Idempotent case - already held or scheduled with same reservation
+      } else if (isClaimable()) {
         return Optional.of(new Event.AircraftRequestAccepted(
             command.timeSlotId,
-            command.reservationId));
-      } else if (status == Status.scheduled && command.reservationId.equals(reservationId)) {
-        return Optional.empty(); // Idempotent case
+            command.reservationId,
+            command.heldUntil == null ? null : now,
+            command.heldUntil));
       }
       return Optional.of(new Event.AircraftRequestRejected(
           command.timeSlotId,
           command.reservationId));
     }
 
+    public Optional<Event> onCommand(Command.ConfirmTimeSlot command) {
+      if (!isEmpty() && status == Status.held && command.reservationId.equals(reservationId)) {
+        return Optional.of(new Event.TimeSlotConfirmed(
+            command.timeSlotId,
+            command.reservationId));
+      }
+      return Optional.empty();
+    }
+
+    // Sent by the hold timer once heldUntil has passed, after the reservation can no longer confirm the time slot
+    public Optional<Event> onCommand(Command.LapseHold command) {
+      if (!isEmpty() && status == Status.held && command.reservationId.equals(reservationId)) {
+        return Optional.of(new Event.TimeSlotHoldLapsed(
+            command.timeSlotId,
+            command.reservationId));
+      }
+      return Optional.empty();
+    }
+
+    // A held time slot stays claimed until the hold lapses, so it is never taken from a reservation that confirms late
+    public boolean isClaimable() {
+      return !isEmpty() && status == Status.available;
+    }
+
+    public boolean isClaimedBy(String reservationId) {
+      return (status == Status.held || status == Status.scheduled) && reservationId.equals(this.reservationId);
+    }
+
+    // Only hours that started before the cutoff are archived, so a delayed command cannot archive a live time slot
+    public Optional<Event> onCommand(Command.ArchiveTimeSlot command) {
+      if (!isEmpty() && status != Status.archived && startTime.isBefore(command.startedBefore())) {
+        return Optional.of(new Event.TimeSlotArchived(timeSlotId));
+      }
+      return Optional.empty();
+    }
+
     public State onEvent(Event.TimeSlotMadeAvailable event) {
       var timeSlotId = entityId(event.participantId, event.participantType, event.startTime);
       return new State(
@@ -114,6 +171,8 @@ public interface TimeSlot {
           event.participantType,
           event.startTime,
           Status.available,
+          null,
+          null,
           null);
     }
 
@@ -124,6 +183,8 @@ public interface TimeSlot {
           participantType,
           startTime,
           Status.unavailable,
+          null,
+          null,
           null);
     }
 
@@ -134,6 +195,8 @@ public interface TimeSlot {
           participantType,
           startTime,
           Status.available,
+          null,
+          null,
           null);
     }
 
@@ -143,8 +206,10 @@ public interface TimeSlot {
           participantId,
           participantType,
           startTime,
-          Status.scheduled,
-          event.reservationId);
+          event.heldUntil == null ? Status.scheduled : Status.held,
+          event.reservationId,
+          event.heldAt,
+          event.heldUntil);
     }
 
     public State onEvent(Event.StudentRequestRejected event) {
@@ -157,8 +222,10 @@ public interface TimeSlot {
           participantId,
           participantType,
           startTime,
-          Status.scheduled,
-          event.reservationId);
+          event.heldUntil == null ? Status.scheduled : Status.held,
+          event.reservationId,
+          event.heldAt,
+          event.heldUntil);
     }
 
     public State onEvent(Event.InstructorRequestRejected event) {
@@ -171,21 +238,55 @@ public interface TimeSlot {
           participantId,
           participantType,
           startTime,
-          Status.scheduled,
-          event.reservationId);
+          event.heldUntil == null ? Status.scheduled : Status.held,
+          event.reservationId,
+          event.heldAt,
+          event.heldUntil);
     }
 
     public State onEvent(Event.AircraftRequestRejected event) {
       return this;
     }
 
+    public State onEvent(Event.TimeSlotConfirmed event) {
+      return new State(
+          timeSlotId,
+          participantId,
+          participantType,
+          startTime,
+          Status.scheduled,
+          reservationId,
+          null,
+          null);
+    }
+
+    public State onEvent(Event.TimeSlotHoldLapsed event) {
+      return new State(
+          timeSlotId,
+          participantId,
+          participantType,
+          startTime,
+          Status.available,
+          null,
+          null,
+          null);
+    }
+
+    // The entity keeps its participant and reservation, an archived time slot accepts no further changes
+    public State onEvent(Event.TimeSlotArchived event) {
+      return new State(
+          timeSlotId,
+          participantId,
+          participantType,
+          startTime,
+          Status.archived,
+          reservationId,
+          null,
+          null);
+    }
+
     public static String entityId(String participantId, ParticipantType participantType, Instant startTime) {
-      var roundedTime = startTime.plus(30, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.HOURS);
-      var year = roundedTime.atZone(ZoneOffset.UTC).getYear();
-      var month = roundedTime.atZone(ZoneOffset.UTC).getMonthValue();
-      var day = roundedTime.atZone(ZoneOffset.UTC).getDayOfMonth();
-      var hour = roundedTime.atZone(ZoneOffset.UTC).getHour();
-      return "%d-%02d-%02d-%02d-%s-%s".formatted(year, month, day, hour, participantType.name(), participantId);
+      return TimeSlotKey.format(participantId, participantType, startTime);
     }
   }
 
@@ -204,17 +305,47 @@ public interface TimeSlot {
         String timeSlotId,
         String reservationId) implements Command {}
 
+    // A null heldUntil schedules the time slot right away instead of holding it
     record StudentRequestsTimeSlot(
         String timeSlotId,
-        String reservationId) implements Command {}
+        String reservationId,
+        Instant heldUntil) implements Command {
+      public StudentRequestsTimeSlot(String timeSlotId, String reservationId) {
+        this(timeSlotId, reservationId, null);
+      }
+    }
 
+    // A null heldUntil schedules the time slot right away instead of holding it
     record InstructorRequestsTimeSlot(
         String timeSlotId,
-        String reservationId) implements Command {}
+        String reservationId,
+        Instant heldUntil) implements Command {
+      public InstructorRequestsTimeSlot(String timeSlotId, String reservationId) {
+        this(timeSlotId, reservationId, null);
+      }
+    }
 
+    // A null heldUntil schedules the time slot right away instead of holding it
     record AircraftRequestsTimeSlot(
+        String timeSlotId,
+        String reservationId,
+        Instant heldUntil) implements Command {
+      public AircraftRequestsTimeSlot(String timeSlotId, String reservationId) {
+        this(timeSlotId, reservationId, null);
+      }
+    }
+
+    record ConfirmTimeSlot(
+        String timeSlotId,
+        String reservationId) implements Command {}
+
+    record LapseHold(
         String timeSlotId,
         String reservationId) implements Command {}
+
+    record ArchiveTimeSlot(
+        String timeSlotId,
+        Instant startedBefore) implements Command {}
   }
 
   public sealed interface Event {
@@ -232,7 +363,13 @@ public interface TimeSlot {
     @TypeName("StudentRequestAccepted")
     record StudentRequestAccepted(
         String timeSlotId,
-        String reservationId) implements Event {}
+        String reservationId,
+        Instant heldAt,
+        Instant heldUntil) implements Event {
+      public StudentRequestAccepted(String timeSlotId, String reservationId) {
+        this(timeSlotId, reservationId, null, null);
+      }
+    }
 
     @TypeName("StudentRequestRejected")
     record StudentRequestRejected(
@@ -242,7 +379,13 @@ public interface TimeSlot {
     @TypeName("InstructorRequestAccepted")
     record InstructorRequestAccepted(
         String timeSlotId,
-        String reservationId) implements Event {}
+        String reservationId,
+        Instant heldAt,
+        Instant heldUntil) implements Event {
+      public InstructorRequestAccepted(String timeSlotId, String reservationId) {
+        this(timeSlotId, reservationId, null, null);
+      }
+    }
 
     @TypeName("InstructorRequestRejected")
     record InstructorRequestRejected(
@@ -252,7 +395,13 @@ public interface TimeSlot {
     @TypeName("AircraftRequestAccepted")
     record AircraftRequestAccepted(
         String timeSlotId,
-        String reservationId) implements Event {}
+        String reservationId,
+        Instant heldAt,
+        Instant heldUntil) implements Event {
+      public AircraftRequestAccepted(String timeSlotId, String reservationId) {
+        this(timeSlotId, reservationId, null, null);
+      }
+    }
 
     @TypeName("AircraftRequestRejected")
     record AircraftRequestRejected(
@@ -263,5 +412,19 @@ public interface TimeSlot {
     record TimeSlotReservationCancelled(
         String timeSlotId,
         String reservationId) implements Event {}
+
+    @TypeName("TimeSlotConfirmed")
+    record TimeSlotConfirmed(
+        String timeSlotId,
+        String reservationId) implements Event {}
+
+    @TypeName("TimeSlotHoldLapsed")
+    record TimeSlotHoldLapsed(
+        String timeSlotId,
+        String reservationId) implements Event {}
+
+    @TypeName("TimeSlotArchived")
+    record TimeSlotArchived(
+        String timeSlotId) implements Event {}
   }
 }
@@ -0,0 +1,185 @@
+package io.example.domain;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Compact form of a time slot entity id.
+ *
+ * <p>The epoch hour and participant type are packed into a single long, the participant id is kept
+ * as a reference. The string form is the "yyyy-MM-dd-HH-type-id" entity id used by
+ * {@link TimeSlot.State#entityId}. Formatting and parsing work on the UTC civil date directly, so no
+ * intermediate ZonedDateTime or formatter objects are created.
+ */
+public record TimeSlotKey(long packed, String participantId) {
+  private static final int typeBits = 2;
+  private static final long typeMask = (1L << typeBits) - 1;
+  private static final TimeSlot.ParticipantType[] participantTypes = TimeSlot.ParticipantType.values();
+
+  public static TimeSlotKey of(String participantId, TimeSlot.ParticipantType participantType, Instant startTime) {
+    return new TimeSlotKey(pack(epochHour(startTime), participantType), participantId);
+  }
+
+  public static long pack(long epochHour, TimeSlot.ParticipantType participantType) {
+    return (epochHour << typeBits) | participantType.ordinal();
+  }
+
+  /** The start time rounded to the nearest hour, the same rounding TimeSlot.State applies. */
+  public static long epochHour(Instant startTime) {
+    return Math.floorDiv(startTime.getEpochSecond() + 1800, 3600);
+  }
+
+  public long epochHour() {
+    return packed >> typeBits;
+  }
+
+  public TimeSlot.ParticipantType participantType() {
+    return participantTypes[(int) (packed & typeMask)];
+  }
+
+  public Instant startTime() {
+    return Instant.ofEpochSecond(epochHour() * 3600);
+  }
+
+  public String format() {
+    return format(epochHour(), participantType(), participantId);
+  }
+
+  public static String format(String participantId, TimeSlot.ParticipantType participantType, Instant startTime) {
+    return format(epochHour(startTime), participantType, participantId);
+  }
+
+  private static String format(long epochHour, TimeSlot.ParticipantType participantType, String participantId) {
+    var days = Math.floorDiv(epochHour, 24);
+    var hour = (int) Math.floorMod(epochHour, 24);
+
+    // Civil date from days since 1970-01-01, see http://howardhinnant.github.io/date_algorithms.html
+    var z = days + 719468;
+    var era = (z >= 0 ? z : z - 146096) / 146097;
+    var doe = z - era * 146097;
+    var yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+    var doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+    var mp = (5 * doy + 2) / 153;
+    var day = (int) (doy - (153 * mp + 2) / 5 + 1);
+    var month = (int) (mp < 10 ? mp + 3 : mp - 9);
+    var year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+    var typeName = participantType.name();
+    var yearDigits = digits(year);
+    var length = yearDigits + 10 + typeName.length() + 1 + participantId.length();
+    var chars = new char[length];
+
+    var pos = writeYear(chars, year, yearDigits);
+    chars[pos++] = '-';
+    pos = writeTwoDigits(chars, pos, month);
+    chars[pos++] = '-';
+    pos = writeTwoDigits(chars, pos, day);
+    chars[pos++] = '-';
+    pos = writeTwoDigits(chars, pos, hour);
+    chars[pos++] = '-';
+    typeName.getChars(0, typeName.length(), chars, pos);
+    pos += typeName.length();
+    chars[pos++] = '-';
+    participantId.getChars(0, participantId.length(), chars, pos);
+    return new String(chars);
+  }
+
+  /**
+   * The key of a time slot id, or empty when the id is not in the "yyyy-MM-dd-HH-type-id" form. Time
+   * slot entity ids are chosen by the caller, so consumers use this rather than {@link #parse}.
+   */
+  public static Optional<TimeSlotKey> tryParse(String timeSlotId) {
+    if (timeSlotId == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(parse(timeSlotId));
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  public static TimeSlotKey parse(String timeSlotId) {
+    var length = timeSlotId.length();
+    var yearEnd = timeSlotId.indexOf('-');
+    if (yearEnd < 1 || length < yearEnd + 10) {
+      throw new IllegalArgumentException("Invalid time slot id: " + timeSlotId);
+    }
+    var year = parseNumber(timeSlotId, 0, yearEnd);
+    var month = parseNumber(timeSlotId, yearEnd + 1, yearEnd + 3);
+    var day = parseNumber(timeSlotId, yearEnd + 4, yearEnd + 6);
+    var hour = parseNumber(timeSlotId, yearEnd + 7, yearEnd + 9);
+    if (timeSlotId.charAt(yearEnd + 3) != '-' || timeSlotId.charAt(yearEnd + 6) != '-' || timeSlotId.charAt(yearEnd + 9) != '-'
+        || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || hour > 23) {
+      throw new IllegalArgumentException("Invalid time slot id: " + timeSlotId);
+    }
+
+    var typeStart = yearEnd + 10;
+    for (var participantType : participantTypes) {
+      var typeName = participantType.name();
+      var idStart = typeStart + typeName.length() + 1;
+      if (idStart <= length
+          && timeSlotId.regionMatches(typeStart, typeName, 0, typeName.length())
+          && timeSlotId.charAt(idStart - 1) == '-') {
+        var epochHour = daysFromCivil(year, month, day) * 24 + hour;
+        return new TimeSlotKey(pack(epochHour, participantType), timeSlotId.substring(idStart));
+      }
+    }
+    throw new IllegalArgumentException("Invalid time slot id: " + timeSlotId);
+  }
+
+  private static int daysInMonth(long year, int month) {
+    return switch (month) {
+      case 2 -> year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+      case 4, 6, 9, 11 -> 30;
+      default -> 31;
+    };
+  }
+
+  private static long daysFromCivil(long year, int month, int day) {
+    var y = month <= 2 ? year - 1 : year;
+    var era = (y >= 0 ? y : y - 399) / 400;
+    var yoe = y - era * 400;
+    var doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    var doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+    return era * 146097 + doe - 719468;
+  }
+
+  private static int parseNumber(String text, int begin, int end) {
+    var value = 0;
+    for (int i = begin; i < end; i++) {
+      var digit = text.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        throw new IllegalArgumentException("Invalid time slot id: " + text);
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private static int digits(long year) {
+    var digits = year < 0 ? 2 : 1;
+    for (var value = Math.abs(year); value >= 10; value /= 10) {
+      digits++;
+    }
+    return digits;
+  }
+
+  private static int writeYear(char[] chars, long year, int digits) {
+    var value = Math.abs(year);
+    for (int i = digits - 1; i >= 0; i--) {
+      chars[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+    if (year < 0) {
+      chars[0] = '-';
+    }
+    return digits;
+  }
+
+  private static int writeTwoDigits(char[] chars, int pos, int value) {
+    chars[pos] = (char) ('0' + value / 10);
+    chars[pos + 1] = (char) ('0' + value % 10);
+    return pos + 2;
+  }
+}
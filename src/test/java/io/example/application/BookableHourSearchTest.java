@@ -0,0 +1,36 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BookableHourSearchTest {
+  private static final Instant firstHour = Instant.parse("2024-03-20T10:00:00Z");
+
+  @Test
+  void testKeepsHoursWithCapacityTheStudentIsAvailableIn() {
+    var studentHours = List.of(hour(0), hour(2), hour(3), hour(5));
+    var hoursWithCapacity = List.of(row(1), row(2), row(3), row(4), row(5));
+
+    var bookableHours = BookableHourSearch.intersect(studentHours, hoursWithCapacity, 2);
+
+    assertEquals(List.of(row(2), row(3)), bookableHours);
+  }
+
+  @Test
+  void testIsEmptyWhenNoHourHasCapacity() {
+    assertEquals(List.of(), BookableHourSearch.intersect(List.of(hour(0), hour(1)), List.of(), 5));
+  }
+
+  private static Instant hour(int hours) {
+    return firstHour.plus(Duration.ofHours(hours));
+  }
+
+  private static BookableHoursView.BookableHourRow row(int hours) {
+    return new BookableHoursView.BookableHourRow(hour(hours), 1, 1);
+  }
+}
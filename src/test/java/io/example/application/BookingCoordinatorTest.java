@@ -0,0 +1,59 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.domain.Booking;
+import io.example.domain.CandidateSelector;
+
+class BookingCoordinatorTest {
+  private static final Instant reservationTime = Instant.parse("2024-03-20T10:00:00Z");
+
+  @Test
+  void testEveryBookingOfBatchFailsWhenQueryThrows() {
+    var coordinator = new BookingCoordinator(
+        (participantType, startTime, limit) -> {
+          throw new IllegalStateException("view unavailable");
+        },
+        new CandidateSelector(), Duration.ofMillis(10), 10);
+
+    var first = coordinator.assign(reservationTime, "student-1", Booking.CandidateSelection.random).toCompletableFuture();
+    var second = coordinator.assign(reservationTime, "student-2", Booking.CandidateSelection.random).toCompletableFuture();
+
+    for (var assignment : List.of(first, second)) {
+      var error = assertThrows(ExecutionException.class, () -> assignment.get(5, TimeUnit.SECONDS));
+      assertInstanceOf(IllegalStateException.class, error.getCause());
+    }
+  }
+
+  @Test
+  void testBatchIsAssignedDistinctTimeSlots() throws Exception {
+    var coordinator = new BookingCoordinator(
+        (participantType, startTime, limit) -> CompletableFuture.completedFuture(List.of(
+            new Booking.Candidate(participantType + "-1", participantType + "-timeSlot-1"),
+            new Booking.Candidate(participantType + "-2", participantType + "-timeSlot-2"))),
+        new CandidateSelector(), Duration.ofMillis(10), 10);
+
+    var first = coordinator.assign(reservationTime, "student-1", Booking.CandidateSelection.random).toCompletableFuture();
+    var second = coordinator.assign(reservationTime, "student-2", Booking.CandidateSelection.random).toCompletableFuture();
+
+    var firstAssignment = first.get(5, TimeUnit.SECONDS);
+    var secondAssignment = second.get(5, TimeUnit.SECONDS);
+    assertTrue(firstAssignment.instructorsAvailable() && firstAssignment.aircraftAvailable());
+    assertEquals(1, firstAssignment.instructors().size()); // Both instructors were assigned, so there are no spares
+    assertNotEquals(firstAssignment.instructors().get(0), secondAssignment.instructors().get(0));
+    assertNotEquals(firstAssignment.aircraft().get(0), secondAssignment.aircraft().get(0));
+  }
+}
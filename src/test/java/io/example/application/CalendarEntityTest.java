@@ -0,0 +1,69 @@
+package io.example.application;
+
+import static akka.Done.done;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import akka.javasdk.testkit.EventSourcedTestKit;
+import io.example.domain.Calendar;
+import io.example.domain.TimeSlot;
+import io.example.domain.TimeSlot.ParticipantType;
+
+class CalendarEntityTest {
+  @Test
+  void testScheduleHourInCalendar() {
+    var testKit = EventSourcedTestKit.of(CalendarEntity::new);
+
+    var participantId = "aircraft-1";
+    var participantType = ParticipantType.aircraft;
+    var startTime = Instant.parse("2024-03-20T10:00:00Z");
+    var nextHour = startTime.plus(Duration.ofHours(1));
+    var timeSlotId = TimeSlot.State.entityId(participantId, participantType, startTime);
+
+    {
+      var result = testKit.call(entity -> entity.createTimeSlot(
+          new TimeSlot.Command.MakeTimeSlotAvailable(participantId, participantType, startTime)));
+      assertEquals(done(), result.getReply());
+      result.getNextEventOfType(Calendar.Event.CalendarHourMadeAvailable.class);
+
+      testKit.call(entity -> entity.createTimeSlot(
+          new TimeSlot.Command.MakeTimeSlotAvailable(participantId, participantType, nextHour)));
+    }
+
+    {
+      var result = testKit.call(entity -> entity.requestTimeSlot(
+          new Calendar.Command.RequestHour(timeSlotId, "reservation-1", startTime, null)));
+      var event = result.getNextEventOfType(Calendar.Event.CalendarHourRequestAccepted.class);
+      assertEquals(timeSlotId, event.timeSlotId());
+      assertEquals("reservation-1", event.reservationId());
+      assertEquals(startTime, event.startTime());
+    }
+
+    {
+      var result = testKit.call(entity -> entity.requestTimeSlot(
+          new Calendar.Command.RequestHour(timeSlotId, "reservation-2", startTime, null)));
+      result.getNextEventOfType(Calendar.Event.CalendarHourRequestRejected.class);
+    }
+
+    {
+      var state = testKit.getState();
+      assertEquals(Calendar.State.entityId(participantId, participantType), state.calendarId());
+      assertEquals(TimeSlot.Status.scheduled, state.status(startTime));
+      assertEquals(TimeSlot.Status.available, state.status(nextHour));
+      assertEquals(TimeSlot.Status.unavailable, state.status(nextHour.plus(Duration.ofHours(1))));
+    }
+
+    {
+      var result = testKit.call(entity -> entity.cancelTimeSlot(
+          new Calendar.Command.CancelHour(timeSlotId, "reservation-1", startTime)));
+      result.getNextEventOfType(Calendar.Event.CalendarHourReservationCancelled.class);
+      assertEquals(TimeSlot.Status.available, testKit.getState().status(startTime));
+      assertTrue(testKit.getState().reservations().isEmpty());
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package io.example.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+class MetricsTest {
+  @Test
+  void testCounterText() {
+    var counter = new Metrics.Counter("test_events_total", "Test events", "type");
+    counter.increment("Created");
+    counter.increment("Created");
+    counter.increment("Say \"hi\"");
+
+    var text = new StringBuilder();
+    counter.write(text);
+
+    assertEquals(2, counter.value("Created"));
+    assertEquals(0, counter.value("Cancelled"));
+    assertTrue(text.toString().startsWith("# HELP test_events_total Test events\n# TYPE test_events_total counter\n"));
+    assertTrue(text.toString().contains("test_events_total{type=\"Created\"} 2\n"));
+    assertTrue(text.toString().contains("test_events_total{type=\"Say \\\"hi\\\"\"} 1\n"));
+  }
+
+  @Test
+  void testHistogramBucketsAreCumulative() {
+    var histogram = new Metrics.Histogram("test_seconds", "Test latency", new double[] { 0.01, 0.1, 1 }, "step");
+    histogram.observe(5_000_000L, "a"); // 5ms
+    histogram.observe(10_000_000L, "a"); // 10ms, on the bucket bound
+    histogram.observe(50_000_000L, "a"); // 50ms
+    histogram.observe(2_000_000_000L, "a"); // 2s
+
+    var text = new StringBuilder();
+    histogram.write(text);
+
+    assertEquals(4, histogram.count("a"));
+    assertTrue(text.toString().contains("test_seconds_bucket{step=\"a\",le=\"0.01\"} 2\n"));
+    assertTrue(text.toString().contains("test_seconds_bucket{step=\"a\",le=\"0.1\"} 3\n"));
+    assertTrue(text.toString().contains("test_seconds_bucket{step=\"a\",le=\"1.0\"} 3\n"));
+    assertTrue(text.toString().contains("test_seconds_bucket{step=\"a\",le=\"+Inf\"} 4\n"));
+    assertTrue(text.toString().contains("test_seconds_count{step=\"a\"} 4\n"));
+  }
+
+  @Test
+  void testTimeRecordsFailedCalls() {
+    var histogram = new Metrics.Histogram("test_call_seconds", "Test calls", new double[] { 1 }, "call");
+    histogram.time(() -> CompletableFuture.completedFuture("ok"), "get");
+    histogram.time(() -> CompletableFuture.failedFuture(new IllegalStateException("boom")), "get");
+
+    assertEquals(2, histogram.count("get"));
+  }
+
+  @Test
+  void testGaugeKeepsLastValue() {
+    var gauge = new Metrics.Gauge("test_lag_seconds", "Test lag", "component");
+    gauge.set(2.5, "view");
+    gauge.set(0.25, "view");
+
+    var text = new StringBuilder();
+    gauge.write(text);
+
+    assertEquals(0.25, gauge.value("view"));
+    assertTrue(text.toString().contains("# TYPE test_lag_seconds gauge\n"));
+    assertTrue(text.toString().contains("test_lag_seconds{component=\"view\"} 0.25\n"));
+  }
+
+  @Test
+  void testLabelCountMustMatch() {
+    var counter = new Metrics.Counter("test_total", "Test", "a", "b");
+    assertThrows(IllegalArgumentException.class, () -> counter.increment("only-one"));
+  }
+}
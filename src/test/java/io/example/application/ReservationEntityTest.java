@@ -64,6 +64,37 @@ class ReservationEntityTest {
     assertEquals(aircraftTimeSlotId, aircraftWants.timeSlotId());
   }
 
+  @Test
+  void testRequestReservation() {
+    var testKit = EventSourcedTestKit.of(ReservationEntity::new);
+
+    var command = new Reservation.Command.RequestReservation(
+        reservationId,
+        studentId,
+        studentTimeSlotId,
+        instructorId,
+        instructorTimeSlotId,
+        aircraftId,
+        aircraftTimeSlotId,
+        reservationTime);
+
+    var result = testKit.call(entity -> entity.requestReservation(command));
+
+    assertTrue(result.isReply());
+    assertEquals(done(), result.getReply());
+    assertEquals(1, result.getAllEvents().size());
+
+    var event = result.getNextEventOfType(Reservation.Event.ReservationRequested.class);
+    assertEquals(studentTimeSlotId, event.studentTimeSlotId());
+    assertEquals(instructorTimeSlotId, event.instructorTimeSlotId());
+    assertEquals(aircraftTimeSlotId, event.aircraftTimeSlotId());
+
+    var state = testKit.getState();
+    assertEquals(reservationId, state.reservationId());
+    assertEquals(ParticipantStatus.pending, state.student().status());
+    assertEquals(Reservation.Status.pending, state.status());
+  }
+
   @Test
   void testStudentAvailable() {
     var testKit = EventSourcedTestKit.of(ReservationEntity::new);
@@ -256,6 +287,28 @@ class ReservationEntityTest {
     assertEquals(Reservation.Status.pending, state.status());
   }
 
+  @Test
+  void testExpirePendingReservation() {
+    var testKit = EventSourcedTestKit.of(ReservationEntity::new);
+    var reservationId = setupPendingReservation(testKit);
+
+    var command = new Reservation.Command.ExpireReservation(reservationId);
+    var result = testKit.call(entity -> entity.expireReservation(command));
+
+    assertTrue(result.isReply());
+    assertEquals(done(), result.getReply());
+
+    var cancelledStudentReservation = result.getNextEventOfType(Reservation.Event.CancelledStudentReservation.class);
+    assertEquals(studentTimeSlotId, cancelledStudentReservation.studentTimeSlotId());
+    var cancelledInstructorReservation = result.getNextEventOfType(Reservation.Event.CancelledInstructorReservation.class);
+    assertEquals(instructorTimeSlotId, cancelledInstructorReservation.instructorTimeSlotId());
+    var cancelledAircraftReservation = result.getNextEventOfType(Reservation.Event.CancelledAircraftReservation.class);
+    assertEquals(aircraftTimeSlotId, cancelledAircraftReservation.aircraftTimeSlotId());
+    result.getNextEventOfType(Reservation.Event.ReservationCancelled.class);
+
+    assertEquals(Reservation.Status.cancelled, testKit.getState().status());
+  }
+
   private String setupPendingReservation(
       EventSourcedTestKit<Reservation.State, Reservation.Event, ReservationEntity> testKit) {
     var command = new Reservation.Command.CreateReservation(
@@ -0,0 +1,108 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.domain.TimeSlot.ParticipantType;
+
+class AvailabilityRuleTest {
+  private static final Duration maxSpan = Duration.ofDays(366);
+  private static final Set<DayOfWeek> weekdays = Set.of(
+      DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
+
+  // 2024-03-18 is a Monday, 2024-03-24 a Sunday
+  private static final AvailabilityRule.Rule rule = new AvailabilityRule.Rule(
+      "rule-1",
+      "instructor-1",
+      ParticipantType.instructor,
+      weekdays,
+      LocalTime.of(8, 0),
+      LocalTime.of(17, 0),
+      LocalDate.parse("2024-03-18"),
+      LocalDate.parse("2024-03-24"));
+
+  @Test
+  void shouldExpandWeekdayWorkingHours() {
+    var hours = rule.hours(rule.firstHour(), 1000);
+
+    assertThat(hours).hasSize(5 * 9);
+    assertThat(rule.hourCount()).isEqualTo(hours.size());
+    assertThat(hours.get(0)).isEqualTo(Instant.parse("2024-03-18T08:00:00Z"));
+    assertThat(hours.get(8)).isEqualTo(Instant.parse("2024-03-18T16:00:00Z"));
+    assertThat(hours.get(9)).isEqualTo(Instant.parse("2024-03-19T08:00:00Z"));
+    assertThat(hours.get(hours.size() - 1)).isEqualTo(Instant.parse("2024-03-22T16:00:00Z"));
+  }
+
+  @Test
+  void shouldRejectInvalidRules() {
+    assertThat(rule.validate(maxSpan)).isEmpty();
+
+    var noDays = new AvailabilityRule.Rule("rule-1", "instructor-1", ParticipantType.instructor, Set.of(),
+        rule.startTime(), rule.endTime(), rule.fromDate(), rule.toDate());
+    assertThat(noDays.validate(maxSpan)).isPresent();
+
+    var endBeforeStart = new AvailabilityRule.Rule("rule-1", "instructor-1", ParticipantType.instructor, weekdays,
+        rule.endTime(), rule.startTime(), rule.fromDate(), rule.toDate());
+    assertThat(endBeforeStart.validate(maxSpan)).isPresent();
+
+    var toBeforeFrom = new AvailabilityRule.Rule("rule-1", "instructor-1", ParticipantType.instructor, weekdays,
+        rule.startTime(), rule.endTime(), rule.toDate(), rule.fromDate());
+    assertThat(toBeforeFrom.validate(maxSpan)).isPresent();
+  }
+
+  @Test
+  void shouldRejectRulesLongerThanMaxSpan() {
+    var oneYear = new AvailabilityRule.Rule("rule-1", "instructor-1", ParticipantType.instructor, weekdays,
+        rule.startTime(), rule.endTime(), LocalDate.parse("2024-01-01"), LocalDate.parse("2024-12-31"));
+    assertThat(oneYear.validate(maxSpan)).isEmpty();
+
+    var tooLong = new AvailabilityRule.Rule("rule-1", "instructor-1", ParticipantType.instructor, weekdays,
+        rule.startTime(), rule.endTime(), LocalDate.parse("2024-01-01"), LocalDate.parse("2025-01-01"));
+    assertThat(tooLong.validate(maxSpan)).hasValueSatisfying(error -> assertThat(error).contains("367 days"));
+  }
+
+  @Test
+  void shouldProcessRuleInBatches() {
+    var state = AvailabilityRule.State.initialState(rule);
+    var processed = new ArrayList<Instant>();
+    var failedHour = Instant.parse("2024-03-20T12:00:00Z");
+
+    while (state.status() == AvailabilityRule.Status.running) {
+      var batch = state.nextBatch(10);
+      assertThat(batch).hasSizeLessThanOrEqualTo(10);
+      processed.addAll(batch);
+      var results = batch.stream()
+          .map(hour -> new AvailabilityRule.HourResult(hour, !hour.equals(failedHour)))
+          .toList();
+      state = state.withBatchResult(new AvailabilityRule.BatchResult(results));
+    }
+
+    assertThat(processed).containsExactlyElementsOf(rule.hours(rule.firstHour(), 1000));
+    assertThat(state.totalHours()).isEqualTo(45);
+    assertThat(state.processedHours()).isEqualTo(45);
+    assertThat(state.succeededHours()).isEqualTo(44);
+    assertThat(state.failedHours()).isEqualTo(List.of(failedHour));
+  }
+
+  @Test
+  void shouldCompleteRuleWithoutHours() {
+    var weekend = new AvailabilityRule.Rule("rule-1", "instructor-1", ParticipantType.instructor, weekdays,
+        rule.startTime(), rule.endTime(), LocalDate.parse("2024-03-23"), LocalDate.parse("2024-03-24"));
+    var state = AvailabilityRule.State.initialState(weekend);
+
+    assertThat(state.totalHours()).isZero();
+    assertThat(state.nextBatch(10)).isEmpty();
+    state = state.withBatchResult(new AvailabilityRule.BatchResult(List.of()));
+    assertThat(state.status()).isEqualTo(AvailabilityRule.Status.completed);
+  }
+}
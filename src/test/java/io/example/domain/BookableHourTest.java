@@ -0,0 +1,62 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.domain.BookableHour.Command.UpdateAvailability;
+import io.example.domain.TimeSlot.ParticipantType;
+
+class BookableHourTest {
+  private static final Instant startTime = Instant.parse("2024-03-20T10:00:00Z");
+
+  @Test
+  void shouldHaveCapacityWhenInstructorAndAircraftAreAvailable() {
+    var state = BookableHour.State.empty()
+        .onCommand(new UpdateAvailability("instructor-1", ParticipantType.instructor, startTime, true));
+
+    assertThat(state.startTime()).isEqualTo(startTime);
+    assertThat(state.hasCapacity()).isFalse();
+
+    state = state.onCommand(new UpdateAvailability("aircraft-1", ParticipantType.aircraft, startTime, true));
+
+    assertThat(state.hasCapacity()).isTrue();
+  }
+
+  @Test
+  void shouldNotHaveCapacityOnceTheOnlyInstructorIsScheduled() {
+    var state = BookableHour.State.empty()
+        .onCommand(new UpdateAvailability("instructor-1", ParticipantType.instructor, startTime, true))
+        .onCommand(new UpdateAvailability("aircraft-1", ParticipantType.aircraft, startTime, true))
+        .onCommand(new UpdateAvailability("instructor-1", ParticipantType.instructor, startTime, false));
+
+    assertThat(state.instructorIds()).isEmpty();
+    assertThat(state.hasCapacity()).isFalse();
+  }
+
+  @Test
+  void shouldIgnoreRepeatedUpdates() {
+    var command = new UpdateAvailability("instructor-1", ParticipantType.instructor, startTime.plusSeconds(600), true);
+    var state = BookableHour.State.empty().onCommand(command);
+
+    assertThat(state.startTime()).isEqualTo(startTime);
+    assertThat(state.onCommand(command)).isEqualTo(state);
+    assertThat(state.onCommand(new UpdateAvailability("instructor-2", ParticipantType.instructor, startTime, false))).isEqualTo(state);
+    assertThat(BookableHour.State.entityId(startTime)).isEqualTo(String.valueOf(startTime.getEpochSecond() / 3600));
+  }
+
+  @Test
+  void shouldNotKeepStudents() {
+    // given
+    var state = BookableHour.State.empty()
+        .onCommand(new UpdateAvailability("instructor-1", ParticipantType.instructor, startTime, true));
+
+    // when
+    var newState = state.onCommand(new UpdateAvailability("student-1", ParticipantType.student, startTime, true));
+
+    // then
+    assertThat(newState).isEqualTo(state);
+  }
+}
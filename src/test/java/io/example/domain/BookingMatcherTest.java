@@ -0,0 +1,42 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BookingMatcherTest {
+
+  @Test
+  void shouldAssignDistinctCandidatesInOrder() {
+    // given
+    var candidates = List.of("instructor-1", "instructor-2", "instructor-3");
+
+    // when
+    var assigned = BookingMatcher.match(List.of(candidates, candidates, candidates, candidates));
+
+    // then
+    assertThat(assigned).containsExactly("instructor-1", "instructor-2", "instructor-3", null);
+  }
+
+  @Test
+  void shouldMoveEarlierBookingToFreeCandidate() {
+    // given the second booking can only take the candidate the first booking would take
+    var first = List.of("aircraft-1", "aircraft-2");
+    var second = List.of("aircraft-1");
+
+    // when
+    var assigned = BookingMatcher.match(List.of(first, second));
+
+    // then
+    assertThat(assigned).containsExactly("aircraft-2", "aircraft-1");
+  }
+
+  @Test
+  void shouldLeaveBookingWithoutCandidatesUnassigned() {
+    var assigned = BookingMatcher.match(List.of(List.of("aircraft-1"), List.<String>of(), List.of("aircraft-1", "aircraft-2")));
+
+    assertThat(assigned).containsExactly("aircraft-1", null, "aircraft-2");
+  }
+}
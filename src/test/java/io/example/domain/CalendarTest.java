@@ -0,0 +1,227 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.domain.TimeSlot.ParticipantType;
+
+class CalendarTest {
+  private static final String participantId = "instructor-1";
+  private static final ParticipantType participantType = ParticipantType.instructor;
+  private static final Instant startTime = Instant.parse("2024-03-20T10:00:00Z");
+
+  @Test
+  void shouldMakeHourAvailable() {
+    var command = new TimeSlot.Command.MakeTimeSlotAvailable(participantId, participantType, startTime);
+
+    var eventOpt = Calendar.State.empty().onCommand(command);
+
+    assertThat(eventOpt).isPresent();
+    var event = (Calendar.Event.CalendarHourMadeAvailable) eventOpt.get();
+    assertThat(event.calendarId()).isEqualTo(Calendar.State.entityId(participantId, participantType));
+    assertThat(event.startTime()).isEqualTo(startTime);
+
+    var state = Calendar.State.empty().onEvent(event);
+    assertThat(state.status(startTime)).isEqualTo(TimeSlot.Status.available);
+    assertThat(state.status(startTime.plus(Duration.ofHours(1)))).isEqualTo(TimeSlot.Status.unavailable);
+  }
+
+  @Test
+  void shouldScheduleAndCancelHour() {
+    var state = makeAvailable(Calendar.State.empty(), startTime);
+    var timeSlotId = TimeSlot.State.entityId(participantId, participantType, startTime);
+
+    var accepted = state.onCommand(new Calendar.Command.RequestHour(timeSlotId, "reservation-1", startTime, null));
+    assertThat(accepted).containsInstanceOf(Calendar.Event.CalendarHourRequestAccepted.class);
+    state = state.onEvent((Calendar.Event.CalendarHourRequestAccepted) accepted.get());
+    assertThat(state.status(startTime)).isEqualTo(TimeSlot.Status.scheduled);
+    assertThat(state.reservationId(TimeSlotKey.epochHour(startTime))).contains("reservation-1");
+
+    var rejected = state.onCommand(new Calendar.Command.RequestHour(timeSlotId, "reservation-2", startTime, null));
+    assertThat(rejected).containsInstanceOf(Calendar.Event.CalendarHourRequestRejected.class);
+
+    var repeated = state.onCommand(new Calendar.Command.RequestHour(timeSlotId, "reservation-1", startTime, null));
+    assertThat(repeated).isEmpty();
+
+    var cancelled = state.onCommand(new Calendar.Command.CancelHour(timeSlotId, "reservation-1", startTime));
+    assertThat(cancelled).containsInstanceOf(Calendar.Event.CalendarHourReservationCancelled.class);
+    state = state.onEvent((Calendar.Event.CalendarHourReservationCancelled) cancelled.get());
+    assertThat(state.status(startTime)).isEqualTo(TimeSlot.Status.available);
+    assertThat(state.reservations()).isEmpty();
+    assertThat(state.scheduled()).isEmpty();
+  }
+
+  @Test
+  void shouldHoldThenConfirmOrLapseHour() {
+    // given
+    var state = makeAvailable(Calendar.State.empty(), startTime);
+    var timeSlotId = TimeSlot.State.entityId(participantId, participantType, startTime);
+    var heldUntil = startTime.minus(Duration.ofHours(1));
+    var accepted = state.onCommand(new Calendar.Command.RequestHour(timeSlotId, "reservation-1", startTime, heldUntil));
+    var held = state.onEvent((Calendar.Event.CalendarHourRequestAccepted) accepted.orElseThrow());
+
+    // when
+    var rejected = held.onCommand(new Calendar.Command.RequestHour(timeSlotId, "reservation-2", startTime, null));
+    var confirmed = held.onCommand(new Calendar.Command.ConfirmHour(timeSlotId, "reservation-1", startTime));
+    var lapsed = held.onCommand(new Calendar.Command.LapseHold(timeSlotId, "reservation-1", startTime));
+
+    // then
+    assertThat(held.status(startTime)).isEqualTo(TimeSlot.Status.held);
+    assertThat(held.holds()).containsEntry(TimeSlotKey.epochHour(startTime), heldUntil);
+    assertThat(rejected).containsInstanceOf(Calendar.Event.CalendarHourRequestRejected.class);
+
+    var scheduled = held.onEvent((Calendar.Event.CalendarHourConfirmed) confirmed.orElseThrow());
+    assertThat(scheduled.status(startTime)).isEqualTo(TimeSlot.Status.scheduled);
+    assertThat(scheduled.holds()).isEmpty();
+    assertThat(scheduled.onCommand(new Calendar.Command.LapseHold(timeSlotId, "reservation-1", startTime))).isEmpty();
+
+    var available = held.onEvent((Calendar.Event.CalendarHourHoldLapsed) lapsed.orElseThrow());
+    assertThat(available.status(startTime)).isEqualTo(TimeSlot.Status.available);
+    assertThat(available.holds()).isEmpty();
+    assertThat(available.reservations()).isEmpty();
+  }
+
+  @Test
+  void shouldKeepHoursBeforeEpochAndAcrossWords() {
+    var state = Calendar.State.empty();
+    var hours = new Instant[] {
+        Instant.parse("1969-12-31T23:00:00Z"),
+        Instant.parse("1970-01-01T00:00:00Z"),
+        startTime,
+        startTime.plus(Duration.ofHours(63)),
+        startTime.plus(Duration.ofHours(64)) };
+    for (var hour : hours) {
+      state = makeAvailable(state, hour);
+    }
+
+    for (var hour : hours) {
+      assertThat(state.status(hour)).isEqualTo(TimeSlot.Status.available);
+    }
+    assertThat(state.status(startTime.plus(Duration.ofHours(1)))).isEqualTo(TimeSlot.Status.unavailable);
+  }
+
+  @Test
+  void shouldAcceptAndRejectCommandsLikeTimeSlotState() {
+    var random = new Random(7);
+    var calendar = Calendar.State.empty();
+    var timeSlots = new HashMap<Long, TimeSlot.State>();
+
+    for (int i = 0; i < 10_000; i++) {
+      var hour = startTime.plus(Duration.ofHours(random.nextInt(200)));
+      var epochHour = TimeSlotKey.epochHour(hour);
+      var timeSlotId = TimeSlot.State.entityId(participantId, participantType, hour);
+      var reservationId = "reservation-" + random.nextInt(3);
+      var timeSlot = timeSlots.getOrDefault(epochHour, TimeSlot.State.empty());
+
+      Optional<TimeSlot.Event> timeSlotEvent;
+      Optional<Calendar.Event> calendarEvent;
+      var heldUntil = random.nextBoolean() ? null : hour;
+      switch (random.nextInt(6)) {
+        case 0 -> {
+          var command = new TimeSlot.Command.MakeTimeSlotAvailable(participantId, participantType, hour);
+          timeSlotEvent = timeSlot.onCommand(command);
+          calendarEvent = calendar.onCommand(command);
+        }
+        case 1 -> {
+          var command = new TimeSlot.Command.MakeTimeSlotUnavailable(participantId, participantType, hour);
+          timeSlotEvent = timeSlot.onCommand(command);
+          calendarEvent = calendar.onCommand(command);
+        }
+        case 2 -> {
+          timeSlotEvent = timeSlot.onCommand(new TimeSlot.Command.InstructorRequestsTimeSlot(timeSlotId, reservationId, heldUntil));
+          calendarEvent = calendar.onCommand(new Calendar.Command.RequestHour(timeSlotId, reservationId, hour, heldUntil));
+        }
+        case 3 -> {
+          timeSlotEvent = timeSlot.onCommand(new TimeSlot.Command.ConfirmTimeSlot(timeSlotId, reservationId));
+          calendarEvent = calendar.onCommand(new Calendar.Command.ConfirmHour(timeSlotId, reservationId, hour));
+        }
+        case 4 -> {
+          timeSlotEvent = timeSlot.onCommand(new TimeSlot.Command.LapseHold(timeSlotId, reservationId));
+          calendarEvent = calendar.onCommand(new Calendar.Command.LapseHold(timeSlotId, reservationId, hour));
+        }
+        default -> {
+          timeSlotEvent = timeSlot.onCommand(new TimeSlot.Command.CancelTimeSlot(timeSlotId, reservationId));
+          calendarEvent = calendar.onCommand(new Calendar.Command.CancelHour(timeSlotId, reservationId, hour));
+        }
+      }
+
+      assertThat(calendarEvent.map(Object::getClass).map(Class::getSimpleName))
+          .isEqualTo(timeSlotEvent.map(CalendarTest::calendarEventName));
+
+      if (timeSlotEvent.isPresent()) {
+        timeSlot = applyEvent(timeSlot, timeSlotEvent.get());
+        calendar = applyEvent(calendar, calendarEvent.get());
+        timeSlots.put(epochHour, timeSlot);
+      }
+      assertThat(calendar.status(epochHour)).isEqualTo(timeSlot.isEmpty() ? TimeSlot.Status.unavailable : timeSlot.status());
+    }
+  }
+
+  private static String calendarEventName(TimeSlot.Event event) {
+    return switch (event) {
+      case TimeSlot.Event.TimeSlotMadeAvailable e -> "CalendarHourMadeAvailable";
+      case TimeSlot.Event.TimeSlotMadeUnavailable e -> "CalendarHourMadeUnavailable";
+      case TimeSlot.Event.InstructorRequestAccepted e -> "CalendarHourRequestAccepted";
+      case TimeSlot.Event.InstructorRequestRejected e -> "CalendarHourRequestRejected";
+      case TimeSlot.Event.TimeSlotReservationCancelled e -> "CalendarHourReservationCancelled";
+      case TimeSlot.Event.TimeSlotConfirmed e -> "CalendarHourConfirmed";
+      case TimeSlot.Event.TimeSlotHoldLapsed e -> "CalendarHourHoldLapsed";
+      default -> event.getClass().getSimpleName();
+    };
+  }
+
+  private static TimeSlot.State applyEvent(TimeSlot.State state, TimeSlot.Event event) {
+    return switch (event) {
+      case TimeSlot.Event.TimeSlotMadeAvailable e -> state.onEvent(e);
+      case TimeSlot.Event.TimeSlotMadeUnavailable e -> state.onEvent(e);
+      case TimeSlot.Event.InstructorRequestAccepted e -> state.onEvent(e);
+      case TimeSlot.Event.InstructorRequestRejected e -> state.onEvent(e);
+      case TimeSlot.Event.TimeSlotReservationCancelled e -> state.onEvent(e);
+      case TimeSlot.Event.TimeSlotConfirmed e -> state.onEvent(e);
+      case TimeSlot.Event.TimeSlotHoldLapsed e -> state.onEvent(e);
+      default -> state;
+    };
+  }
+
+  private static Calendar.State applyEvent(Calendar.State state, Calendar.Event event) {
+    return switch (event) {
+      case Calendar.Event.CalendarHourMadeAvailable e -> state.onEvent(e);
+      case Calendar.Event.CalendarHourMadeUnavailable e -> state.onEvent(e);
+      case Calendar.Event.CalendarHourRequestAccepted e -> state.onEvent(e);
+      case Calendar.Event.CalendarHourRequestRejected e -> state.onEvent(e);
+      case Calendar.Event.CalendarHourReservationCancelled e -> state.onEvent(e);
+      case Calendar.Event.CalendarHourConfirmed e -> state.onEvent(e);
+      case Calendar.Event.CalendarHourHoldLapsed e -> state.onEvent(e);
+    };
+  }
+
+  private static Calendar.State makeAvailable(Calendar.State state, Instant hour) {
+    var event = state.onCommand(new TimeSlot.Command.MakeTimeSlotAvailable(participantId, participantType, hour));
+    return state.onEvent((Calendar.Event.CalendarHourMadeAvailable) event.orElseThrow());
+  }
+
+  @Test
+  void shouldTakeHourFromCommandNotTimeSlotId() {
+    // given
+    var state = makeAvailable(Calendar.State.empty(), startTime);
+    var timeSlotId = "instructor-timeSlot-1";
+
+    // when
+    var accepted = state.onCommand(new Calendar.Command.RequestHour(timeSlotId, "reservation-1", startTime, null));
+    var scheduled = state.onEvent((Calendar.Event.CalendarHourRequestAccepted) accepted.orElseThrow());
+    var cancelled = scheduled.onCommand(new Calendar.Command.CancelHour(timeSlotId, "reservation-1", startTime));
+
+    // then
+    assertThat(scheduled.status(startTime)).isEqualTo(TimeSlot.Status.scheduled);
+    assertThat(((Calendar.Event.CalendarHourRequestAccepted) accepted.get()).startTime()).isEqualTo(startTime);
+    var available = scheduled.onEvent((Calendar.Event.CalendarHourReservationCancelled) cancelled.orElseThrow());
+    assertThat(available.status(startTime)).isEqualTo(TimeSlot.Status.available);
+  }
+}
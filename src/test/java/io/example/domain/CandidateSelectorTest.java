@@ -0,0 +1,70 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.domain.Booking.CandidateSelection;
+
+class CandidateSelectorTest {
+  private static final List<String> candidates = List.of("instructor-0", "instructor-1", "instructor-2", "instructor-3");
+
+  @Test
+  void shouldSelectFirstCandidate() {
+    var selector = new CandidateSelector();
+
+    assertThat(selector.select(CandidateSelection.first, candidates, Function.identity(), "student-1")).isEqualTo("instructor-0");
+    assertThat(selector.select(CandidateSelection.first, candidates, Function.identity(), "student-2")).isEqualTo("instructor-0");
+  }
+
+  @Test
+  void shouldSelectSameCandidateForSameStudent() {
+    var selector = new CandidateSelector();
+
+    var selected = selector.select(CandidateSelection.studentHash, candidates, Function.identity(), "student-1");
+
+    assertThat(selector.select(CandidateSelection.studentHash, candidates, Function.identity(), "student-1")).isEqualTo(selected);
+  }
+
+  @Test
+  void shouldSpreadStudentsOverCandidates() {
+    var selector = new CandidateSelector();
+
+    // when
+    var selected = new HashSet<String>();
+    IntStream.range(0, 40).forEach(i -> selected.add(
+        selector.select(CandidateSelection.studentHash, candidates, Function.identity(), "student-" + i)));
+
+    // then
+    assertThat(selected).hasSize(candidates.size());
+  }
+
+  @Test
+  void shouldSelectLeastSelectedCandidate() {
+    var selector = new CandidateSelector();
+
+    // when
+    var selected = IntStream.range(0, 4)
+        .mapToObj(i -> selector.select(CandidateSelection.leastSelected, candidates, Function.identity(), "student-" + i))
+        .toList();
+
+    // then
+    assertThat(selected).containsExactlyElementsOf(candidates);
+    assertThat(selector.select(CandidateSelection.leastSelected, candidates.subList(1, 4), Function.identity(), "student-4"))
+        .isEqualTo("instructor-1");
+  }
+
+  @Test
+  void shouldSelectRandomCandidate() {
+    var selector = new CandidateSelector();
+
+    var selected = selector.select(CandidateSelection.random, candidates, Function.identity(), "student-1");
+
+    assertThat(candidates).contains(selected);
+  }
+}
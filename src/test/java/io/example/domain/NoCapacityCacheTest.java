@@ -0,0 +1,65 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.domain.TimeSlot.ParticipantType;
+
+class NoCapacityCacheTest {
+  private static final Instant hour = Instant.parse("2024-03-20T10:00:00Z");
+
+  @Test
+  void shouldRememberHourUntilTtlExpires() {
+    var clock = new AtomicLong();
+    var cache = new NoCapacityCache(Duration.ofSeconds(5), clock::get);
+
+    cache.put(hour, ParticipantType.aircraft);
+
+    assertThat(cache.find(hour)).contains(ParticipantType.aircraft);
+    assertThat(cache.find(hour.plus(Duration.ofHours(1)))).isEmpty();
+
+    clock.set(Duration.ofSeconds(5).toNanos());
+    assertThat(cache.find(hour)).isEmpty();
+  }
+
+  @Test
+  void shouldForgetHourWhenCapacityIsAdded() {
+    var cache = new NoCapacityCache(Duration.ofSeconds(5), () -> 0L);
+
+    cache.put(hour, ParticipantType.instructor);
+    cache.put(hour, ParticipantType.aircraft);
+    assertThat(cache.find(hour)).contains(ParticipantType.instructor);
+
+    cache.invalidate(hour, ParticipantType.instructor);
+    assertThat(cache.find(hour)).contains(ParticipantType.aircraft);
+
+    cache.invalidate(hour, ParticipantType.aircraft);
+    assertThat(cache.find(hour)).isEmpty();
+  }
+
+  @Test
+  void shouldOnlyCacheWholeHoursWhenEnabled() {
+    var cache = new NoCapacityCache(Duration.ofSeconds(5), () -> 0L);
+    cache.put(hour.plus(Duration.ofMinutes(20)), ParticipantType.instructor);
+    assertThat(cache.find(hour.plus(Duration.ofMinutes(20)))).isEmpty();
+    assertThat(cache.find(hour)).isEmpty();
+
+    var disabled = new NoCapacityCache(Duration.ZERO, () -> 0L);
+    disabled.put(hour, ParticipantType.instructor);
+    assertThat(disabled.isEnabled()).isFalse();
+    assertThat(disabled.find(hour)).isEmpty();
+  }
+
+  @Test
+  void shouldRejectTtlLongerThanMax() {
+    assertThatThrownBy(() -> new NoCapacityCache(NoCapacityCache.maxTtl.plusSeconds(1)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(new NoCapacityCache(NoCapacityCache.maxTtl).isEnabled()).isTrue();
+  }
+}
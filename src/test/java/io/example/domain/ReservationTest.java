@@ -1,9 +1,11 @@
 package io.example.domain;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.Instant;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -65,6 +67,61 @@ class ReservationTest {
     assertEquals(aircraftTimeSlotId, aircraftWants.timeSlotId());
   }
 
+  @Test
+  void shouldRequestNewReservationWithSingleEvent() {
+    // Given
+    var command = new Reservation.Command.RequestReservation(
+        reservationId,
+        studentId,
+        studentTimeSlotId,
+        instructorId,
+        instructorTimeSlotId,
+        aircraftId,
+        aircraftTimeSlotId,
+        reservationTime);
+    var state = Reservation.State.empty();
+
+    // When
+    var events = state.onCommand(command);
+
+    // Then
+    assertEquals(1, events.size());
+    assertTrue(events.get(0) instanceof Reservation.Event.ReservationRequested);
+    var requested = (Reservation.Event.ReservationRequested) events.get(0);
+    assertEquals(studentTimeSlotId, requested.studentTimeSlotId());
+    assertEquals(instructorTimeSlotId, requested.instructorTimeSlotId());
+    assertEquals(aircraftTimeSlotId, requested.aircraftTimeSlotId());
+
+    // The requested reservation is in the same state as a created one
+    var newState = state.onEvent(requested);
+    assertEquals(createPendingReservation(), newState);
+    assertEquals(0, newState.onCommand(command).size());
+  }
+
+  @Test
+  void shouldRecordThatTheSagaRequestedTheReservation() {
+    // Given
+    var command = new Reservation.Command.RequestReservation(
+        reservationId,
+        studentId,
+        studentTimeSlotId,
+        instructorId,
+        instructorTimeSlotId,
+        aircraftId,
+        aircraftTimeSlotId,
+        reservationTime);
+    var state = Reservation.State.empty();
+
+    // When
+    var byConsumers = (Reservation.Event.ReservationRequested) state.onCommand(command).get(0);
+    var bySaga = (Reservation.Event.ReservationRequested) state.onCommand(command.bySaga()).get(0);
+
+    // Then
+    assertFalse(byConsumers.requestedBySaga());
+    assertTrue(bySaga.requestedBySaga());
+    assertEquals(state.onEvent(byConsumers), state.onEvent(bySaga));
+  }
+
   @Test
   void shouldNotCreateReservationWhenStateNotEmpty() {
     // Given
@@ -162,6 +219,21 @@ class ReservationTest {
     assertEquals(Reservation.ParticipantStatus.available, newState.instructor().status());
   }
 
+  @Test
+  void shouldIgnoreAnswersFromOtherTimeSlots() {
+    // Given
+    var state = createPendingReservation();
+
+    // When
+    var rejected = state.onCommand(new Reservation.Command.InstructorUnavailable(state.reservationId(), "instructor-time-slot-2"));
+    var accepted = state.onCommand(new Reservation.Command.AircraftAvailable(state.reservationId(), "aircraft-time-slot-2"));
+
+    // Then
+    assertTrue(rejected.isEmpty());
+    assertTrue(accepted.isEmpty());
+    assertEquals(1, state.onCommand(new Reservation.Command.InstructorAvailable(state.reservationId(), instructorTimeSlotId)).size());
+  }
+
   @Test
   void shouldMakeInstructorUnavailable() {
     // Given
@@ -313,6 +385,109 @@ class ReservationTest {
     }
   }
 
+  @Test
+  void shouldExpirePendingReservation() {
+    // Given
+    var state = createPendingReservation();
+    var command = new Reservation.Command.ExpireReservation(state.reservationId());
+
+    // When
+    var events = state.onCommand(command);
+
+    // Then
+    assertEquals(4, events.size());
+    assertEquals(new Reservation.Event.CancelledStudentReservation(studentTimeSlotId, reservationId), events.get(0));
+    assertEquals(new Reservation.Event.CancelledInstructorReservation(instructorTimeSlotId, reservationId), events.get(1));
+    assertEquals(new Reservation.Event.CancelledAircraftReservation(aircraftTimeSlotId, reservationId), events.get(2));
+    state = state.onEvent((Reservation.Event.ReservationCancelled) events.get(3));
+    assertEquals(Reservation.Status.cancelled, state.status());
+
+    // Expiring again does nothing
+    assertTrue(state.onCommand(command).isEmpty());
+  }
+
+  @Test
+  void shouldNotExpireConfirmedReservation() {
+    var state = createPendingReservation()
+        .onEvent(new Reservation.Event.ReservationConfirmed(reservationId));
+
+    var events = state.onCommand(new Reservation.Command.ExpireReservation(reservationId));
+
+    assertTrue(events.isEmpty());
+  }
+
+  @Test
+  void shouldReleaseTimeSlotAcceptedAfterCancellation() {
+    // Given a reservation that expired before any time slot was accepted
+    var state = createPendingReservation()
+        .onEvent(new Reservation.Event.ReservationCancelled(reservationId));
+
+    // When the instructor time slot accepts late, it is released again and the reservation stays cancelled
+    var events = state.onCommand(new Reservation.Command.InstructorAvailable(reservationId));
+    assertEquals(List.of(new Reservation.Event.CancelledInstructorReservation(instructorTimeSlotId, reservationId)), events);
+
+    // A late rejection needs no compensation
+    assertTrue(state.onCommand(new Reservation.Command.AircraftUnavailable(reservationId)).isEmpty());
+  }
+
+  @Test
+  void shouldConfirmReservationWhenOutcomeIsAllAvailable() {
+    // Given
+    var state = createPendingReservation();
+    var available = Reservation.ParticipantStatus.available;
+
+    // When
+    var events = state.onCommand(new Reservation.Command.RecordOutcome(reservationId, available, available, available));
+
+    // Then
+    assertEquals(4, events.size());
+    assertTrue(events.get(0) instanceof Reservation.Event.StudentAvailable);
+    assertTrue(events.get(1) instanceof Reservation.Event.InstructorAvailable);
+    assertTrue(events.get(2) instanceof Reservation.Event.AircraftAvailable);
+    assertEquals(new Reservation.Event.ReservationConfirmed(reservationId), events.get(3));
+  }
+
+  @Test
+  void shouldCancelReservationWhenOutcomeHasUnavailableParticipant() {
+    // Given
+    var state = createPendingReservation();
+    var available = Reservation.ParticipantStatus.available;
+
+    // When
+    var events = state.onCommand(new Reservation.Command.RecordOutcome(
+        reservationId, available, Reservation.ParticipantStatus.unavailable, available));
+
+    // Then the student and aircraft time slots are released
+    assertEquals(6, events.size());
+    assertTrue(events.get(1) instanceof Reservation.Event.InstructorUnavailable);
+    assertEquals(new Reservation.Event.CancelledStudentReservation(studentTimeSlotId, reservationId), events.get(3));
+    assertEquals(new Reservation.Event.CancelledAircraftReservation(aircraftTimeSlotId, reservationId), events.get(4));
+    assertEquals(new Reservation.Event.ReservationCancelled(reservationId), events.get(5));
+  }
+
+  @Test
+  void shouldKeepAnswersAlreadyRecordedByConsumers() {
+    // Given the student time slot already answered through the consumers
+    var state = createPendingReservation();
+    var studentAvailable = (Reservation.Event.StudentAvailable) state
+        .onCommand(new Reservation.Command.StudentAvailable(reservationId)).get(0);
+    state = state.onEvent(studentAvailable);
+    var available = Reservation.ParticipantStatus.available;
+
+    // When
+    var events = state.onCommand(new Reservation.Command.RecordOutcome(reservationId, available, available, available));
+
+    // Then
+    assertEquals(3, events.size());
+    assertTrue(events.get(0) instanceof Reservation.Event.InstructorAvailable);
+    assertTrue(events.get(1) instanceof Reservation.Event.AircraftAvailable);
+    assertEquals(new Reservation.Event.ReservationConfirmed(reservationId), events.get(2));
+
+    // Recording the outcome of a completed reservation does nothing
+    var confirmed = state.onEvent(new Reservation.Event.ReservationConfirmed(reservationId));
+    assertTrue(confirmed.onCommand(new Reservation.Command.RecordOutcome(reservationId, available, available, available)).isEmpty());
+  }
+
   // Helper methods
   private Reservation.State createPendingReservation() {
     var command = new Reservation.Command.CreateReservation(
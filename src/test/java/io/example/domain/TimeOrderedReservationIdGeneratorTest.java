@@ -0,0 +1,118 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedReservationIdGeneratorTest {
+  private static final long now = 1742464800000L; // 2025-03-20T10:00:00Z
+
+  @Test
+  void shouldCreateSortableIdsWithCreationTime() {
+    var clock = new AtomicLong(now);
+    var generator = new TimeOrderedReservationIdGenerator(7, clock::get);
+
+    var first = generator.next();
+    clock.addAndGet(1);
+    var second = generator.next();
+
+    assertThat(first).hasSize(13).matches("[0-9A-HJKMNP-TV-Z]+");
+    assertThat(second).isGreaterThan(first);
+    assertThat(TimeOrderedReservationIdGenerator.timestamp(first)).isEqualTo(now);
+    assertThat(TimeOrderedReservationIdGenerator.timestamp(second)).isEqualTo(now + 1);
+  }
+
+  @Test
+  void shouldStayIncreasingWhenClockStopsOrMovesBackwards() {
+    var clock = new AtomicLong(now);
+    var generator = new TimeOrderedReservationIdGenerator(1, clock::get);
+
+    var ids = new ArrayList<String>();
+    for (int i = 0; i < 10_000; i++) { // more ids than fit in one millisecond
+      ids.add(generator.next());
+    }
+    clock.set(now - 1000);
+    for (int i = 0; i < 100; i++) {
+      ids.add(generator.next());
+    }
+
+    assertThat(ids).isSorted().doesNotHaveDuplicates();
+  }
+
+  @Test
+  void shouldCreateUniqueIdsAcrossThreadsAndNodes() throws Exception {
+    var threadsPerNode = 4;
+    var idsPerThread = 50_000;
+    var clock = new AtomicLong(now); // a frozen clock forces every id through the sequence and carry
+    var nodes = List.of(
+        new TimeOrderedReservationIdGenerator(0, clock::get),
+        new TimeOrderedReservationIdGenerator(1, clock::get),
+        new TimeOrderedReservationIdGenerator(TimeOrderedReservationIdGenerator.maxNodeId, clock::get));
+
+    var tasks = new ArrayList<Callable<List<String>>>();
+    for (var node : nodes) {
+      for (int t = 0; t < threadsPerNode; t++) {
+        tasks.add(() -> {
+          var ids = new ArrayList<String>(idsPerThread);
+          for (int i = 0; i < idsPerThread; i++) {
+            ids.add(node.next());
+          }
+          return ids;
+        });
+      }
+    }
+
+    var executor = Executors.newFixedThreadPool(tasks.size());
+    try {
+      var unique = new HashSet<String>();
+      for (var result : executor.invokeAll(tasks)) {
+        var ids = result.get();
+        assertThat(ids).isSorted();
+        unique.addAll(ids);
+      }
+      assertThat(unique).hasSize(nodes.size() * threadsPerNode * idsPerThread);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldKeepIdsWithinMaxClockLeadAndWaitItOutAfterRestart() {
+    // given
+    var clock = new AtomicLong(now);
+    var maxClockLead = 5;
+    var previousRun = new TimeOrderedReservationIdGenerator(1, maxClockLead, clock::get, clock::addAndGet);
+    var previousIds = new ArrayList<String>();
+    for (int i = 0; i < 100_000; i++) { // about 24 milliseconds worth of ids
+      previousIds.add(previousRun.next());
+    }
+
+    // when
+    var restartedAt = clock.get();
+    var restarted = new TimeOrderedReservationIdGenerator(1, maxClockLead, clock::get, clock::addAndGet);
+    var first = restarted.next();
+
+    // then
+    for (var id : previousIds) {
+      assertThat(TimeOrderedReservationIdGenerator.timestamp(id)).isLessThanOrEqualTo(restartedAt + maxClockLead);
+    }
+    assertThat(first).isGreaterThan(previousIds.get(previousIds.size() - 1));
+    assertThat(clock.get()).isGreaterThan(restartedAt + maxClockLead);
+  }
+
+  @Test
+  void shouldRejectNodeIdOutOfRange() {
+    assertThatThrownBy(() -> new TimeOrderedReservationIdGenerator(TimeOrderedReservationIdGenerator.maxNodeId + 1))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new TimeOrderedReservationIdGenerator(-1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,77 @@
+package io.example.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import io.example.domain.TimeSlot.ParticipantType;
+
+class TimeSlotKeyTest {
+  @Test
+  void formatMatchesEntityIdFormat() {
+    var startTime = Instant.parse("2024-03-20T10:00:00Z");
+    var key = TimeSlotKey.of("participant-1", ParticipantType.aircraft, startTime);
+    assertThat(key.format()).isEqualTo("2024-03-20-10-aircraft-participant-1");
+  }
+
+  @Test
+  void formatRoundsToNearestHour() {
+    assertThat(TimeSlotKey.format("student-1", ParticipantType.student, Instant.parse("2024-12-31T23:30:00Z")))
+        .isEqualTo("2025-01-01-00-student-student-1");
+    assertThat(TimeSlotKey.format("student-1", ParticipantType.student, Instant.parse("2024-02-29T09:29:59Z")))
+        .isEqualTo("2024-02-29-09-student-student-1");
+  }
+
+  @Test
+  void parseRecoversAllFields() {
+    var key = TimeSlotKey.parse("2024-03-20-10-instructor-instructor-1-a");
+    assertThat(key.startTime()).isEqualTo(Instant.parse("2024-03-20T10:00:00Z"));
+    assertThat(key.participantType()).isEqualTo(ParticipantType.instructor);
+    assertThat(key.participantId()).isEqualTo("instructor-1-a");
+    assertThat(key).isEqualTo(TimeSlotKey.of("instructor-1-a", ParticipantType.instructor, Instant.parse("2024-03-20T10:00:00Z")));
+  }
+
+  @Test
+  void parseAndFormatRoundTrip() {
+    var startTime = Instant.parse("1999-12-31T23:00:00Z");
+    for (var participantType : ParticipantType.values()) {
+      for (int hour = 0; hour < 24 * 400; hour++) {
+        var timeSlotId = TimeSlot.State.entityId("p-" + hour, participantType, startTime.plusSeconds(hour * 3600L));
+        assertThat(TimeSlotKey.parse(timeSlotId).format()).isEqualTo(timeSlotId);
+      }
+    }
+  }
+
+  @Test
+  void parseRejectsMalformedIds() {
+    assertThatThrownBy(() -> TimeSlotKey.parse("student-timeSlot-1")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> TimeSlotKey.parse("2024-13-20-10-student-s1")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> TimeSlotKey.parse("2024-03-20-10-pilot-s1")).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void parseRejectsDaysPastTheEndOfTheMonth() {
+    assertThatThrownBy(() -> TimeSlotKey.parse("2024-02-31-10-student-s1")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> TimeSlotKey.parse("2024-02-30-10-student-s1")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> TimeSlotKey.parse("2023-02-29-10-student-s1")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> TimeSlotKey.parse("1900-02-29-10-student-s1")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> TimeSlotKey.parse("2024-04-31-10-student-s1")).isInstanceOf(IllegalArgumentException.class);
+    assertThat(TimeSlotKey.tryParse("2024-06-31-10-student-s1")).isEmpty();
+
+    assertThat(TimeSlotKey.parse("2024-02-29-10-student-s1").startTime()).isEqualTo(Instant.parse("2024-02-29T10:00:00Z"));
+    assertThat(TimeSlotKey.parse("2000-02-29-10-student-s1").startTime()).isEqualTo(Instant.parse("2000-02-29T10:00:00Z"));
+    assertThat(TimeSlotKey.parse("2024-04-30-10-student-s1").startTime()).isEqualTo(Instant.parse("2024-04-30T10:00:00Z"));
+  }
+
+  @Test
+  void tryParseIsEmptyForNonCanonicalIds() {
+    assertThat(TimeSlotKey.tryParse("student-timeSlot-1")).isEmpty();
+    assertThat(TimeSlotKey.tryParse("2024-03-20-10-pilot-s1")).isEmpty();
+    assertThat(TimeSlotKey.tryParse(null)).isEmpty();
+    assertThat(TimeSlotKey.tryParse("2024-03-20-10-student-s1"))
+        .contains(TimeSlotKey.of("s1", ParticipantType.student, Instant.parse("2024-03-20T10:00:00Z")));
+  }
+}
@@ -340,6 +340,136 @@ class TimeSlotTest {
     assertThat(state.reservationId()).isEqualTo("reservation-1");
   }
 
+  @Test
+  void shouldArchiveTimeSlotThatStartedBeforeCutoff() {
+    // given
+    var state = makeTimeSlotAvailable();
+    var command = new TimeSlot.Command.ArchiveTimeSlot(
+        state.timeSlotId(),
+        Instant.parse("2024-03-20T11:00:00Z"));
+
+    // when
+    var eventOpt = state.onCommand(command);
+
+    // then
+    assertThat(eventOpt).contains(new TimeSlot.Event.TimeSlotArchived(state.timeSlotId()));
+    var archived = state.onEvent((TimeSlot.Event.TimeSlotArchived) eventOpt.get());
+    assertThat(archived.status()).isEqualTo(TimeSlot.Status.archived);
+    assertThat(archived.timeSlotId()).isEqualTo(state.timeSlotId());
+  }
+
+  @Test
+  void shouldIgnoreCommandsForArchivedTimeSlot() {
+    // given
+    var state = makeTimeSlotAvailable();
+    var cutoff = Instant.parse("2024-03-20T11:00:00Z");
+    var archived = state.onEvent((TimeSlot.Event.TimeSlotArchived) state.onCommand(
+        new TimeSlot.Command.ArchiveTimeSlot(state.timeSlotId(), cutoff)).orElseThrow());
+
+    // when
+    var archivedAgain = archived.onCommand(new TimeSlot.Command.ArchiveTimeSlot(state.timeSlotId(), cutoff));
+    var madeAvailable = archived.onCommand(new TimeSlot.Command.MakeTimeSlotAvailable(
+        state.participantId(), state.participantType(), state.startTime()));
+    var madeUnavailable = archived.onCommand(new TimeSlot.Command.MakeTimeSlotUnavailable(
+        state.participantId(), state.participantType(), state.startTime()));
+    var requested = archived.onCommand(new TimeSlot.Command.AircraftRequestsTimeSlot(state.timeSlotId(), "reservation-1"));
+
+    // then
+    assertThat(archivedAgain).isEmpty();
+    assertThat(madeAvailable).isEmpty();
+    assertThat(madeUnavailable).isEmpty();
+    assertThat(requested).containsInstanceOf(TimeSlot.Event.AircraftRequestRejected.class);
+  }
+
+  @Test
+  void shouldNotArchiveTimeSlotThatStartsAtOrAfterCutoff() {
+    // given
+    var state = makeTimeSlotAvailable();
+    var command = new TimeSlot.Command.ArchiveTimeSlot(
+        state.timeSlotId(),
+        Instant.parse("2024-03-20T10:00:00Z"));
+
+    // when
+    var eventOpt = state.onCommand(command);
+
+    // then
+    assertThat(eventOpt).isEmpty();
+    assertThat(TimeSlot.State.empty().onCommand(command)).isEmpty();
+  }
+
+  @Test
+  void shouldHoldTimeSlotUntilConfirmed() {
+    // given
+    var state = makeTimeSlotAvailable();
+    var now = Instant.parse("2024-03-19T10:00:00Z");
+    var heldUntil = now.plusSeconds(120);
+    var command = new TimeSlot.Command.AircraftRequestsTimeSlot(state.timeSlotId(), "reservation-1", heldUntil);
+
+    // when
+    var accepted = (TimeSlot.Event.AircraftRequestAccepted) state.onCommand(command, now).get();
+    state = state.onEvent(accepted);
+
+    // then
+    assertThat(state.status()).isEqualTo(TimeSlot.Status.held);
+    assertThat(state.heldAt()).isEqualTo(now);
+    assertThat(state.heldUntil()).isEqualTo(heldUntil);
+    assertThat(state.onCommand(command, now.plusSeconds(1))).isEmpty();
+
+    var confirmed = state.onCommand(new TimeSlot.Command.ConfirmTimeSlot(state.timeSlotId(), "reservation-1"));
+    assertThat(confirmed).contains(new TimeSlot.Event.TimeSlotConfirmed(state.timeSlotId(), "reservation-1"));
+    state = state.onEvent((TimeSlot.Event.TimeSlotConfirmed) confirmed.get());
+    assertThat(state.status()).isEqualTo(TimeSlot.Status.scheduled);
+    assertThat(state.reservationId()).isEqualTo("reservation-1");
+    assertThat(state.heldUntil()).isNull();
+  }
+
+  @Test
+  void shouldRejectCompetingRequestUntilHoldLapses() {
+    // given
+    var state = makeTimeSlotAvailable();
+    var now = Instant.parse("2024-03-19T10:00:00Z");
+    var heldUntil = now.plusSeconds(120);
+    state = state.onEvent((TimeSlot.Event.AircraftRequestAccepted) state.onCommand(
+        new TimeSlot.Command.AircraftRequestsTimeSlot(state.timeSlotId(), "reservation-1", heldUntil), now).get());
+    var competing = new TimeSlot.Command.AircraftRequestsTimeSlot(state.timeSlotId(), "reservation-2", heldUntil.plusSeconds(60));
+
+    // when
+    var beforeLapse = state.onCommand(competing, heldUntil.minusMillis(1));
+    var afterHeldUntil = state.onCommand(competing, heldUntil.plusSeconds(10));
+    var lapsed = state.onCommand(new TimeSlot.Command.LapseHold(state.timeSlotId(), "reservation-1"));
+
+    // then the hold only ends with the lapse event
+    assertThat(beforeLapse.get()).isInstanceOf(TimeSlot.Event.AircraftRequestRejected.class);
+    assertThat(afterHeldUntil.get()).isInstanceOf(TimeSlot.Event.AircraftRequestRejected.class);
+    assertThat(lapsed).contains(new TimeSlot.Event.TimeSlotHoldLapsed(state.timeSlotId(), "reservation-1"));
+    state = state.onEvent((TimeSlot.Event.TimeSlotHoldLapsed) lapsed.get());
+    assertThat(state.status()).isEqualTo(TimeSlot.Status.available);
+    assertThat(state.heldUntil()).isNull();
+
+    var afterLapse = state.onCommand(competing, heldUntil.plusSeconds(10));
+    assertThat(afterLapse.get()).isInstanceOf(TimeSlot.Event.AircraftRequestAccepted.class);
+    state = state.onEvent((TimeSlot.Event.AircraftRequestAccepted) afterLapse.get());
+    assertThat(state.reservationId()).isEqualTo("reservation-2");
+    assertThat(state.onCommand(new TimeSlot.Command.ConfirmTimeSlot(state.timeSlotId(), "reservation-1"))).isEmpty();
+    assertThat(state.onCommand(new TimeSlot.Command.LapseHold(state.timeSlotId(), "reservation-1"))).isEmpty();
+  }
+
+  @Test
+  void shouldCancelHeldTimeSlot() {
+    // given
+    var state = makeTimeSlotAvailable();
+    var now = Instant.parse("2024-03-19T10:00:00Z");
+    state = state.onEvent((TimeSlot.Event.AircraftRequestAccepted) state.onCommand(
+        new TimeSlot.Command.AircraftRequestsTimeSlot(state.timeSlotId(), "reservation-1", now.plusSeconds(120)), now).get());
+
+    // when
+    var cancelled = state.onCommand(new TimeSlot.Command.CancelTimeSlot(state.timeSlotId(), "reservation-1"));
+
+    // then
+    assertThat(cancelled).isPresent();
+    assertThat(state.onEvent((TimeSlot.Event.TimeSlotReservationCancelled) cancelled.get()).status()).isEqualTo(TimeSlot.Status.available);
+  }
+
   // Helper method
   private TimeSlot.State makeTimeSlotAvailable() {
     var command = new TimeSlot.Command.MakeTimeSlotAvailable(